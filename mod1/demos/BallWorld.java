@@ -0,0 +1,312 @@
+// The simulation behind MultipleBounceBall, without any display. Balls
+// move in a box, bounce off its walls and collide elastically with each
+// other, their mass growing with their area.
+//
+// The balls are stored as a structure of arrays, one array per coordinate,
+// so stepping reads memory in order. Only balls in neighboring cells of a
+// uniform grid are tested for collision, instead of every pair. Each step
+// computes the new state of every ball from the old state of the others
+// and writes only its own entries, so the balls can be stepped by several
+// threads without locks, and the result does not depend on the order
+public class BallWorld {
+  private final static int INITIAL_CAPACITY = 16;
+  // Balls per task when stepping in parallel
+  private final static int CHUNK_SIZE = 1024;
+
+  private double width;
+  private double height;
+  private boolean parallel = false;
+  private int size = 0;
+  private double[] x = new double[INITIAL_CAPACITY];
+  private double[] y = new double[INITIAL_CAPACITY];
+  private double[] vx = new double[INITIAL_CAPACITY];
+  private double[] vy = new double[INITIAL_CAPACITY];
+  private double[] radius = new double[INITIAL_CAPACITY];
+  // The state after the step being computed, swapped with the above
+  private double[] nextX = new double[INITIAL_CAPACITY];
+  private double[] nextY = new double[INITIAL_CAPACITY];
+  private double[] nextVx = new double[INITIAL_CAPACITY];
+  private double[] nextVy = new double[INITIAL_CAPACITY];
+  private double maxRadius = 0;
+
+  // The grid: the balls of cell c are cellBalls[cellStart[c],
+  // cellStart[c + 1])
+  private double cellSize;
+  private int columns;
+  private int rows;
+  private int[] cellStart = new int[1];
+  private int[] cellBalls = new int[INITIAL_CAPACITY];
+  private int[] cellOf = new int[INITIAL_CAPACITY];
+
+  private long collisionCount = 0;
+
+  public BallWorld(double width, double height) {
+    setSize(width, height);
+  }
+
+  // Balls outside a smaller box are moved back in by the next step
+  public void setSize(double width, double height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  public double getWidth() {
+    return width;
+  }
+
+  public double getHeight() {
+    return height;
+  }
+
+  // Steps the balls with the threads of the ForkJoin pool the caller runs
+  // in, or the common pool
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  // Returns the index of the new ball
+  public int add(double x, double y, double radius, double vx, double vy) {
+    if (size == this.x.length)
+      ensureCapacity(size * 2);
+
+    this.x[size] = x;
+    this.y[size] = y;
+    this.radius[size] = radius;
+    this.vx[size] = vx;
+    this.vy[size] = vy;
+    maxRadius = Math.max(maxRadius, radius);
+    return size++;
+  }
+
+  public void removeLast() {
+    if (size > 0)
+      size--;
+  }
+
+  public void clear() {
+    size = 0;
+    maxRadius = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public double getX(int i) {
+    return x[i];
+  }
+
+  public double getY(int i) {
+    return y[i];
+  }
+
+  public double getRadius(int i) {
+    return radius[i];
+  }
+
+  public double getVelocityX(int i) {
+    return vx[i];
+  }
+
+  public double getVelocityY(int i) {
+    return vy[i];
+  }
+
+  // The number of colliding pairs found so far
+  public long getCollisionCount() {
+    return collisionCount;
+  }
+
+  public double getKineticEnergy() {
+    double energy = 0;
+    for (int i = 0; i < size; i++)
+      energy += mass(i) * (vx[i] * vx[i] + vy[i] * vy[i]) / 2;
+    return energy;
+  }
+
+  // Runs steps of timeStep until elapsed is used up and returns the
+  // leftover time, for the caller to add to the next call. A fixed step
+  // keeps the simulation the same however often it is called
+  public double advance(double elapsed, double timeStep) {
+    while (elapsed >= timeStep) {
+      step(timeStep);
+      elapsed -= timeStep;
+    }
+
+    return elapsed;
+  }
+
+  public void step(double timeStep) {
+    buildGrid();
+
+    long collisions = forEachChunk(start -> {
+      int found = 0;
+      for (int i = start; i < Math.min(size, start + CHUNK_SIZE); i++)
+        found += collide(i);
+      return found;
+    });
+    // Each colliding pair was seen from both balls
+    collisionCount += collisions / 2;
+
+    double[] swap = x; x = nextX; nextX = swap;
+    swap = y; y = nextY; nextY = swap;
+    swap = vx; vx = nextVx; nextVx = swap;
+    swap = vy; vy = nextVy; nextVy = swap;
+
+    // Move last, so that no ball is left outside the walls
+    forEachChunk(start -> {
+      for (int i = start; i < Math.min(size, start + CHUNK_SIZE); i++)
+        move(i, timeStep);
+      return 0;
+    });
+  }
+
+  private long forEachChunk(java.util.function.IntToLongFunction task) {
+    int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    java.util.stream.IntStream starts = java.util.stream.IntStream.range(0,
+      chunks).map(chunk -> chunk * CHUNK_SIZE);
+    return (parallel ? starts.parallel() : starts).mapToLong(task).sum();
+  }
+
+  private void move(int i, double timeStep) {
+    x[i] += vx[i] * timeStep;
+    y[i] += vy[i] * timeStep;
+
+    double r = radius[i];
+    if (x[i] < r) {
+      x[i] = r;
+      vx[i] = Math.abs(vx[i]);
+    }
+    else if (x[i] > width - r) {
+      x[i] = Math.max(r, width - r);
+      vx[i] = -Math.abs(vx[i]);
+    }
+    if (y[i] < r) {
+      y[i] = r;
+      vy[i] = Math.abs(vy[i]);
+    }
+    else if (y[i] > height - r) {
+      y[i] = Math.max(r, height - r);
+      vy[i] = -Math.abs(vy[i]);
+    }
+  }
+
+  // Sorts the balls into cells no smaller than the largest ball, so that
+  // a ball can only touch balls in its own or the 8 neighboring cells.
+  // Sparse balls get larger cells, about one per ball, to keep the grid
+  // small
+  private void buildGrid() {
+    cellSize = Math.max(Math.max(2 * maxRadius, 1),
+      Math.sqrt(width * height / Math.max(size, 1)));
+    columns = (int)Math.max(1, Math.ceil(width / cellSize));
+    rows = (int)Math.max(1, Math.ceil(height / cellSize));
+    if (cellStart.length < columns * rows + 1)
+      cellStart = new int[columns * rows + 1];
+    else
+      java.util.Arrays.fill(cellStart, 0, columns * rows + 1, 0);
+
+    for (int i = 0; i < size; i++) {
+      cellOf[i] = cell(column(x[i]), row(y[i]));
+      cellStart[cellOf[i] + 1]++;
+    }
+    for (int c = 0; c < columns * rows; c++)
+      cellStart[c + 1] += cellStart[c];
+    for (int i = 0; i < size; i++)
+      cellBalls[cellStart[cellOf[i]]++] = i;
+    // Each start was moved to the end of its cell, the start of the next
+    for (int c = columns * rows; c > 0; c--)
+      cellStart[c] = cellStart[c - 1];
+    cellStart[0] = 0;
+  }
+
+  // Sets the next state of ball i from the current state of the balls it
+  // overlaps, and returns how many those are. An approaching pair gets
+  // the velocity change of an elastic collision along the line between
+  // the centers, and an overlap is split between the two balls by mass,
+  // so ball i does its own part and the other ball the rest
+  private int collide(int i) {
+    double xi = x[i];
+    double yi = y[i];
+    double nvx = vx[i];
+    double nvy = vy[i];
+    double nx = xi;
+    double ny = yi;
+    double mi = mass(i);
+    int column = column(xi);
+    int row = row(yi);
+    int found = 0;
+
+    for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++)
+      for (int c = Math.max(0, column - 1);
+          c <= Math.min(columns - 1, column + 1); c++) {
+        int cell = cell(c, r);
+        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+          int j = cellBalls[k];
+          double dx = x[j] - xi;
+          double dy = y[j] - yi;
+          double reach = radius[i] + radius[j];
+          double distanceSquared = dx * dx + dy * dy;
+          if (j == i || distanceSquared >= reach * reach)
+            continue;
+
+          found++;
+          double distance = Math.sqrt(distanceSquared);
+          double normalX = 1;
+          double normalY = 0;
+          if (distance > 0) {
+            normalX = dx / distance;
+            normalY = dy / distance;
+          }
+          else if (j < i)
+            normalX = -1; // Balls at one point are pushed apart by index
+
+          double mj = mass(j);
+          double share = mj / (mi + mj);
+          double approach = (vx[j] - vx[i]) * normalX +
+            (vy[j] - vy[i]) * normalY;
+          if (approach < 0) {
+            nvx += 2 * share * approach * normalX;
+            nvy += 2 * share * approach * normalY;
+          }
+          nx -= share * (reach - distance) * normalX;
+          ny -= share * (reach - distance) * normalY;
+        }
+      }
+
+    nextX[i] = nx;
+    nextY[i] = ny;
+    nextVx[i] = nvx;
+    nextVy[i] = nvy;
+    return found;
+  }
+
+  private double mass(int i) {
+    return radius[i] * radius[i];
+  }
+
+  private int column(double x) {
+    return Math.max(0, Math.min(columns - 1, (int)(x / cellSize)));
+  }
+
+  private int row(double y) {
+    return Math.max(0, Math.min(rows - 1, (int)(y / cellSize)));
+  }
+
+  private int cell(int column, int row) {
+    return row * columns + column;
+  }
+
+  private void ensureCapacity(int capacity) {
+    x = java.util.Arrays.copyOf(x, capacity);
+    y = java.util.Arrays.copyOf(y, capacity);
+    vx = java.util.Arrays.copyOf(vx, capacity);
+    vy = java.util.Arrays.copyOf(vy, capacity);
+    radius = java.util.Arrays.copyOf(radius, capacity);
+    nextX = new double[capacity];
+    nextY = new double[capacity];
+    nextVx = new double[capacity];
+    nextVy = new double[capacity];
+    cellBalls = new int[capacity];
+    cellOf = new int[capacity];
+  }
+}
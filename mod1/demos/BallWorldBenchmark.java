@@ -0,0 +1,85 @@
+public class BallWorldBenchmark {
+  private final static double TIME_STEP = 1;
+  private final static int STEPS = 200;
+
+  public static void main(String[] args) throws Exception {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+      : Runtime.getRuntime().availableProcessors();
+
+    // Only pairs in neighboring grid cells are tested; check the result
+    // against testing every pair. A step counts the overlaps of the
+    // positions it starts from, before it pushes overlapping balls apart,
+    // so step(0) counts the current overlaps without moving the balls
+    // along their velocities. It still separates them, so both counts
+    // are taken first
+    BallWorld small = createWorld(500, 1);
+    long expected = 0;
+    long found = 0;
+    for (int step = 0; step < STEPS; step++) {
+      expected += countOverlapsOfAllPairs(small);
+      long before = small.getCollisionCount();
+      small.step(0);
+      found += small.getCollisionCount() - before;
+      small.step(TIME_STEP);
+    }
+    System.out.println("Overlaps found by the grid: " + found +
+      ", by testing all pairs: " + expected);
+
+    for (int balls: new int[] {10_000, 50_000}) {
+      System.out.println(balls + " balls");
+      System.out.println("threads  steps per second  kinetic energy change");
+      for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+        BallWorld world = createWorld(balls, 1);
+        world.setParallel(true);
+        double energy = world.getKineticEnergy();
+        java.util.concurrent.ForkJoinPool pool =
+          new java.util.concurrent.ForkJoinPool(threads);
+        pool.submit(() -> {
+          for (int step = 0; step < STEPS; step++)
+            world.step(TIME_STEP);
+        }).get();
+
+        long startTime = System.nanoTime();
+        pool.submit(() -> {
+          for (int step = 0; step < STEPS; step++)
+            world.step(TIME_STEP);
+        }).get();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%7d  %16.1f  %20.2f%%%n", threads, STEPS / seconds,
+          100 * (world.getKineticEnergy() - energy) / energy);
+        if (threads == maxThreads)
+          break;
+      }
+    }
+  }
+
+  // Balls of radius 2 to 5 moving at up to 2 units per step, covering
+  // about a tenth of a square box
+  private static BallWorld createWorld(int balls, long seed) {
+    java.util.Random random = new java.util.Random(seed);
+    double side = Math.sqrt(balls * Math.PI * 3.5 * 3.5 * 10);
+    BallWorld world = new BallWorld(side, side);
+    for (int i = 0; i < balls; i++) {
+      double radius = 2 + 3 * random.nextDouble();
+      world.add(radius + random.nextDouble() * (side - 2 * radius),
+        radius + random.nextDouble() * (side - 2 * radius), radius,
+        4 * random.nextDouble() - 2, 4 * random.nextDouble() - 2);
+    }
+    return world;
+  }
+
+  private static int countOverlapsOfAllPairs(BallWorld world) {
+    int count = 0;
+    for (int i = 0; i < world.size(); i++)
+      for (int j = i + 1; j < world.size(); j++) {
+        double dx = world.getX(j) - world.getX(i);
+        double dy = world.getY(j) - world.getY(i);
+        double reach = world.getRadius(i) + world.getRadius(j);
+        if (dx * dx + dy * dy < reach * reach)
+          count++;
+      }
+    return count;
+  }
+}
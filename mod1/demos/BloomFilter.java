@@ -0,0 +1,204 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// A blocked Bloom filter: the bits of an element all fall into one 512-bit
+// block, a cache line on most machines, so add and contains touch a single
+// line of memory. contains never misses an added element but may report
+// one that was not added, at about the configured false-positive rate.
+// Elements are hashed by their hashCode, so elements with equal hash codes
+// are indistinguishable. Elements cannot be removed or iterated
+public class BloomFilter<E> implements MySet<E> {
+  private final static int MAGIC = 0x424c4f4d;
+  private final static int BLOCK_BITS = 512;
+  private final static int WORDS_PER_BLOCK = BLOCK_BITS / Long.SIZE;
+  private final long[] words;
+  private final int blocks;
+  private final int hashFunctions;
+  // The number of adds that set at least one new bit, which is close to
+  // the number of distinct elements until the filter gets crowded
+  private int size = 0;
+
+  public BloomFilter(int expectedElements, double falsePositiveRate) {
+    if (expectedElements <= 0 || falsePositiveRate <= 0 ||
+        falsePositiveRate >= 1)
+      throw new IllegalArgumentException(
+        "Need expectedElements > 0 and 0 < falsePositiveRate < 1");
+
+    // The optimal number of bits and of hash functions for a plain Bloom
+    // filter; blocking raises the false-positive rate a little, which
+    // 10% more bits make up for
+    double bits = 1.1 * -expectedElements * Math.log(falsePositiveRate) /
+      (Math.log(2) * Math.log(2));
+    this.blocks = (int)Math.min(Integer.MAX_VALUE / WORDS_PER_BLOCK,
+      Math.max(1, Math.ceil(bits / BLOCK_BITS)));
+    this.hashFunctions = (int)Math.max(1, Math.min(16,
+      Math.round(-Math.log(falsePositiveRate) / Math.log(2))));
+    this.words = new long[blocks * WORDS_PER_BLOCK];
+  }
+
+  private BloomFilter(int blocks, int hashFunctions, int size) {
+    this.blocks = blocks;
+    this.hashFunctions = hashFunctions;
+    this.size = size;
+    this.words = new long[blocks * WORDS_PER_BLOCK];
+  }
+
+  // Returns false if every bit of e was already set, that is if e may
+  // have been added before
+  @Override
+  public boolean add(E e) {
+    long h = hash(e);
+    int base = block(h) * WORDS_PER_BLOCK;
+    int h1 = (int)h;
+    int h2 = ((int)h >>> 16) | 1;
+
+    boolean changed = false;
+    for (int i = 0; i < hashFunctions; i++) {
+      int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+      long mask = 1L << bit;
+      int word = base + (bit >>> 6);
+      if ((words[word] & mask) == 0) {
+        words[word] |= mask;
+        changed = true;
+      }
+    }
+
+    if (changed)
+      size++;
+    return changed;
+  }
+
+  public void addAll(Iterable<? extends E> elements) {
+    for (E e: elements)
+      add(e);
+  }
+
+  @Override
+  public boolean contains(E e) {
+    long h = hash(e);
+    int base = block(h) * WORDS_PER_BLOCK;
+    int h1 = (int)h;
+    int h2 = ((int)h >>> 16) | 1;
+
+    for (int i = 0; i < hashFunctions; i++) {
+      int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+      if ((words[base + (bit >>> 6)] & (1L << bit)) == 0)
+        return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public boolean remove(E e) {
+    throw new UnsupportedOperationException(
+      "Bloom filters cannot remove elements");
+  }
+
+  @Override
+  public void clear() {
+    java.util.Arrays.fill(words, 0);
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public java.util.Iterator<E> iterator() {
+    throw new UnsupportedOperationException(
+      "Bloom filters do not keep their elements");
+  }
+
+  // Adds every element of other, which must have been created with the
+  // same expectedElements and falsePositiveRate
+  public void merge(BloomFilter<E> other) {
+    if (other.blocks != blocks || other.hashFunctions != hashFunctions)
+      throw new IllegalArgumentException("Filters have different sizes");
+
+    for (int i = 0; i < words.length; i++)
+      words[i] |= other.words[i];
+    size = estimateSize();
+  }
+
+  // The false-positive rate at the current fill: the chance that all
+  // hashFunctions bits of an element not added are set
+  public double getFalsePositiveRate() {
+    long setBits = 0;
+    for (long word: words)
+      setBits += Long.bitCount(word);
+    return Math.pow((double)setBits / (words.length * Long.SIZE),
+      hashFunctions);
+  }
+
+  public long getBitCount() {
+    return (long)words.length * Long.SIZE;
+  }
+
+  public void writeTo(java.io.OutputStream output) throws IOException {
+    DataOutputStream out = new DataOutputStream(
+      new java.io.BufferedOutputStream(output));
+    out.writeInt(MAGIC);
+    out.writeInt(blocks);
+    out.writeInt(hashFunctions);
+    out.writeInt(size);
+    for (long word: words)
+      out.writeLong(word);
+    out.flush();
+  }
+
+  public static <E> BloomFilter<E> readFrom(java.io.InputStream input)
+      throws IOException {
+    DataInputStream in = new DataInputStream(input);
+    if (in.readInt() != MAGIC)
+      throw new IOException("Not a Bloom filter");
+
+    BloomFilter<E> filter = new BloomFilter<>(in.readInt(), in.readInt(),
+      in.readInt());
+    // Read exactly the filter's bytes, so the stream can hold more data
+    byte[] bytes = new byte[filter.words.length * Long.BYTES];
+    in.readFully(bytes);
+    java.nio.ByteBuffer.wrap(bytes).asLongBuffer().get(filter.words);
+    return filter;
+  }
+
+  // The usual estimate of the number of elements from the set bits. A
+  // filter with every bit set would give infinity, so it is counted as
+  // one bit short of full, and the estimate is capped at the int range
+  private int estimateSize() {
+    long setBits = 0;
+    for (long word: words)
+      setBits += Long.bitCount(word);
+    double m = (double)words.length * Long.SIZE;
+    setBits = Math.min(setBits, (long)m - 1);
+    return (int)Math.min(Integer.MAX_VALUE,
+      Math.round(-m / hashFunctions * Math.log(1 - setBits / m)));
+  }
+
+  private int block(long h) {
+    return (int)(((h >>> 32) * blocks) >>> 32);
+  }
+
+  static long hash(Object e) {
+    long h = e.hashCode() * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+
+  @Override
+  public String toString() {
+    return "BloomFilter of about " + size + " elements in " + getBitCount() +
+      " bits with " + hashFunctions + " hash functions";
+  }
+}
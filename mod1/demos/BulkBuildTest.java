@@ -0,0 +1,72 @@
+public class BulkBuildTest {
+  private final static int SIZE = 2_000_000;
+
+  public static void main(String[] args) throws Exception {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+      : Runtime.getRuntime().availableProcessors();
+
+    // A tenth of the keys are repeated, so duplicates must keep the last
+    // value
+    java.util.Random random = new java.util.Random(1);
+    Integer[] keys = new Integer[SIZE];
+    Integer[] values = new Integer[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      keys[i] = random.nextInt(10) == 0 && i > 0 ?
+        keys[random.nextInt(i)] : random.nextInt();
+      values[i] = i;
+    }
+
+    MyHashMap<Integer, Integer> expected = null;
+    for (int run = 0; run < 3; run++) {
+      long start = System.nanoTime();
+      expected = new MyHashMap<>();
+      for (int i = 0; i < SIZE; i++)
+        expected.put(keys[i], values[i]);
+      System.out.printf("put one at a time           %6d ms%n",
+        (System.nanoTime() - start) / 1000000);
+    }
+
+    System.out.println("threads  MyHashMap.of  toMyHashMap");
+    for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+      java.util.concurrent.ForkJoinPool pool =
+        new java.util.concurrent.ForkJoinPool(threads);
+      long ofMillis = Long.MAX_VALUE;
+      long collectMillis = Long.MAX_VALUE;
+      for (int run = 0; run < 3; run++) {
+        long start = System.nanoTime();
+        MyHashMap<Integer, Integer> map =
+          pool.submit(() -> MyHashMap.of(keys, values)).get();
+        ofMillis = Math.min(ofMillis, (System.nanoTime() - start) / 1000000);
+        check(expected, map);
+
+        start = System.nanoTime();
+        map = pool.submit(() -> java.util.stream.IntStream.range(0, SIZE)
+          .parallel().boxed().collect(MyHashMap.<Integer, Integer, Integer>
+            toMyHashMap(i -> keys[i], i -> values[i]))).get();
+        collectMillis = Math.min(collectMillis,
+          (System.nanoTime() - start) / 1000000);
+        check(expected, map);
+      }
+      pool.shutdown();
+      System.out.printf("%7d  %9d ms  %8d ms%n", threads, ofMillis,
+        collectMillis);
+      if (threads == maxThreads)
+        break;
+    }
+
+    MyHashMap<String, Integer> small = MyHashMap.fromSpliterator(
+      java.util.Arrays.asList("red", "green", "blue", "red").spliterator(),
+      color -> color, String::length);
+    System.out.println(small);
+  }
+
+  private static void check(MyHashMap<Integer, Integer> expected,
+      MyHashMap<Integer, Integer> map) {
+    if (map.size() != expected.size())
+      throw new AssertionError("Size " + map.size() + " instead of " +
+        expected.size());
+    for (MyMap.Entry<Integer, Integer> entry: expected.entrySet())
+      if (!entry.getValue().equals(map.get(entry.getKey())))
+        throw new AssertionError("Wrong value for " + entry.getKey());
+  }
+}
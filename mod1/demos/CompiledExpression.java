@@ -0,0 +1,532 @@
+// An arithmetic expression compiled once into a postfix program and then
+// evaluated many times. Expressions have +, -, *, / and unary minus,
+// parentheses, integer and decimal constants and named variables, such as
+// "(price - cost) * -quantity / 100". Subexpressions without variables
+// are folded into constants when compiling.
+//
+// The program can run on one row of variable values, or on whole columns:
+// then every instruction is applied to a block of rows at once, in a
+// simple loop over primitive arrays, instead of interpreting the program
+// once per row. Int and long evaluation divide as Java does, truncating,
+// and int evaluation overflows like int arithmetic
+public class CompiledExpression {
+  // Rows evaluated together; the stack of one block of each type fits in
+  // the CPU caches
+  private final static int BLOCK_SIZE = 1024;
+
+  // An instruction is an opcode in the low 8 bits and an operand, the
+  // index of a constant or a variable, in the other bits
+  private final static int CONSTANT = 0;
+  private final static int VARIABLE = 1;
+  private final static int ADD = 2;
+  private final static int SUBTRACT = 3;
+  private final static int MULTIPLY = 4;
+  private final static int DIVIDE = 5;
+  private final static int NEGATE = 6;
+
+  private final String expression;
+  private final String[] variables;
+  // The same program folded with int, long and double arithmetic; the int
+  // and long programs are null if the expression has decimal constants,
+  // and the int program also if a constant does not fit in an int
+  private final Program intProgram;
+  private final Program longProgram;
+  private final Program doubleProgram;
+
+  private CompiledExpression(String expression, String[] variables,
+      Program intProgram, Program longProgram, Program doubleProgram) {
+    this.expression = expression;
+    this.variables = variables;
+    this.intProgram = intProgram;
+    this.longProgram = longProgram;
+    this.doubleProgram = doubleProgram;
+  }
+
+  // The variables are numbered in the order given; any other variable in
+  // the expression is numbered after them, in order of appearance
+  public static CompiledExpression compile(String expression,
+      String... variables) {
+    java.util.List<String> names =
+      new java.util.ArrayList<>(java.util.Arrays.asList(variables));
+    java.util.List<String> constants = new java.util.ArrayList<>();
+    int[] postfix = toPostfix(expression, names, constants);
+
+    boolean integral = true;
+    boolean fitsInt = true;
+    for (String constant: constants) {
+      integral &= constant.indexOf('.') < 0;
+      fitsInt = fitsInt && integral &&
+        Long.parseLong(constant) <= Integer.MAX_VALUE;
+    }
+
+    return new CompiledExpression(expression, names.toArray(new String[0]),
+      fitsInt ? fold(postfix, constants, Program.INT) : null,
+      integral ? fold(postfix, constants, Program.LONG) : null,
+      fold(postfix, constants, Program.DOUBLE));
+  }
+
+  public String[] getVariables() {
+    return variables.clone();
+  }
+
+  // Returns the number of a variable, or -1 if the expression has no such
+  // variable
+  public int indexOf(String variable) {
+    return java.util.Arrays.asList(variables).indexOf(variable);
+  }
+
+  // The number of instructions left after constant folding
+  public int getProgramLength() {
+    return doubleProgram.code.length;
+  }
+
+  public int evaluateInt(int... values) {
+    return (int)run(program(intProgram), values, null);
+  }
+
+  public long evaluateLong(long... values) {
+    return run(program(longProgram), null, values);
+  }
+
+  public double evaluateDouble(double... values) {
+    Program program = doubleProgram;
+    checkVariables(values.length);
+    double[] stack = new double[program.maximumDepth];
+    int top = -1;
+    for (int instruction: program.code) {
+      int operand = instruction >>> 8;
+      switch (instruction & 0xFF) {
+        case CONSTANT: stack[++top] = program.doubleConstants[operand]; break;
+        case VARIABLE: stack[++top] = values[operand]; break;
+        case ADD: top--; stack[top] += stack[top + 1]; break;
+        case SUBTRACT: top--; stack[top] -= stack[top + 1]; break;
+        case MULTIPLY: top--; stack[top] *= stack[top + 1]; break;
+        case DIVIDE: top--; stack[top] /= stack[top + 1]; break;
+        case NEGATE: stack[top] = -stack[top]; break;
+      }
+    }
+
+    return stack[0];
+  }
+
+  // columns[v] holds the values of variable v; result[i] is set to the
+  // value of the expression for row i of every column
+  public void evaluate(int[][] columns, int[] result) {
+    Program program = program(intProgram);
+    checkColumns(columns.length, result.length, columns);
+    long[][] stack = new long[program.maximumDepth][BLOCK_SIZE];
+    for (int from = 0; from < result.length; from += BLOCK_SIZE) {
+      int n = Math.min(BLOCK_SIZE, result.length - from);
+      runBlock(program, stack, columns, null, from, n);
+      for (int i = 0; i < n; i++)
+        result[from + i] = (int)stack[0][i];
+    }
+  }
+
+  public void evaluate(long[][] columns, long[] result) {
+    Program program = program(longProgram);
+    checkColumns(columns.length, result.length, columns);
+    long[][] stack = new long[program.maximumDepth][BLOCK_SIZE];
+    for (int from = 0; from < result.length; from += BLOCK_SIZE) {
+      int n = Math.min(BLOCK_SIZE, result.length - from);
+      runBlock(program, stack, null, columns, from, n);
+      System.arraycopy(stack[0], 0, result, from, n);
+    }
+  }
+
+  public void evaluate(double[][] columns, double[] result) {
+    Program program = doubleProgram;
+    checkColumns(columns.length, result.length, columns);
+    double[][] stack = new double[program.maximumDepth][BLOCK_SIZE];
+    for (int from = 0; from < result.length; from += BLOCK_SIZE) {
+      int n = Math.min(BLOCK_SIZE, result.length - from);
+      int top = -1;
+      for (int instruction: program.code) {
+        int operand = instruction >>> 8;
+        int opcode = instruction & 0xFF;
+        if (opcode == CONSTANT)
+          java.util.Arrays.fill(stack[++top], 0, n,
+            program.doubleConstants[operand]);
+        else if (opcode == VARIABLE)
+          System.arraycopy(columns[operand], from, stack[++top], 0, n);
+        else if (opcode == NEGATE) {
+          double[] a = stack[top];
+          for (int i = 0; i < n; i++)
+            a[i] = -a[i];
+        }
+        else {
+          double[] b = stack[top--];
+          double[] a = stack[top];
+          if (opcode == ADD)
+            for (int i = 0; i < n; i++)
+              a[i] += b[i];
+          else if (opcode == SUBTRACT)
+            for (int i = 0; i < n; i++)
+              a[i] -= b[i];
+          else if (opcode == MULTIPLY)
+            for (int i = 0; i < n; i++)
+              a[i] *= b[i];
+          else
+            for (int i = 0; i < n; i++)
+              a[i] /= b[i];
+        }
+      }
+      System.arraycopy(stack[0], 0, result, from, n);
+    }
+  }
+
+  // Runs an int or long program on one row, given as intValues or
+  // longValues
+  private long run(Program program, int[] intValues, long[] longValues) {
+    checkVariables(intValues != null ? intValues.length : longValues.length);
+    long[] stack = new long[program.maximumDepth];
+    int top = -1;
+    for (int instruction: program.code) {
+      int operand = instruction >>> 8;
+      switch (instruction & 0xFF) {
+        case CONSTANT: stack[++top] = program.longConstants[operand]; break;
+        case VARIABLE: stack[++top] = intValues != null ?
+          intValues[operand] : longValues[operand]; break;
+        default:
+          top = apply(program, instruction & 0xFF, stack, top);
+      }
+    }
+
+    return stack[0];
+  }
+
+  private static int apply(Program program, int opcode, long[] stack,
+      int top) {
+    if (opcode == NEGATE)
+      stack[top] = program.narrow(-stack[top]);
+    else {
+      long b = stack[top--];
+      stack[top] = program.narrow(operate(opcode, stack[top], b));
+    }
+
+    return top;
+  }
+
+  // Runs an int or long program on rows [from, from + n) of intColumns or
+  // longColumns, leaving the results in stack[0]
+  private static void runBlock(Program program, long[][] stack,
+      int[][] intColumns, long[][] longColumns, int from, int n) {
+    int top = -1;
+    for (int instruction: program.code) {
+      int operand = instruction >>> 8;
+      int opcode = instruction & 0xFF;
+      if (opcode == CONSTANT)
+        java.util.Arrays.fill(stack[++top], 0, n,
+          program.longConstants[operand]);
+      else if (opcode == VARIABLE) {
+        long[] a = stack[++top];
+        if (intColumns != null) {
+          int[] column = intColumns[operand];
+          for (int i = 0; i < n; i++)
+            a[i] = column[from + i];
+        }
+        else
+          System.arraycopy(longColumns[operand], from, a, 0, n);
+      }
+      else if (opcode == NEGATE) {
+        long[] a = stack[top];
+        for (int i = 0; i < n; i++)
+          a[i] = -a[i];
+      }
+      else {
+        long[] b = stack[top--];
+        long[] a = stack[top];
+        if (opcode == ADD)
+          for (int i = 0; i < n; i++)
+            a[i] += b[i];
+        else if (opcode == SUBTRACT)
+          for (int i = 0; i < n; i++)
+            a[i] -= b[i];
+        else if (opcode == MULTIPLY)
+          for (int i = 0; i < n; i++)
+            a[i] *= b[i];
+        else
+          for (int i = 0; i < n; i++)
+            a[i] /= b[i];
+      }
+
+      // Int arithmetic wraps around after every operation. Doing it in
+      // long and then truncating gives the same result
+      if (program.type == Program.INT && opcode != CONSTANT &&
+          opcode != VARIABLE) {
+        long[] a = stack[top];
+        for (int i = 0; i < n; i++)
+          a[i] = (int)a[i];
+      }
+    }
+  }
+
+  private static long operate(int opcode, long a, long b) {
+    switch (opcode) {
+      case ADD: return a + b;
+      case SUBTRACT: return a - b;
+      case MULTIPLY: return a * b;
+      default: return a / b;
+    }
+  }
+
+  private static double operate(int opcode, double a, double b) {
+    switch (opcode) {
+      case ADD: return a + b;
+      case SUBTRACT: return a - b;
+      case MULTIPLY: return a * b;
+      default: return a / b;
+    }
+  }
+
+  private Program program(Program program) {
+    if (program == null)
+      throw new UnsupportedOperationException(longProgram == null ?
+        "Expression has decimal constants: " + expression :
+        "Expression has constants too large for int: " + expression);
+    return program;
+  }
+
+  private void checkVariables(int count) {
+    if (count < variables.length)
+      throw new IllegalArgumentException("Expected " + variables.length +
+        " variable values, got " + count);
+  }
+
+  private void checkColumns(int count, int rows, Object[] columns) {
+    checkVariables(count);
+    for (int v = 0; v < variables.length; v++)
+      if (java.lang.reflect.Array.getLength(columns[v]) < rows)
+        throw new IllegalArgumentException("Column of " + variables[v] +
+          " has fewer than " + rows + " rows");
+  }
+
+  // Converts the expression to postfix with the operator stack of
+  // EvaluateExpression, reading the characters directly instead of
+  // splitting the string. Constants and variables become CONSTANT and
+  // VARIABLE instructions numbering the entries of constants and
+  // variables; a minus where an operand is expected is unary
+  private static int[] toPostfix(String expression,
+      java.util.List<String> variables, java.util.List<String> constants) {
+    int[] postfix = new int[expression.length()];
+    int length = 0;
+    char[] operatorStack = new char[expression.length()];
+    int top = -1;
+    boolean expectOperand = true;
+
+    for (int i = 0; i < expression.length(); ) {
+      char c = expression.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+        continue;
+      }
+
+      if (expectOperand) {
+        if (c == '(' || c == '-') {
+          // Unary minus binds tighter than any binary operator
+          operatorStack[++top] = c == '(' ? '(' : '~';
+          i++;
+        }
+        else if (Character.isDigit(c) || c == '.') {
+          int start = i;
+          while (i < expression.length() &&
+              (Character.isDigit(expression.charAt(i)) ||
+               expression.charAt(i) == '.'))
+            i++;
+          String constant = expression.substring(start, i);
+          try {
+            if (constant.indexOf('.') < 0)
+              Long.parseLong(constant);
+            else
+              Double.parseDouble(constant);
+          }
+          catch (NumberFormatException ex) {
+            throw new ExpressionSyntaxException("Malformed number",
+              expression, start);
+          }
+          postfix[length++] = CONSTANT | constants.size() << 8;
+          constants.add(constant);
+          expectOperand = false;
+        }
+        else if (Character.isJavaIdentifierStart(c)) {
+          int start = i;
+          while (i < expression.length() &&
+              Character.isJavaIdentifierPart(expression.charAt(i)))
+            i++;
+          String name = expression.substring(start, i);
+          int index = variables.indexOf(name);
+          if (index < 0) {
+            index = variables.size();
+            variables.add(name);
+          }
+          postfix[length++] = VARIABLE | index << 8;
+          expectOperand = false;
+        }
+        else
+          throw new ExpressionSyntaxException("Expected an operand",
+            expression, i);
+      }
+      else if (c == '+' || c == '-' || c == '*' || c == '/') {
+        // Pop the operators that bind at least as tightly, since all
+        // binary operators are left associative
+        while (top >= 0 && operatorStack[top] != '(' &&
+            precedence(operatorStack[top]) >= precedence(c))
+          postfix[length++] = opcode(operatorStack[top--]);
+        operatorStack[++top] = c;
+        expectOperand = true;
+        i++;
+      }
+      else if (c == ')') {
+        while (top >= 0 && operatorStack[top] != '(')
+          postfix[length++] = opcode(operatorStack[top--]);
+        if (top < 0)
+          throw new ExpressionSyntaxException("Unmatched )", expression, i);
+        top--;
+        i++;
+      }
+      else
+        throw new ExpressionSyntaxException("Expected an operator",
+          expression, i);
+    }
+
+    if (expectOperand)
+      throw new ExpressionSyntaxException("Expected an operand", expression,
+        expression.length());
+    while (top >= 0) {
+      if (operatorStack[top] == '(')
+        throw new ExpressionSyntaxException("Unmatched (", expression,
+          expression.length());
+      postfix[length++] = opcode(operatorStack[top--]);
+    }
+
+    return java.util.Arrays.copyOf(postfix, length);
+  }
+
+  private static int precedence(char operator) {
+    return operator == '~' ? 3 : operator == '*' || operator == '/' ? 2 : 1;
+  }
+
+  private static int opcode(char operator) {
+    switch (operator) {
+      case '+': return ADD;
+      case '-': return SUBTRACT;
+      case '*': return MULTIPLY;
+      case '/': return DIVIDE;
+      default: return NEGATE;
+    }
+  }
+
+
+  // Replaces every operator whose operands are all constants with its
+  // value. A division by a constant zero is left for evaluation to report,
+  // as it would be without folding
+  private static Program fold(int[] postfix,
+      java.util.List<String> constantTexts, int type) {
+    int[] code = new int[postfix.length];
+    int length = 0;
+    long[] longConstants = new long[postfix.length];
+    double[] doubleConstants = new double[postfix.length];
+    int constantCount = 0;
+    // Whether code[k] is a CONSTANT instruction
+    boolean[] constant = new boolean[postfix.length];
+    Program program = new Program(type);
+
+    for (int instruction: postfix) {
+      int opcode = instruction & 0xFF;
+      int operand = instruction >>> 8;
+      if (opcode == CONSTANT) {
+        String text = constantTexts.get(operand);
+        if (type == Program.DOUBLE)
+          doubleConstants[constantCount] = Double.parseDouble(text);
+        else
+          longConstants[constantCount] =
+            program.narrow(Long.parseLong(text));
+        constant[length] = true;
+        code[length++] = CONSTANT | constantCount++ << 8;
+      }
+      else if (opcode == VARIABLE) {
+        constant[length] = false;
+        code[length++] = instruction;
+      }
+      else if (opcode == NEGATE && constant[length - 1]) {
+        int c = code[length - 1] >>> 8;
+        longConstants[c] = program.narrow(-longConstants[c]);
+        doubleConstants[c] = -doubleConstants[c];
+      }
+      else if (opcode != NEGATE && constant[length - 1] &&
+          constant[length - 2] && !(type != Program.DOUBLE &&
+          opcode == DIVIDE && longConstants[code[length - 1] >>> 8] == 0)) {
+        // Both operands are the two most recent constants
+        int a = code[length - 2] >>> 8;
+        int b = code[length - 1] >>> 8;
+        if (type == Program.DOUBLE)
+          doubleConstants[a] =
+            operate(opcode, doubleConstants[a], doubleConstants[b]);
+        else
+          longConstants[a] = program.narrow(
+            operate(opcode, longConstants[a], longConstants[b]));
+        constantCount--;
+        length--;
+      }
+      else {
+        constant[length] = false;
+        code[length++] = instruction;
+      }
+    }
+
+    program.code = java.util.Arrays.copyOf(code, length);
+    program.longConstants = java.util.Arrays.copyOf(longConstants,
+      constantCount);
+    program.doubleConstants = java.util.Arrays.copyOf(doubleConstants,
+      constantCount);
+    int depth = 0;
+    for (int instruction: program.code) {
+      int opcode = instruction & 0xFF;
+      depth += opcode == CONSTANT || opcode == VARIABLE ? 1 :
+        opcode == NEGATE ? 0 : -1;
+      program.maximumDepth = Math.max(program.maximumDepth, depth);
+    }
+
+    return program;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int instruction: doubleProgram.code) {
+      int operand = instruction >>> 8;
+      switch (instruction & 0xFF) {
+        case CONSTANT: builder.append(doubleProgram.doubleConstants[operand]);
+          break;
+        case VARIABLE: builder.append(variables[operand]); break;
+        case ADD: builder.append('+'); break;
+        case SUBTRACT: builder.append('-'); break;
+        case MULTIPLY: builder.append('*'); break;
+        case DIVIDE: builder.append('/'); break;
+        case NEGATE: builder.append("neg"); break;
+      }
+      builder.append(' ');
+    }
+
+    return builder.toString().trim();
+  }
+
+  private static class Program {
+    final static int INT = 0;
+    final static int LONG = 1;
+    final static int DOUBLE = 2;
+    final int type;
+    int[] code;
+    long[] longConstants;
+    double[] doubleConstants;
+    int maximumDepth;
+
+    Program(int type) {
+      this.type = type;
+    }
+
+    long narrow(long value) {
+      return type == INT ? (int)value : value;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+public class ConcurrentHashMapScalingTest {
+  private final static int KEY_RANGE = 1 << 20;
+  private final static long DURATION_MILLIS = 1000;
+
+  public static void main(String[] args) throws Exception {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+      : Runtime.getRuntime().availableProcessors();
+
+    MyMap<Integer, Integer> concurrentMap = new MyConcurrentHashMap<>();
+    MyMap<Integer, Integer> lockedMap = new MyHashMap<>();
+    for (int i = 0; i < KEY_RANGE; i += 2) {
+      concurrentMap.put(i, i);
+      lockedMap.put(i, i);
+    }
+
+    System.out.println("Million operations per second, 90% get / 10% put");
+    System.out.println("threads  MyConcurrentHashMap  locked MyHashMap");
+    for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+      double concurrent = getThroughput(concurrentMap, threads, false);
+      double locked = getThroughput(lockedMap, threads, true);
+      System.out.printf("%7d  %19.2f  %16.2f%n", threads, concurrent, locked);
+      if (threads == maxThreads)
+        break;
+    }
+  }
+
+  public static double getThroughput(MyMap<Integer, Integer> map,
+      int threads, boolean globalLock) throws Exception {
+    java.util.concurrent.atomic.LongAdder operations =
+      new java.util.concurrent.atomic.LongAdder();
+    java.util.concurrent.atomic.AtomicBoolean running =
+      new java.util.concurrent.atomic.AtomicBoolean(true);
+
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      final int id = t;
+      workers[t] = new Thread(() -> {
+        java.util.concurrent.ThreadLocalRandom random =
+          java.util.concurrent.ThreadLocalRandom.current();
+        long done = 0;
+        while (running.get()) {
+          for (int i = 0; i < 1000; i++) {
+            Integer key = random.nextInt(KEY_RANGE);
+            if (random.nextInt(10) == 0) {
+              if (globalLock)
+                synchronized (map) { map.put(key, id); }
+              else
+                map.put(key, id);
+            }
+            else {
+              if (globalLock)
+                synchronized (map) { map.get(key); }
+              else
+                map.get(key);
+            }
+          }
+          done += 1000;
+        }
+        operations.add(done);
+      });
+    }
+
+    for (Thread worker: workers)
+      worker.start();
+    Thread.sleep(DURATION_MILLIS);
+    running.set(false);
+    for (Thread worker: workers)
+      worker.join();
+
+    return operations.sum() / (DURATION_MILLIS * 1000.0);
+  }
+}
@@ -17,30 +17,34 @@ public class CountKeywords {
     }    
   }
 
-  public static int countKeywords(File file) throws Exception {  
-    String[] keywordString = {"abstract", "assert", "boolean", 
-        "break", "byte", "case", "catch", "char", "class", "const",
-        "continue", "default", "do", "double", "else", "enum",
-        "extends", "for", "final", "finally", "float", "goto",
-        "if", "implements", "import", "instanceof", "int", 
-        "interface", "long", "native", "new", "package", "private",
-        "protected", "public", "return", "short", "static", 
-        "strictfp", "super", "switch", "synchronized", "this",
-        "throw", "throws", "transient", "try", "void", "volatile",
-        "while", "true", "false", "null"};
-
-    Set<String> keywordSet = 
-      new HashSet<>(Arrays.asList(keywordString));
-    int count = 0;    
+  private final static PerfectHashSet KEYWORDS = new PerfectHashSet(
+    "abstract", "assert", "boolean", 
+    "break", "byte", "case", "catch", "char", "class", "const",
+    "continue", "default", "do", "double", "else", "enum",
+    "extends", "for", "final", "finally", "float", "goto",
+    "if", "implements", "import", "instanceof", "int", 
+    "interface", "long", "native", "new", "package", "private",
+    "protected", "public", "return", "short", "static", 
+    "strictfp", "super", "switch", "synchronized", "this",
+    "throw", "throws", "transient", "try", "void", "volatile",
+    "while", "true", "false", "null");
+  private final static ParallelKeywordScanner SCANNER =
+    new ParallelKeywordScanner(KEYWORDS);
 
-    Scanner input = new Scanner(file);
+  // Counts the keywords with the tokenizer of ParallelKeywordScanner,
+  // straight from the bytes of the file. It splits identifiers by Java's
+  // rules, so do_work is not counted as do, and it skips comments and
+  // string and character literals
+  public static int countKeywords(File file) throws Exception {  
+    java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(
+      java.nio.file.Files.readAllBytes(file.toPath()));
+    long[] counts = new long[KEYWORDS.size()];
+    SCANNER.scan(bytes, counts);
 
-    while (input.hasNext()) {
-      String word = input.next();
-      if (keywordSet.contains(word)) 
-        count++;
-    }
+    long count = 0;
+    for (long n: counts)
+      count += n;
 
-    return count;
+    return (int)count;
   }
 }
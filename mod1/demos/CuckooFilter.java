@@ -0,0 +1,274 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// A cuckoo filter keeps a short fingerprint of every element in one of two
+// buckets of 4 slots. The second bucket is the first one xor the hash of
+// the fingerprint, so a fingerprint can be moved between its buckets
+// without knowing the element. Unlike a Bloom filter it supports remove.
+// Like a multiset, adding an element twice stores two fingerprints, and
+// only elements that were added may be removed: removing anything else
+// could delete the fingerprint of another element. Putting the filter in
+// front of an exact set and adding or removing only what the exact set
+// actually adds or removes satisfies both rules
+public class CuckooFilter<E> implements MySet<E> {
+  private final static int MAGIC = 0x4355434b;
+  private final static int SLOTS_PER_BUCKET = 4;
+  private final static int MAXIMUM_FINGERPRINT_BITS = 16;
+  private final static int MAXIMUM_KICKS = 500;
+  private final static float MAXIMUM_LOAD_FACTOR = 0.95f;
+  private final int bucketMask;
+  private final int fingerprintBits;
+  // Fingerprints of any length are kept in 16-bit slots; 0 marks an empty
+  // slot
+  private final char[] slots;
+  private int size = 0;
+  // A fingerprint that could not be placed when the table got full; while
+  // it is set, add fails
+  private char victim;
+  private int victimBucket;
+  private final java.util.Random random = new java.util.Random();
+
+  // False-positive rates below 8 / 2^16, about 0.0001, are rounded up to it
+  public CuckooFilter(int expectedElements, double falsePositiveRate) {
+    if (expectedElements <= 0 || falsePositiveRate <= 0 ||
+        falsePositiveRate >= 1)
+      throw new IllegalArgumentException(
+        "Need expectedElements > 0 and 0 < falsePositiveRate < 1");
+
+    // A lookup compares 2 * 4 fingerprints, each of which matches with
+    // probability 1 / 2^fingerprintBits
+    this.fingerprintBits = (int)Math.max(4, Math.min(MAXIMUM_FINGERPRINT_BITS,
+      Math.ceil(Math.log(2 * SLOTS_PER_BUCKET / falsePositiveRate) /
+        Math.log(2))));
+
+    long buckets = Math.max(1, (long)Math.ceil(
+      expectedElements / (MAXIMUM_LOAD_FACTOR * SLOTS_PER_BUCKET)));
+    int capacity = 1;
+    while (capacity < buckets && capacity < (1 << 28))
+      capacity <<= 1;
+    this.bucketMask = capacity - 1;
+    this.slots = new char[capacity * SLOTS_PER_BUCKET];
+  }
+
+  private CuckooFilter(int buckets, int fingerprintBits) {
+    this.bucketMask = buckets - 1;
+    this.fingerprintBits = fingerprintBits;
+    this.slots = new char[buckets * SLOTS_PER_BUCKET];
+  }
+
+  // Throws IllegalStateException when the filter is too full to take e
+  @Override
+  public boolean add(E e) {
+    long h = BloomFilter.hash(e);
+    char fingerprint = fingerprint(h);
+    insert(fingerprint, index(h));
+    return true;
+  }
+
+  public void addAll(Iterable<? extends E> elements) {
+    for (E e: elements)
+      add(e);
+  }
+
+  @Override
+  public boolean contains(E e) {
+    long h = BloomFilter.hash(e);
+    char fingerprint = fingerprint(h);
+    int i1 = index(h);
+    int i2 = alternateIndex(i1, fingerprint);
+
+    return bucketContains(i1, fingerprint) ||
+      bucketContains(i2, fingerprint) ||
+      (victim == fingerprint && (victimBucket == i1 || victimBucket == i2));
+  }
+
+  @Override
+  public boolean remove(E e) {
+    long h = BloomFilter.hash(e);
+    char fingerprint = fingerprint(h);
+    int i1 = index(h);
+    int i2 = alternateIndex(i1, fingerprint);
+
+    if (victim == fingerprint && (victimBucket == i1 || victimBucket == i2)) {
+      victim = 0;
+      size--;
+      return true;
+    }
+
+    if (removeFromBucket(i1, fingerprint) ||
+        removeFromBucket(i2, fingerprint)) {
+      size--;
+      // The room freed may take the victim back
+      if (victim != 0) {
+        char pending = victim;
+        victim = 0;
+        size--;
+        insert(pending, victimBucket);
+      }
+      return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    java.util.Arrays.fill(slots, (char)0);
+    victim = 0;
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public java.util.Iterator<E> iterator() {
+    throw new UnsupportedOperationException(
+      "Cuckoo filters do not keep their elements");
+  }
+
+  // Adds every fingerprint of other, which must have been created with
+  // the same expectedElements and falsePositiveRate
+  public void merge(CuckooFilter<E> other) {
+    if (other.slots.length != slots.length ||
+        other.fingerprintBits != fingerprintBits)
+      throw new IllegalArgumentException("Filters have different sizes");
+
+    for (int i = 0; i < other.slots.length; i++)
+      if (other.slots[i] != 0)
+        insert(other.slots[i], i / SLOTS_PER_BUCKET);
+    if (other.victim != 0)
+      insert(other.victim, other.victimBucket);
+  }
+
+  public double getLoadFactor() {
+    return (double)size / slots.length;
+  }
+
+  // The false-positive rate at the current load
+  public double getFalsePositiveRate() {
+    return 1 - Math.pow(1 - 1.0 / ((1 << fingerprintBits) - 1),
+      2 * SLOTS_PER_BUCKET * getLoadFactor());
+  }
+
+  public long getBitCount() {
+    return (long)slots.length * Character.SIZE;
+  }
+
+  public void writeTo(java.io.OutputStream output) throws IOException {
+    DataOutputStream out = new DataOutputStream(
+      new java.io.BufferedOutputStream(output));
+    out.writeInt(MAGIC);
+    out.writeInt(bucketMask + 1);
+    out.writeInt(fingerprintBits);
+    out.writeInt(size);
+    out.writeChar(victim);
+    out.writeInt(victimBucket);
+    for (char slot: slots)
+      out.writeChar(slot);
+    out.flush();
+  }
+
+  public static <E> CuckooFilter<E> readFrom(java.io.InputStream input)
+      throws IOException {
+    DataInputStream in = new DataInputStream(input);
+    if (in.readInt() != MAGIC)
+      throw new IOException("Not a cuckoo filter");
+
+    CuckooFilter<E> filter = new CuckooFilter<>(in.readInt(), in.readInt());
+    filter.size = in.readInt();
+    filter.victim = in.readChar();
+    filter.victimBucket = in.readInt();
+    // Read exactly the filter's bytes, so the stream can hold more data
+    byte[] bytes = new byte[filter.slots.length * Character.BYTES];
+    in.readFully(bytes);
+    java.nio.ByteBuffer.wrap(bytes).asCharBuffer().get(filter.slots);
+    return filter;
+  }
+
+  // Places the fingerprint in bucket i or its alternate; if both are full
+  // a random resident is kicked out to its own alternate bucket, and so on
+  private void insert(char fingerprint, int i) {
+    if (victim != 0)
+      throw new IllegalStateException("Cuckoo filter is full");
+
+    size++;
+    if (addToBucket(i, fingerprint))
+      return;
+    i = alternateIndex(i, fingerprint);
+    if (addToBucket(i, fingerprint))
+      return;
+
+    for (int kick = 0; kick < MAXIMUM_KICKS; kick++) {
+      int slot = i * SLOTS_PER_BUCKET + random.nextInt(SLOTS_PER_BUCKET);
+      char evicted = slots[slot];
+      slots[slot] = fingerprint;
+      fingerprint = evicted;
+      i = alternateIndex(i, fingerprint);
+      if (addToBucket(i, fingerprint))
+        return;
+    }
+
+    victim = fingerprint;
+    victimBucket = i;
+  }
+
+  private boolean addToBucket(int i, char fingerprint) {
+    for (int slot = i * SLOTS_PER_BUCKET;
+        slot < (i + 1) * SLOTS_PER_BUCKET; slot++)
+      if (slots[slot] == 0) {
+        slots[slot] = fingerprint;
+        return true;
+      }
+
+    return false;
+  }
+
+  private boolean bucketContains(int i, char fingerprint) {
+    for (int slot = i * SLOTS_PER_BUCKET;
+        slot < (i + 1) * SLOTS_PER_BUCKET; slot++)
+      if (slots[slot] == fingerprint)
+        return true;
+
+    return false;
+  }
+
+  private boolean removeFromBucket(int i, char fingerprint) {
+    for (int slot = i * SLOTS_PER_BUCKET;
+        slot < (i + 1) * SLOTS_PER_BUCKET; slot++)
+      if (slots[slot] == fingerprint) {
+        slots[slot] = 0;
+        return true;
+      }
+
+    return false;
+  }
+
+  private int index(long h) {
+    return (int)(h >>> 32) & bucketMask;
+  }
+
+  // Symmetric: alternateIndex(alternateIndex(i, f), f) == i
+  private int alternateIndex(int i, char fingerprint) {
+    return (i ^ HashStrategy.murmur(fingerprint)) & bucketMask;
+  }
+
+  private char fingerprint(long h) {
+    int fingerprint = (int)h & ((1 << fingerprintBits) - 1);
+    return (char)(fingerprint == 0 ? 1 : fingerprint);
+  }
+
+  @Override
+  public String toString() {
+    return "CuckooFilter of " + size + " elements in " + getBitCount() +
+      " bits with " + fingerprintBits + "-bit fingerprints";
+  }
+}
@@ -9,10 +9,17 @@ public class EvaluateExpression {
     }
 
     try {
-      System.out.println(evaluateExpression(args[0]));
+      System.out.println(InfixEvaluator.evaluateInt(args[0]));
     }
-    catch (Exception ex) {
+    catch (ExpressionSyntaxException ex) {
+      // Point at the place of the error
       System.out.println("Wrong expression: " + args[0]);
+      System.out.printf("%" + (19 + ex.getPosition()) + "s%n", "^");
+      System.out.println(ex.getMessage());
+    }
+    catch (ArithmeticException ex) {
+      System.out.println("Wrong expression: " + args[0] + ", " +
+        ex.getMessage());
     }
   }
 
@@ -86,17 +93,17 @@ public class EvaluateExpression {
   }
   
   public static String insertBlanks(String s) {
-    String result = "";
+    StringBuilder result = new StringBuilder(s.length() * 2);
     
     for (int i = 0; i < s.length(); i++) {
       if (s.charAt(i) == '(' || s.charAt(i) == ')' || 
           s.charAt(i) == '+' || s.charAt(i) == '-' ||
           s.charAt(i) == '*' || s.charAt(i) == '/')
-        result += " " + s.charAt(i) + " ";
+        result.append(' ').append(s.charAt(i)).append(' ');
       else
-        result += s.charAt(i);
+        result.append(s.charAt(i));
     }
     
-    return result;
+    return result.toString();
   }
 }
\ No newline at end of file
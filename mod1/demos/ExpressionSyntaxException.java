@@ -0,0 +1,24 @@
+// A malformed expression. The position is the index of the character
+// where the problem was found, or the length of the expression if it
+// ended too early
+public class ExpressionSyntaxException extends IllegalArgumentException {
+  private static final long serialVersionUID = 1L;
+
+  private final String expression;
+  private final int position;
+
+  public ExpressionSyntaxException(String message, CharSequence expression,
+      int position) {
+    super(message + " at position " + position + " of " + expression);
+    this.expression = expression.toString();
+    this.position = position;
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public int getPosition() {
+    return position;
+  }
+}
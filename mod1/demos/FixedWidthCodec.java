@@ -0,0 +1,61 @@
+public interface FixedWidthCodec<T> {
+  public int width();
+  public void write(T value, java.nio.ByteBuffer buffer, int offset);
+  public T read(java.nio.ByteBuffer buffer, int offset);
+
+  public static final FixedWidthCodec<Integer> INT =
+    new FixedWidthCodec<Integer>() {
+      @Override
+      public int width() {
+        return Integer.BYTES;
+      }
+
+      @Override
+      public void write(Integer value, java.nio.ByteBuffer buffer,
+          int offset) {
+        buffer.putInt(offset, value);
+      }
+
+      @Override
+      public Integer read(java.nio.ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset);
+      }
+    };
+
+  public static final FixedWidthCodec<Long> LONG =
+    new FixedWidthCodec<Long>() {
+      @Override
+      public int width() {
+        return Long.BYTES;
+      }
+
+      @Override
+      public void write(Long value, java.nio.ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, value);
+      }
+
+      @Override
+      public Long read(java.nio.ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+      }
+    };
+
+  public static final FixedWidthCodec<Double> DOUBLE =
+    new FixedWidthCodec<Double>() {
+      @Override
+      public int width() {
+        return Double.BYTES;
+      }
+
+      @Override
+      public void write(Double value, java.nio.ByteBuffer buffer,
+          int offset) {
+        buffer.putDouble(offset, value);
+      }
+
+      @Override
+      public Double read(java.nio.ByteBuffer buffer, int offset) {
+        return buffer.getDouble(offset);
+      }
+    };
+}
@@ -0,0 +1,103 @@
+public class HashFloodingTest {
+  public static void main(String[] args) {
+    final int TEST_SIZE = 20000;
+
+    MyMap<CollidingKey, Integer> map = new MyHashMap<>();
+    System.out.println("Colliding Comparable keys, MyHashMap time: " +
+      getTime(map, TEST_SIZE) + " milliseconds");
+    System.out.println("Colliding Comparable keys, MyRobinHoodHashMap time: "
+      + getTime(new MyRobinHoodHashMap<CollidingKey, Integer>(), TEST_SIZE) +
+      " milliseconds");
+
+    System.out.println("Random operations agree with java.util.HashMap? " +
+      agreesWithHashMap(200000));
+  }
+
+  public static long getTime(MyMap<CollidingKey, Integer> map,
+      int testSize) {
+    long startTime = System.currentTimeMillis();
+
+    for (int i = 0; i < testSize; i++)
+      map.put(new CollidingKey(i), i);
+
+    for (int i = 0; i < testSize; i++)
+      if (map.get(new CollidingKey(i)) != i)
+        throw new IllegalStateException("Lost key " + i);
+
+    for (int i = 0; i < testSize; i++)
+      map.remove(new CollidingKey(i));
+
+    if (!map.isEmpty())
+      throw new IllegalStateException("Map is not empty");
+
+    return System.currentTimeMillis() - startTime;
+  }
+
+  // Mixes comparable and non-comparable keys that collide in a few
+  // buckets, so buckets keep being treeified and untreeified
+  public static boolean agreesWithHashMap(int operations) {
+    MyMap<Object, Integer> map = new MyHashMap<>(4, 0.75f, true);
+    java.util.Map<Object, Integer> expected = new java.util.HashMap<>();
+    java.util.Random random = new java.util.Random(1);
+
+    for (int i = 0; i < operations; i++) {
+      int id = random.nextInt(2000);
+      Object key = id % 3 == 0 ? new OpaqueKey(id) : new CollidingKey(id);
+      if (random.nextInt(3) == 0) {
+        map.remove(key);
+        expected.remove(key);
+      }
+      else {
+        map.put(key, i);
+        expected.put(key, i);
+      }
+
+      if (map.size() != expected.size() ||
+          !java.util.Objects.equals(map.get(key), expected.get(key)))
+        return false;
+    }
+
+    return map.keySet().equals(expected.keySet());
+  }
+
+  static class CollidingKey implements Comparable<CollidingKey> {
+    final int id;
+
+    CollidingKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id % 7;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CollidingKey && ((CollidingKey)o).id == id;
+    }
+
+    @Override
+    public int compareTo(CollidingKey o) {
+      return Integer.compare(id, o.id);
+    }
+  }
+
+  static class OpaqueKey {
+    final int id;
+
+    OpaqueKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id % 5;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof OpaqueKey && ((OpaqueKey)o).id == id;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+public class HashMapPerformanceTest {
+  private static long checksum;
+
+  public static void main(String[] args) {
+    final int TEST_SIZE = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+    Integer[] keys = new Integer[TEST_SIZE];
+    for (int i = 0; i < TEST_SIZE; i++)
+      keys[i] = i * 31;
+    java.util.Collections.shuffle(java.util.Arrays.asList(keys),
+      new java.util.Random(1));
+
+    // Warm up both implementations before measuring
+    for (int i = 0; i < 3; i++) {
+      getTime(new MyHashMap<Integer, Integer>(), keys);
+      getTime(new MyRobinHoodHashMap<Integer, Integer>(), keys);
+    }
+
+    System.out.println("Chained MyHashMap time: " +
+      getTime(new MyHashMap<Integer, Integer>(), keys) + " milliseconds");
+    System.out.println("Robin Hood MyRobinHoodHashMap time: " +
+      getTime(new MyRobinHoodHashMap<Integer, Integer>(), keys) +
+      " milliseconds");
+
+    System.out.println("Chained MyHashMap footprint: " +
+      getFootprint(new MyHashMap<Integer, Integer>(), keys) / 1024 + " KB");
+    System.out.println("Robin Hood MyRobinHoodHashMap footprint: " +
+      getFootprint(new MyRobinHoodHashMap<Integer, Integer>(), keys) / 1024
+      + " KB");
+  }
+
+  public static long getTime(MyMap<Integer, Integer> map, Integer[] keys) {
+    long startTime = System.currentTimeMillis();
+
+    for (int i = 0; i < keys.length; i++)
+      map.put(keys[i], keys[i]);
+
+    for (int round = 0; round < 4; round++)
+      for (int i = 0; i < keys.length; i++)
+        checksum += map.get(keys[i]);
+
+    for (int i = 0; i < keys.length; i++)
+      map.remove(keys[i]);
+
+    return System.currentTimeMillis() - startTime;
+  }
+
+  // Heap bytes retained by a map filled with keys; the boxed keys are
+  // shared with the caller, so only the table layout itself is counted
+  public static long getFootprint(MyMap<Integer, Integer> map,
+      Integer[] keys) {
+    long before = usedMemory();
+
+    for (int i = 0; i < keys.length; i++)
+      map.put(keys[i], keys[i]);
+
+    long after = usedMemory();
+    if (map.size() != keys.length)
+      throw new IllegalStateException("Lost entries");
+    return after - before;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++)
+      System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,58 @@
+// Spreads a key's hashCode before MyHashMap and MyHashSet take its low
+// bits as the bucket index. Keys with equal hash codes collide under any
+// strategy; a good one keeps keys whose hash codes differ only in the
+// high bits, or follow a pattern, out of the same bucket
+public interface HashStrategy {
+  public int hash(int hashCode);
+
+  // Uses the hash code as it is, which is what MyHashSet used to do
+  public static final HashStrategy IDENTITY = new HashStrategy() {
+    @Override
+    public int hash(int hashCode) {
+      return hashCode;
+    }
+  };
+
+  // The supplemental hash function of JDK 1.4 to 7's HashMap
+  public static final HashStrategy SUPPLEMENTAL = new HashStrategy() {
+    @Override
+    public int hash(int h) {
+      h ^= (h >>> 20) ^ (h >>> 12);
+      return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+  };
+
+  // The 32-bit finalizer of MurmurHash3: every input bit affects every
+  // output bit
+  public static final HashStrategy MURMUR = new HashStrategy() {
+    @Override
+    public int hash(int h) {
+      return murmur(h);
+    }
+  };
+
+  // The murmur finalizer applied to the hash code mixed with a seed, so
+  // which hash codes share a bucket differs from seed to seed
+  public static HashStrategy seeded(int seed) {
+    return new HashStrategy() {
+      @Override
+      public int hash(int h) {
+        return murmur(h ^ seed) ^ seed;
+      }
+    };
+  }
+
+  // A seed drawn per table makes the bucket of a key unpredictable, so
+  // keys cannot be chosen in advance to flood one bucket
+  public static HashStrategy randomSeeded() {
+    return seeded(java.util.concurrent.ThreadLocalRandom.current().nextInt());
+  }
+
+  public static int murmur(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    return h ^ (h >>> 16);
+  }
+}
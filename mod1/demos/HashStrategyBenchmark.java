@@ -0,0 +1,60 @@
+public class HashStrategyBenchmark {
+  private static long checksum;
+
+  public static void main(String[] args) {
+    final int TEST_SIZE = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+    Object[][] keySets = new Object[4][TEST_SIZE];
+    String[] keySetNames = {"sequential ints", "multiples of 4096",
+      "whole doubles", "strings"};
+    for (int i = 0; i < TEST_SIZE; i++) {
+      keySets[0][i] = i;
+      keySets[1][i] = i * 4096;
+      // The hash code of a whole double varies mostly in its high bits
+      keySets[2][i] = (double)i;
+      keySets[3][i] = "key" + i;
+    }
+
+    HashStrategy[] strategies = {HashStrategy.IDENTITY,
+      HashStrategy.SUPPLEMENTAL, HashStrategy.MURMUR,
+      HashStrategy.randomSeeded()};
+    String[] strategyNames = {"identity", "supplemental", "murmur",
+      "random seeded"};
+
+    // Warm up every strategy before measuring
+    for (HashStrategy strategy: strategies)
+      getTime(strategy, keySets[0]);
+
+    for (int k = 0; k < keySets.length; k++) {
+      System.out.println(keySetNames[k] + ":");
+      for (int s = 0; s < strategies.length; s++) {
+        MyHashSet<Object> set = new MyHashSet<>(TEST_SIZE, 0.75f, false,
+          strategies[s]);
+        set.setStatsEnabled(true);
+        for (Object key: keySets[k])
+          set.add(key);
+        HashTableStats.Snapshot stats = set.getStats();
+
+        System.out.printf("  %-14s max chain %6d, average probes %9.2f, " +
+          "%5d ms%n", strategyNames[s], stats.getMaxChainLength(),
+          stats.getAverageProbeLength(), getTime(strategies[s], keySets[k]));
+      }
+    }
+  }
+
+  // Time to add all keys and search for each of them twice
+  public static long getTime(HashStrategy strategy, Object[] keys) {
+    long startTime = System.currentTimeMillis();
+
+    MyHashSet<Object> set = new MyHashSet<>(strategy);
+    for (Object key: keys)
+      set.add(key);
+
+    for (int round = 0; round < 2; round++)
+      for (Object key: keys)
+        if (set.contains(key))
+          checksum++;
+
+    return System.currentTimeMillis() - startTime;
+  }
+}
@@ -0,0 +1,146 @@
+// Resize statistics for MyHashMap and MyHashSet. A table creates one only
+// when stats are enabled, so a table without stats pays a null check per
+// rehash and nothing on get, put or remove. Bucket lengths are not tracked
+// as the table changes; they are counted when a snapshot is taken
+public class HashTableStats {
+  private final static int HISTORY_LENGTH = 64;
+  private int rehashCount;
+  private long rehashNanos;
+  // A ring of the most recent load factor samples
+  private final long[] sampleTimes = new long[HISTORY_LENGTH];
+  private final float[] sampleLoadFactors = new float[HISTORY_LENGTH];
+  private int sampleCount;
+
+  void recordRehash(int size, int capacity) {
+    rehashCount++;
+    sampleLoadFactor(size, capacity);
+  }
+
+  void addRehashNanos(long nanos) {
+    rehashNanos += nanos;
+  }
+
+  void sampleLoadFactor(int size, int capacity) {
+    int i = sampleCount++ % HISTORY_LENGTH;
+    sampleTimes[i] = System.currentTimeMillis();
+    sampleLoadFactors[i] = (float)size / capacity;
+  }
+
+  // bucketLengths[i] is the number of buckets holding i elements
+  Snapshot snapshot(int size, int capacity, int[] bucketLengths) {
+    sampleLoadFactor(size, capacity);
+
+    int samples = Math.min(sampleCount, HISTORY_LENGTH);
+    long[] times = new long[samples];
+    float[] loadFactors = new float[samples];
+    for (int k = 0; k < samples; k++) {
+      int i = (sampleCount - samples + k) % HISTORY_LENGTH;
+      times[k] = sampleTimes[i];
+      loadFactors[k] = sampleLoadFactors[i];
+    }
+
+    return new Snapshot(size, capacity, bucketLengths, rehashCount,
+      rehashNanos, times, loadFactors);
+  }
+
+  static int[] countBucket(int[] bucketLengths, int length) {
+    if (length >= bucketLengths.length)
+      bucketLengths = java.util.Arrays.copyOf(bucketLengths,
+        Math.max(length + 1, bucketLengths.length * 2));
+    bucketLengths[length]++;
+    return bucketLengths;
+  }
+
+  // An immutable copy that a metrics exporter can keep and read at leisure
+  public static class Snapshot {
+    private final int size;
+    private final int capacity;
+    private final int[] bucketLengths;
+    private final int maxChainLength;
+    private final int rehashCount;
+    private final long rehashNanos;
+    private final long[] loadFactorTimes;
+    private final float[] loadFactors;
+
+    Snapshot(int size, int capacity, int[] bucketLengths, int rehashCount,
+        long rehashNanos, long[] loadFactorTimes, float[] loadFactors) {
+      int max = bucketLengths.length - 1;
+      while (max > 0 && bucketLengths[max] == 0)
+        max--;
+
+      this.size = size;
+      this.capacity = capacity;
+      this.bucketLengths = java.util.Arrays.copyOf(bucketLengths, max + 1);
+      this.maxChainLength = max;
+      this.rehashCount = rehashCount;
+      this.rehashNanos = rehashNanos;
+      this.loadFactorTimes = loadFactorTimes;
+      this.loadFactors = loadFactors;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public int getCapacity() {
+      return capacity;
+    }
+
+    public double getLoadFactor() {
+      return (double)size / capacity;
+    }
+
+    // Element i is the number of buckets whose chain holds i elements
+    public int[] getBucketLengthHistogram() {
+      return bucketLengths.clone();
+    }
+
+    public int getMaxChainLength() {
+      return maxChainLength;
+    }
+
+    // The expected number of elements compared by a successful search
+    public double getAverageProbeLength() {
+      long probes = 0;
+      for (int length = 1; length < bucketLengths.length; length++)
+        probes += (long)bucketLengths[length] * length * (length + 1) / 2;
+
+      return size == 0 ? 0 : (double)probes / size;
+    }
+
+    public int getRehashCount() {
+      return rehashCount;
+    }
+
+    public long getRehashNanos() {
+      return rehashNanos;
+    }
+
+    // Load factors sampled at every rehash and every snapshot, oldest first
+    public float[] getLoadFactorHistory() {
+      return loadFactors.clone();
+    }
+
+    // The times in milliseconds of the samples in getLoadFactorHistory
+    public long[] getLoadFactorTimes() {
+      return loadFactorTimes.clone();
+    }
+
+    // Lists the histogram as length=buckets pairs, skipping empty lengths
+    @Override
+    public String toString() {
+      StringBuilder histogram = new StringBuilder("{");
+      for (int length = 0; length < bucketLengths.length; length++)
+        if (bucketLengths[length] > 0)
+          histogram.append(histogram.length() > 1 ? ", " : "")
+            .append(length).append('=').append(bucketLengths[length]);
+      histogram.append('}');
+
+      return String.format("size %d, capacity %d, load factor %.2f, " +
+        "max chain %d, average probes %.2f, %d rehashes in %.3f ms, " +
+        "bucket lengths %s", size, capacity, getLoadFactor(),
+        maxChainLength, getAverageProbeLength(), rehashCount,
+        rehashNanos / 1e6, histogram);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+// An AVL tree holding the entries of one overfull MyHashMap bucket. The
+// balancing follows mod3's AVLTree (LL, LR, RR and RL rotations), but
+// nodes are ordered by hash first, then by compareTo when both keys are
+// of the same Comparable class, and finally by an arbitrary tie-break
+public class HashTreeBucket<K, V> implements Iterable<MyMap.Entry<K, V>> {
+  private TreeNode<K, V> root;
+  private int size = 0;
+  private boolean removed;
+
+  public int size() {
+    return size;
+  }
+
+  public MyMap.Entry<K, V> find(int hash, K key) {
+    TreeNode<K, V> node = find(root, hash, key);
+    return node == null ? null : node.entry;
+  }
+
+  // The caller guarantees that the key is not in the tree yet
+  public void add(int hash, MyMap.Entry<K, V> entry) {
+    root = insert(root, hash, entry);
+    size++;
+  }
+
+  // Removes the given entry object, not just any entry with an equal key
+  public boolean remove(int hash, MyMap.Entry<K, V> entry) {
+    removed = false;
+    root = delete(root, hash, entry);
+    if (removed)
+      size--;
+
+    return removed;
+  }
+
+  @Override
+  public java.util.Iterator<MyMap.Entry<K, V>> iterator() {
+    return new InorderIterator();
+  }
+
+  private TreeNode<K, V> find(TreeNode<K, V> node, int hash, K key) {
+    while (node != null) {
+      if (hash != node.hash)
+        node = hash < node.hash ? node.left : node.right;
+      else if (node.entry.getKey().equals(key))
+        return node;
+      else {
+        int c = compareComparables(key, node.entry.getKey());
+        if (c != 0)
+          node = c < 0 ? node.left : node.right;
+        else {
+          // Keys that cannot be told apart may sit on either side
+          TreeNode<K, V> found = find(node.right, hash, key);
+          if (found != null)
+            return found;
+          node = node.left;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private TreeNode<K, V> insert(TreeNode<K, V> node, int hash,
+      MyMap.Entry<K, V> entry) {
+    if (node == null)
+      return new TreeNode<K, V>(hash, entry);
+
+    if (compare(hash, entry.getKey(), node) < 0)
+      node.left = insert(node.left, hash, entry);
+    else
+      node.right = insert(node.right, hash, entry);
+
+    return balance(node);
+  }
+
+  private TreeNode<K, V> delete(TreeNode<K, V> node, int hash,
+      MyMap.Entry<K, V> entry) {
+    if (node == null)
+      return null;
+
+    if (node.entry == entry) {
+      removed = true;
+      if (node.left == null)
+        return node.right;
+      if (node.right == null)
+        return node.left;
+
+      TreeNode<K, V> successor = node.right;
+      while (successor.left != null)
+        successor = successor.left;
+      successor.right = deleteMin(node.right);
+      successor.left = node.left;
+      return balance(successor);
+    }
+
+    int c = compare(hash, entry.getKey(), node);
+    if (c < 0)
+      node.left = delete(node.left, hash, entry);
+    else if (c > 0)
+      node.right = delete(node.right, hash, entry);
+    else {
+      node.left = delete(node.left, hash, entry);
+      if (!removed)
+        node.right = delete(node.right, hash, entry);
+    }
+
+    return balance(node);
+  }
+
+  private TreeNode<K, V> deleteMin(TreeNode<K, V> node) {
+    if (node.left == null)
+      return node.right;
+
+    node.left = deleteMin(node.left);
+    return balance(node);
+  }
+
+  private static <K, V> int compare(int hash, K key, TreeNode<K, V> node) {
+    if (hash != node.hash)
+      return hash < node.hash ? -1 : 1;
+
+    K other = node.entry.getKey();
+    int c = compareComparables(key, other);
+    if (c != 0)
+      return c;
+
+    c = key.getClass().getName().compareTo(other.getClass().getName());
+    if (c != 0)
+      return c;
+
+    return Integer.compare(System.identityHashCode(key),
+      System.identityHashCode(other));
+  }
+
+  private static int compareComparables(Object k1, Object k2) {
+    if (k1 instanceof Comparable && k1.getClass() == k2.getClass())
+      return ((Comparable<Object>)k1).compareTo(k2);
+    else
+      return 0;
+  }
+
+  private TreeNode<K, V> balance(TreeNode<K, V> node) {
+    updateHeight(node);
+
+    switch (balanceFactor(node)) {
+      case -2:
+        if (balanceFactor(node.left) > 0)
+          node.left = rotateLeft(node.left); // LR
+        return rotateRight(node); // LL
+      case +2:
+        if (balanceFactor(node.right) < 0)
+          node.right = rotateRight(node.right); // RL
+        return rotateLeft(node); // RR
+      default:
+        return node;
+    }
+  }
+
+  private TreeNode<K, V> rotateRight(TreeNode<K, V> A) {
+    TreeNode<K, V> B = A.left;
+    A.left = B.right;
+    B.right = A;
+    updateHeight(A);
+    updateHeight(B);
+    return B;
+  }
+
+  private TreeNode<K, V> rotateLeft(TreeNode<K, V> A) {
+    TreeNode<K, V> B = A.right;
+    A.right = B.left;
+    B.left = A;
+    updateHeight(A);
+    updateHeight(B);
+    return B;
+  }
+
+  private static int height(TreeNode<?, ?> node) {
+    return node == null ? -1 : node.height;
+  }
+
+  private static void updateHeight(TreeNode<?, ?> node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+  }
+
+  private static int balanceFactor(TreeNode<?, ?> node) {
+    return height(node.right) - height(node.left);
+  }
+
+  private class InorderIterator
+      implements java.util.Iterator<MyMap.Entry<K, V>> {
+    private java.util.ArrayDeque<TreeNode<K, V>> stack =
+      new java.util.ArrayDeque<>();
+    private TreeNode<K, V> lastReturned;
+
+    InorderIterator() {
+      pushLeft(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    public MyMap.Entry<K, V> next() {
+      if (stack.isEmpty())
+        throw new java.util.NoSuchElementException();
+
+      TreeNode<K, V> node = stack.pop();
+      pushLeft(node.right);
+      lastReturned = node;
+      return node.entry;
+    }
+
+    // Rebalancing may move any node, so the stack is rebuilt to hold the
+    // successors of the removed entry
+    @Override
+    public void remove() {
+      if (lastReturned == null)
+        throw new IllegalStateException();
+
+      TreeNode<K, V> last = lastReturned;
+      lastReturned = null;
+      HashTreeBucket.this.remove(last.hash, last.entry);
+
+      stack.clear();
+      for (TreeNode<K, V> node = root; node != null; ) {
+        if (compare(last.hash, last.entry.getKey(), node) < 0) {
+          stack.push(node);
+          node = node.left;
+        }
+        else
+          node = node.right;
+      }
+    }
+
+    private void pushLeft(TreeNode<K, V> node) {
+      for (; node != null; node = node.left)
+        stack.push(node);
+    }
+  }
+
+  private static class TreeNode<K, V> {
+    final int hash;
+    final MyMap.Entry<K, V> entry;
+    int height;
+    TreeNode<K, V> left;
+    TreeNode<K, V> right;
+
+    TreeNode(int hash, MyMap.Entry<K, V> entry) {
+      this.hash = hash;
+      this.entry = entry;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+// Evaluates an infix expression in a single pass over its characters, with
+// the operand and operator stacks of EvaluateExpression kept as primitive
+// arrays. Each thread reuses its own pair of stacks, so evaluating an
+// expression allocates nothing: no token strings, no boxed operands and no
+// stacks. Expressions have +, -, *, / and unary minus, parentheses and
+// integer constants. A malformed expression throws an
+// ExpressionSyntaxException that tells where the problem is; a division by
+// zero throws an ArithmeticException, as in Java
+public class InfixEvaluator {
+  private final static ThreadLocal<InfixEvaluator> EVALUATORS =
+    ThreadLocal.withInitial(InfixEvaluator::new);
+  // Unary minus on the operator stack
+  private final static byte NEGATE = '~';
+
+  private long[] operandStack = new long[16];
+  private int operandTop;
+  private byte[] operatorStack = new byte[16];
+  private int operatorTop;
+
+  private InfixEvaluator() {
+  }
+
+  // Evaluates with int arithmetic, which wraps around on overflow
+  public static int evaluateInt(CharSequence expression) {
+    return (int)EVALUATORS.get().evaluate(expression, true);
+  }
+
+  public static long evaluateLong(CharSequence expression) {
+    return EVALUATORS.get().evaluate(expression, false);
+  }
+
+  private long evaluate(CharSequence expression, boolean intArithmetic) {
+    operandTop = -1;
+    operatorTop = -1;
+    boolean expectOperand = true;
+    int length = expression.length();
+
+    for (int i = 0; i < length; ) {
+      char c = expression.charAt(i);
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        i++;
+        continue;
+      }
+
+      if (expectOperand) {
+        if (c == '(' || c == '-') {
+          pushOperator(c == '(' ? (byte)'(' : NEGATE);
+          i++;
+        }
+        else if (c >= '0' && c <= '9') {
+          long limit = intArithmetic ? Integer.MAX_VALUE : Long.MAX_VALUE;
+          long value = 0;
+          int start = i;
+          for (; i < length && expression.charAt(i) >= '0' &&
+              expression.charAt(i) <= '9'; i++) {
+            int digit = expression.charAt(i) - '0';
+            if (value > (limit - digit) / 10)
+              throw new ExpressionSyntaxException("Number too large",
+                expression, start);
+            value = value * 10 + digit;
+          }
+          pushOperand(value);
+          expectOperand = false;
+        }
+        else
+          throw new ExpressionSyntaxException("Expected an operand",
+            expression, i);
+      }
+      else if (c == '+' || c == '-' || c == '*' || c == '/') {
+        while (operatorTop >= 0 && operatorStack[operatorTop] != '(' &&
+            precedence(operatorStack[operatorTop]) >= precedence(c))
+          processAnOperator(intArithmetic);
+        pushOperator((byte)c);
+        expectOperand = true;
+        i++;
+      }
+      else if (c == ')') {
+        while (operatorTop >= 0 && operatorStack[operatorTop] != '(')
+          processAnOperator(intArithmetic);
+        if (operatorTop < 0)
+          throw new ExpressionSyntaxException("Unmatched )", expression, i);
+        operatorTop--;
+        i++;
+      }
+      else
+        throw new ExpressionSyntaxException("Expected an operator",
+          expression, i);
+    }
+
+    if (expectOperand)
+      throw new ExpressionSyntaxException("Expected an operand", expression,
+        length);
+    while (operatorTop >= 0) {
+      if (operatorStack[operatorTop] == '(')
+        throw new ExpressionSyntaxException("Unmatched (", expression,
+          length);
+      processAnOperator(intArithmetic);
+    }
+
+    return operandStack[0];
+  }
+
+  private void processAnOperator(boolean intArithmetic) {
+    byte op = operatorStack[operatorTop--];
+    long result;
+    if (op == NEGATE)
+      result = -operandStack[operandTop--];
+    else {
+      long op1 = operandStack[operandTop--];
+      long op2 = operandStack[operandTop--];
+      if (op == '+')
+        result = op2 + op1;
+      else if (op == '-')
+        result = op2 - op1;
+      else if (op == '*')
+        result = op2 * op1;
+      else
+        result = op2 / op1;
+    }
+
+    // Int arithmetic done in long and truncated gives the same result
+    operandStack[++operandTop] = intArithmetic ? (int)result : result;
+  }
+
+  private static int precedence(int op) {
+    return op == NEGATE ? 3 : op == '*' || op == '/' ? 2 : 1;
+  }
+
+  // The stacks only grow, for unusually long or nested expressions, and
+  // are kept for the next expression
+  private void pushOperand(long value) {
+    if (++operandTop == operandStack.length)
+      operandStack = java.util.Arrays.copyOf(operandStack,
+        operandStack.length * 2);
+    operandStack[operandTop] = value;
+  }
+
+  private void pushOperator(byte op) {
+    if (++operatorTop == operatorStack.length)
+      operatorStack = java.util.Arrays.copyOf(operatorStack,
+        operatorStack.length * 2);
+    operatorStack[operatorTop] = op;
+  }
+}
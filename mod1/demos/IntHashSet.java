@@ -0,0 +1,257 @@
+public class IntHashSet implements MySet<Integer> {
+  private final static int DEFAULT_INITIAL_CAPACITY = 4;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private int capacity;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private float loadFactorThreshold;
+
+  // 0 is reserved to mark an empty slot; membership of 0 itself is
+  // tracked by hasZero
+  private final static int EMPTY = 0;
+  private int size = 0;
+  private int[] table;
+  private boolean hasZero;
+
+  public IntHashSet() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public IntHashSet(int initialCapacity) {
+    this(initialCapacity, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public IntHashSet(int initialCapacity, float loadFactorThreshold) {
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      this.capacity = MAXIMUM_CAPACITY;
+    else
+      this.capacity = trimToPowerOf2(initialCapacity);
+
+    this.loadFactorThreshold = loadFactorThreshold;
+    table = new int[capacity];
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    hasZero = false;
+    java.util.Arrays.fill(table, EMPTY);
+  }
+
+  public boolean contains(int e) {
+    if (e == EMPTY)
+      return hasZero;
+
+    return indexOf(e) >= 0;
+  }
+
+  public boolean add(int e) {
+    if (e == EMPTY) {
+      if (hasZero)
+        return false;
+      hasZero = true;
+      size++;
+      return true;
+    }
+
+    if (indexOf(e) >= 0)
+      return false;
+
+    if (size >= capacity * loadFactorThreshold || size + 1 >= capacity) {
+      if (capacity == MAXIMUM_CAPACITY)
+        throw new RuntimeException("Exceeding maximum capacity");
+
+      rehash();
+    }
+
+    int mask = capacity - 1;
+    int index = hash(e) & mask;
+    while (table[index] != EMPTY)
+      index = (index + 1) & mask;
+    table[index] = e;
+    size++;
+
+    return true;
+  }
+
+  public boolean remove(int e) {
+    if (e == EMPTY) {
+      if (!hasZero)
+        return false;
+      hasZero = false;
+      size--;
+      return true;
+    }
+
+    int index = indexOf(e);
+    if (index < 0)
+      return false;
+
+    shiftKeys(index);
+    size--;
+    return true;
+  }
+
+  public void addAll(int[] elements) {
+    for (int e: elements)
+      add(e);
+  }
+
+  public void forEachInt(java.util.function.IntConsumer action) {
+    if (hasZero)
+      action.accept(EMPTY);
+
+    for (int i = 0; i < capacity; i++)
+      if (table[i] != EMPTY)
+        action.accept(table[i]);
+  }
+
+  public int[] toIntArray() {
+    int[] result = new int[size];
+    int count = 0;
+    if (hasZero)
+      result[count++] = EMPTY;
+
+    for (int i = 0; i < capacity; i++)
+      if (table[i] != EMPTY)
+        result[count++] = table[i];
+
+    return result;
+  }
+
+  @Override
+  public boolean contains(Integer e) {
+    return contains(e.intValue());
+  }
+
+  @Override
+  public boolean add(Integer e) {
+    return add(e.intValue());
+  }
+
+  @Override
+  public boolean remove(Integer e) {
+    return remove(e.intValue());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public java.util.PrimitiveIterator.OfInt iterator() {
+    return new IntHashSetIterator();
+  }
+
+  private class IntHashSetIterator
+      implements java.util.PrimitiveIterator.OfInt {
+    private boolean zeroPending = hasZero;
+    private int current = 0;
+
+    @Override
+    public boolean hasNext() {
+      if (zeroPending)
+        return true;
+
+      while (current < capacity && table[current] == EMPTY)
+        current++;
+      return current < capacity;
+    }
+
+    @Override
+    public int nextInt() {
+      if (!hasNext())
+        throw new java.util.NoSuchElementException();
+
+      if (zeroPending) {
+        zeroPending = false;
+        return EMPTY;
+      }
+      return table[current++];
+    }
+  }
+
+  private int indexOf(int e) {
+    int mask = capacity - 1;
+    int index = hash(e) & mask;
+    while (table[index] != EMPTY) {
+      if (table[index] == e)
+        return index;
+      index = (index + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  // Linear-probing deletion: move later elements of the same cluster
+  // back into the hole unless that would place them before their home
+  private void shiftKeys(int index) {
+    int mask = capacity - 1;
+    while (true) {
+      int last = index;
+      index = (index + 1) & mask;
+      int e;
+      while (true) {
+        if ((e = table[index]) == EMPTY) {
+          table[last] = EMPTY;
+          return;
+        }
+
+        int home = hash(e) & mask;
+        if (last <= index ? last >= home || home > index
+            : last >= home && home > index)
+          break;
+        index = (index + 1) & mask;
+      }
+
+      table[last] = e;
+    }
+  }
+
+  private static int hash(int e) {
+    int h = e * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  private void rehash() {
+    int[] oldTable = table;
+    capacity <<= 1;
+    table = new int[capacity];
+
+    int mask = capacity - 1;
+    for (int e: oldTable) {
+      if (e != EMPTY) {
+        int index = hash(e) & mask;
+        while (table[index] != EMPTY)
+          index = (index + 1) & mask;
+        table[index] = e;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    forEachInt(e -> {
+      if (builder.length() > 1)
+        builder.append(", ");
+      builder.append(e);
+    });
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,306 @@
+public class IntLongMap implements MyMap<Integer, Long> {
+  private final static int DEFAULT_INITIAL_CAPACITY = 4;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private int capacity;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private float loadFactorThreshold;
+
+  // 0 is reserved to mark an empty slot; the entry for key 0 itself is
+  // kept in the extra slot at index capacity
+  private final static int EMPTY = 0;
+  private int size = 0;
+  private int[] keys;
+  private long[] values;
+  private boolean hasZeroKey;
+
+  public IntLongMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public IntLongMap(int initialCapacity) {
+    this(initialCapacity, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public IntLongMap(int initialCapacity, float loadFactorThreshold) {
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      this.capacity = MAXIMUM_CAPACITY;
+    else
+      this.capacity = trimToPowerOf2(initialCapacity);
+
+    this.loadFactorThreshold = loadFactorThreshold;
+    keys = new int[capacity + 1];
+    values = new long[capacity + 1];
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    hasZeroKey = false;
+    java.util.Arrays.fill(keys, EMPTY);
+  }
+
+  public boolean containsKey(int key) {
+    return indexOf(key) >= 0;
+  }
+
+  public boolean containsValue(long value) {
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY && values[i] == value)
+        return true;
+
+    return hasZeroKey && values[capacity] == value;
+  }
+
+  public long get(int key) {
+    return getOrDefault(key, 0);
+  }
+
+  public long getOrDefault(int key, long defaultValue) {
+    int index = indexOf(key);
+    return index < 0 ? defaultValue : values[index];
+  }
+
+  public long put(int key, long value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      long oldValue = values[index];
+      values[index] = value;
+      return oldValue;
+    }
+
+    insert(key, value);
+    return value;
+  }
+
+  public long addTo(int key, long delta) {
+    int index = indexOf(key);
+    if (index >= 0)
+      return values[index] += delta;
+
+    insert(key, delta);
+    return delta;
+  }
+
+  public void remove(int key) {
+    if (key == EMPTY) {
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        size--;
+      }
+      return;
+    }
+
+    int index = indexOf(key);
+    if (index >= 0) {
+      shiftKeys(index);
+      size--;
+    }
+  }
+
+  public void forEach(IntLongConsumer action) {
+    if (hasZeroKey)
+      action.accept(EMPTY, values[capacity]);
+
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY)
+        action.accept(keys[i], values[i]);
+  }
+
+  public int[] toKeyArray() {
+    int[] result = new int[size];
+    int count = 0;
+    if (hasZeroKey)
+      result[count++] = EMPTY;
+
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY)
+        result[count++] = keys[i];
+
+    return result;
+  }
+
+  public long[] toValueArray() {
+    long[] result = new long[size];
+    int count = 0;
+    if (hasZeroKey)
+      result[count++] = values[capacity];
+
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY)
+        result[count++] = values[i];
+
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Integer key) {
+    return containsKey(key.intValue());
+  }
+
+  @Override
+  public boolean containsValue(Long value) {
+    return containsValue(value.longValue());
+  }
+
+  @Override
+  public Long get(Integer key) {
+    int index = indexOf(key.intValue());
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public Long put(Integer key, Long value) {
+    return put(key.intValue(), value.longValue());
+  }
+
+  @Override
+  public void remove(Integer key) {
+    remove(key.intValue());
+  }
+
+  @Override
+  public java.util.Set<MyMap.Entry<Integer, Long>> entrySet() {
+    java.util.Set<MyMap.Entry<Integer, Long>> set =
+      new java.util.HashSet<>();
+    forEach((key, value) -> set.add(new MyMap.Entry<>(key, value)));
+    return set;
+  }
+
+  @Override
+  public java.util.Set<Integer> keySet() {
+    java.util.Set<Integer> set = new java.util.HashSet<>();
+    forEach((key, value) -> set.add(key));
+    return set;
+  }
+
+  @Override
+  public java.util.Set<Long> values() {
+    java.util.Set<Long> set = new java.util.HashSet<>();
+    forEach((key, value) -> set.add(value));
+    return set;
+  }
+
+  private int indexOf(int key) {
+    if (key == EMPTY)
+      return hasZeroKey ? capacity : -1;
+
+    int mask = capacity - 1;
+    int index = hash(key) & mask;
+    while (keys[index] != EMPTY) {
+      if (keys[index] == key)
+        return index;
+      index = (index + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  private void insert(int key, long value) {
+    if (key == EMPTY) {
+      hasZeroKey = true;
+      values[capacity] = value;
+      size++;
+      return;
+    }
+
+    if (size >= capacity * loadFactorThreshold || size + 1 >= capacity) {
+      if (capacity == MAXIMUM_CAPACITY)
+        throw new RuntimeException("Exceeding maximum capacity");
+
+      rehash();
+    }
+
+    int mask = capacity - 1;
+    int index = hash(key) & mask;
+    while (keys[index] != EMPTY)
+      index = (index + 1) & mask;
+
+    keys[index] = key;
+    values[index] = value;
+    size++;
+  }
+
+  // Linear-probing deletion: move later keys of the same cluster back
+  // into the hole unless that would place them before their home slot
+  private void shiftKeys(int index) {
+    int mask = capacity - 1;
+    while (true) {
+      int last = index;
+      index = (index + 1) & mask;
+      int key;
+      while (true) {
+        if ((key = keys[index]) == EMPTY) {
+          keys[last] = EMPTY;
+          return;
+        }
+
+        int home = hash(key) & mask;
+        if (last <= index ? last >= home || home > index
+            : last >= home && home > index)
+          break;
+        index = (index + 1) & mask;
+      }
+
+      keys[last] = key;
+      values[last] = values[index];
+    }
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  private void rehash() {
+    int[] oldKeys = keys;
+    long[] oldValues = values;
+    int oldCapacity = capacity;
+    capacity <<= 1;
+    keys = new int[capacity + 1];
+    values = new long[capacity + 1];
+    values[capacity] = oldValues[oldCapacity];
+
+    int mask = capacity - 1;
+    for (int i = 0; i < oldCapacity; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int index = hash(oldKeys[i]) & mask;
+        while (keys[index] != EMPTY)
+          index = (index + 1) & mask;
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    forEach((key, value) ->
+      builder.append("[" + key + ", " + value + "]"));
+    builder.append("]");
+    return builder.toString();
+  }
+
+  public interface IntLongConsumer {
+    public void accept(int key, long value);
+  }
+}
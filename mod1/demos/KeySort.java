@@ -0,0 +1,200 @@
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+// Sorts objects by a primitive key that is extracted once per element.
+// Comparator.comparing(s -> s.length()) extracts and boxes two keys for
+// every comparison, O(n log n) times; here the keys go into a primitive
+// array, the keys are sorted together with the indexes of their elements,
+// and then the elements are moved to their places. All sorts are stable:
+// elements with equal keys keep their order
+public class KeySort {
+  // Below this many elements a parallel sort is not worth splitting
+  private final static int PARALLEL_THRESHOLD = 1 << 13;
+  private final static int INSERTION_SORT_THRESHOLD = 32;
+
+  // An int key and the index of its element fit into one long, the key in
+  // the high half. Sorting the longs orders by key and then by index,
+  // which makes the sort stable
+  public static <T> void sortByInt(T[] list, ToIntFunction<? super T> key) {
+    long[] packed = new long[list.length];
+    for (int i = 0; i < list.length; i++)
+      packed[i] = (long)key.applyAsInt(list[i]) << 32 | i;
+    java.util.Arrays.sort(packed);
+    permute(list, i -> (int)packed[i], false);
+  }
+
+  public static <T> void parallelSortByInt(T[] list,
+      ToIntFunction<? super T> key) {
+    long[] packed = new long[list.length];
+    java.util.stream.IntStream.range(0, list.length).parallel().forEach(i ->
+      packed[i] = (long)key.applyAsInt(list[i]) << 32 | i);
+    java.util.Arrays.parallelSort(packed);
+    permute(list, i -> (int)packed[i], true);
+  }
+
+  // A long key leaves no room for the index, so keys and indexes are kept
+  // in two arrays and sorted together by a merge sort, which is stable
+  public static <T> void sortByLong(T[] list, ToLongFunction<? super T> key) {
+    long[] keys = new long[list.length];
+    for (int i = 0; i < list.length; i++)
+      keys[i] = key.applyAsLong(list[i]);
+    sortByKeys(list, keys, false);
+  }
+
+  public static <T> void parallelSortByLong(T[] list,
+      ToLongFunction<? super T> key) {
+    long[] keys = new long[list.length];
+    java.util.stream.IntStream.range(0, list.length).parallel().forEach(i ->
+      keys[i] = key.applyAsLong(list[i]));
+    sortByKeys(list, keys, true);
+  }
+
+  // Orders like Double.compare: -0.0 before 0.0 and NaN last
+  public static <T> void sortByDouble(T[] list,
+      ToDoubleFunction<? super T> key) {
+    long[] keys = new long[list.length];
+    for (int i = 0; i < list.length; i++)
+      keys[i] = toSortableLong(key.applyAsDouble(list[i]));
+    sortByKeys(list, keys, false);
+  }
+
+  public static <T> void parallelSortByDouble(T[] list,
+      ToDoubleFunction<? super T> key) {
+    long[] keys = new long[list.length];
+    java.util.stream.IntStream.range(0, list.length).parallel().forEach(i ->
+      keys[i] = toSortableLong(key.applyAsDouble(list[i])));
+    sortByKeys(list, keys, true);
+  }
+
+  // The bits of a double compare as a signed long in the same order as
+  // the double if the non-sign bits of negative values are flipped
+  private static long toSortableLong(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  private static <T> void sortByKeys(T[] list, long[] keys,
+      boolean parallel) {
+    int[] indexes = new int[list.length];
+    for (int i = 0; i < indexes.length; i++)
+      indexes[i] = i;
+
+    long[] keyBuffer = new long[keys.length];
+    int[] indexBuffer = new int[indexes.length];
+    if (parallel && list.length > PARALLEL_THRESHOLD)
+      java.util.concurrent.ForkJoinPool.commonPool().invoke(new MergeSortTask(
+        keys, indexes, keyBuffer, indexBuffer, 0, keys.length));
+    else
+      mergeSort(keys, indexes, keyBuffer, indexBuffer, 0, keys.length);
+
+    permute(list, i -> indexes[i], parallel);
+  }
+
+  // list[i] becomes the element that was at source(i)
+  private static <T> void permute(T[] list,
+      java.util.function.IntUnaryOperator source, boolean parallel) {
+    T[] copy = list.clone();
+    if (parallel && list.length > PARALLEL_THRESHOLD)
+      java.util.stream.IntStream.range(0, list.length).parallel().forEach(i ->
+        list[i] = copy[source.applyAsInt(i)]);
+    else
+      for (int i = 0; i < list.length; i++)
+        list[i] = copy[source.applyAsInt(i)];
+  }
+
+  // Sorts keys[low, high) and moves indexes along with them
+  private static void mergeSort(long[] keys, int[] indexes,
+      long[] keyBuffer, int[] indexBuffer, int low, int high) {
+    if (high - low <= INSERTION_SORT_THRESHOLD) {
+      insertionSort(keys, indexes, low, high);
+      return;
+    }
+
+    int middle = (low + high) >>> 1;
+    mergeSort(keys, indexes, keyBuffer, indexBuffer, low, middle);
+    mergeSort(keys, indexes, keyBuffer, indexBuffer, middle, high);
+    merge(keys, indexes, keyBuffer, indexBuffer, low, middle, high);
+  }
+
+  private static void insertionSort(long[] keys, int[] indexes, int low,
+      int high) {
+    for (int i = low + 1; i < high; i++) {
+      long key = keys[i];
+      int index = indexes[i];
+      int k;
+      // Strictly greater keys move, so equal keys keep their order
+      for (k = i - 1; k >= low && keys[k] > key; k--) {
+        keys[k + 1] = keys[k];
+        indexes[k + 1] = indexes[k];
+      }
+      keys[k + 1] = key;
+      indexes[k + 1] = index;
+    }
+  }
+
+  // Merges the sorted runs [low, middle) and [middle, high); on equal keys
+  // the first run goes first
+  private static void merge(long[] keys, int[] indexes, long[] keyBuffer,
+      int[] indexBuffer, int low, int middle, int high) {
+    if (keys[middle - 1] <= keys[middle])
+      return; // Already in order
+
+    System.arraycopy(keys, low, keyBuffer, low, high - low);
+    System.arraycopy(indexes, low, indexBuffer, low, high - low);
+    int current1 = low;
+    int current2 = middle;
+    int current3 = low;
+    while (current1 < middle && current2 < high) {
+      if (keyBuffer[current1] <= keyBuffer[current2]) {
+        keys[current3] = keyBuffer[current1];
+        indexes[current3++] = indexBuffer[current1++];
+      }
+      else {
+        keys[current3] = keyBuffer[current2];
+        indexes[current3++] = indexBuffer[current2++];
+      }
+    }
+
+    while (current1 < middle) {
+      keys[current3] = keyBuffer[current1];
+      indexes[current3++] = indexBuffer[current1++];
+    }
+    // The rest of the second run is already in place
+  }
+
+  private static class MergeSortTask
+      extends java.util.concurrent.RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final long[] keys;
+    private final int[] indexes;
+    private final long[] keyBuffer;
+    private final int[] indexBuffer;
+    private final int low;
+    private final int high;
+
+    MergeSortTask(long[] keys, int[] indexes, long[] keyBuffer,
+        int[] indexBuffer, int low, int high) {
+      this.keys = keys;
+      this.indexes = indexes;
+      this.keyBuffer = keyBuffer;
+      this.indexBuffer = indexBuffer;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    protected void compute() {
+      if (high - low <= PARALLEL_THRESHOLD) {
+        mergeSort(keys, indexes, keyBuffer, indexBuffer, low, high);
+        return;
+      }
+
+      int middle = (low + high) >>> 1;
+      invokeAll(
+        new MergeSortTask(keys, indexes, keyBuffer, indexBuffer, low, middle),
+        new MergeSortTask(keys, indexes, keyBuffer, indexBuffer, middle, high));
+      merge(keys, indexes, keyBuffer, indexBuffer, low, middle, high);
+    }
+  }
+}
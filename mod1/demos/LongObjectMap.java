@@ -0,0 +1,283 @@
+public class LongObjectMap<V> implements MyMap<Long, V> {
+  private final static int DEFAULT_INITIAL_CAPACITY = 4;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private int capacity;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private float loadFactorThreshold;
+
+  // 0 is reserved to mark an empty slot; the entry for key 0 itself is
+  // kept in the extra slot at index capacity
+  private final static long EMPTY = 0;
+  private int size = 0;
+  private long[] keys;
+  private V[] values;
+  private boolean hasZeroKey;
+
+  public LongObjectMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public LongObjectMap(int initialCapacity) {
+    this(initialCapacity, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public LongObjectMap(int initialCapacity, float loadFactorThreshold) {
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      this.capacity = MAXIMUM_CAPACITY;
+    else
+      this.capacity = trimToPowerOf2(initialCapacity);
+
+    this.loadFactorThreshold = loadFactorThreshold;
+    keys = new long[capacity + 1];
+    values = (V[])new Object[capacity + 1];
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    hasZeroKey = false;
+    java.util.Arrays.fill(keys, EMPTY);
+    java.util.Arrays.fill(values, null);
+  }
+
+  public boolean containsKey(long key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(V value) {
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY && java.util.Objects.equals(values[i], value))
+        return true;
+
+    return hasZeroKey && java.util.Objects.equals(values[capacity], value);
+  }
+
+  public V get(long key) {
+    return getOrDefault(key, null);
+  }
+
+  public V getOrDefault(long key, V defaultValue) {
+    int index = indexOf(key);
+    return index < 0 ? defaultValue : values[index];
+  }
+
+  public V put(long key, V value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      V oldValue = values[index];
+      values[index] = value;
+      return oldValue;
+    }
+
+    insert(key, value);
+    return value;
+  }
+
+  public void remove(long key) {
+    if (key == EMPTY) {
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        values[capacity] = null;
+        size--;
+      }
+      return;
+    }
+
+    int index = indexOf(key);
+    if (index >= 0) {
+      shiftKeys(index);
+      size--;
+    }
+  }
+
+  public void forEach(LongObjectConsumer<? super V> action) {
+    if (hasZeroKey)
+      action.accept(EMPTY, values[capacity]);
+
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY)
+        action.accept(keys[i], values[i]);
+  }
+
+  public long[] toKeyArray() {
+    long[] result = new long[size];
+    int count = 0;
+    if (hasZeroKey)
+      result[count++] = EMPTY;
+
+    for (int i = 0; i < capacity; i++)
+      if (keys[i] != EMPTY)
+        result[count++] = keys[i];
+
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Long key) {
+    return containsKey(key.longValue());
+  }
+
+  @Override
+  public V get(Long key) {
+    int index = indexOf(key.longValue());
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public V put(Long key, V value) {
+    return put(key.longValue(), value);
+  }
+
+  @Override
+  public void remove(Long key) {
+    remove(key.longValue());
+  }
+
+  @Override
+  public java.util.Set<MyMap.Entry<Long, V>> entrySet() {
+    java.util.Set<MyMap.Entry<Long, V>> set =
+      new java.util.HashSet<>();
+    forEach((key, value) -> set.add(new MyMap.Entry<>(key, value)));
+    return set;
+  }
+
+  @Override
+  public java.util.Set<Long> keySet() {
+    java.util.Set<Long> set = new java.util.HashSet<>();
+    forEach((key, value) -> set.add(key));
+    return set;
+  }
+
+  @Override
+  public java.util.Set<V> values() {
+    java.util.Set<V> set = new java.util.HashSet<>();
+    forEach((key, value) -> set.add(value));
+    return set;
+  }
+
+  private int indexOf(long key) {
+    if (key == EMPTY)
+      return hasZeroKey ? capacity : -1;
+
+    int mask = capacity - 1;
+    int index = hash(key) & mask;
+    while (keys[index] != EMPTY) {
+      if (keys[index] == key)
+        return index;
+      index = (index + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  private void insert(long key, V value) {
+    if (key == EMPTY) {
+      hasZeroKey = true;
+      values[capacity] = value;
+      size++;
+      return;
+    }
+
+    if (size >= capacity * loadFactorThreshold || size + 1 >= capacity) {
+      if (capacity == MAXIMUM_CAPACITY)
+        throw new RuntimeException("Exceeding maximum capacity");
+
+      rehash();
+    }
+
+    int mask = capacity - 1;
+    int index = hash(key) & mask;
+    while (keys[index] != EMPTY)
+      index = (index + 1) & mask;
+
+    keys[index] = key;
+    values[index] = value;
+    size++;
+  }
+
+  // Linear-probing deletion: move later keys of the same cluster back
+  // into the hole unless that would place them before their home slot
+  private void shiftKeys(int index) {
+    int mask = capacity - 1;
+    while (true) {
+      int last = index;
+      index = (index + 1) & mask;
+      long key;
+      while (true) {
+        if ((key = keys[index]) == EMPTY) {
+          keys[last] = EMPTY;
+          values[last] = null;
+          return;
+        }
+
+        int home = hash(key) & mask;
+        if (last <= index ? last >= home || home > index
+            : last >= home && home > index)
+          break;
+        index = (index + 1) & mask;
+      }
+
+      keys[last] = key;
+      values[last] = values[index];
+    }
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int)(h ^ (h >>> 32));
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    V[] oldValues = values;
+    int oldCapacity = capacity;
+    capacity <<= 1;
+    keys = new long[capacity + 1];
+    values = (V[])new Object[capacity + 1];
+    values[capacity] = oldValues[oldCapacity];
+
+    int mask = capacity - 1;
+    for (int i = 0; i < oldCapacity; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int index = hash(oldKeys[i]) & mask;
+        while (keys[index] != EMPTY)
+          index = (index + 1) & mask;
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    forEach((key, value) ->
+      builder.append("[" + key + ", " + value + "]"));
+    builder.append("]");
+    return builder.toString();
+  }
+
+  public interface LongObjectConsumer<V> {
+    public void accept(long key, V value);
+  }
+}
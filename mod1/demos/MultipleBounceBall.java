@@ -3,7 +3,6 @@ import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.beans.property.DoubleProperty;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -49,8 +48,10 @@ public class MultipleBounceBall extends Application {
     primaryStage.show();
   }
 
+  // Only draws the balls; BallWorld moves them
   private class MultipleBallPane extends Pane {
     private Timeline animation;
+    private BallWorld world = new BallWorld(0, 0);
 
     public MultipleBallPane() {
       animation = new Timeline(
@@ -62,11 +63,18 @@ public class MultipleBounceBall extends Application {
     public void add() {
       Color color = new Color(Math.random(), 
         Math.random(), Math.random(), 0.5);
-      getChildren().add(new Ball(30, 30, 20, color)); 
+      // In a random direction, so that the balls spread out
+      double angle = 2 * Math.PI * Math.random();
+      world.add(30, 30, 20, Math.sqrt(2) * Math.cos(angle),
+        Math.sqrt(2) * Math.sin(angle));
+      Circle circle = new Circle(30, 30, 20);
+      circle.setFill(color);
+      getChildren().add(circle); 
     }
     
     public void subtract() {
       if (getChildren().size() > 0) {
+        world.removeLast();
         getChildren().remove(getChildren().size() - 1); 
       }
     }
@@ -92,30 +100,16 @@ public class MultipleBounceBall extends Application {
       return animation.rateProperty();
     }
 
+    // One step of the world per frame, then the circles follow
     protected void moveBall() {
-      for (Node node: this.getChildren()) {
-        Ball ball = (Ball)node;
-        if (ball.getCenterX() < ball.getRadius() || 
-            ball.getCenterX() > getWidth() - ball.getRadius()) {
-          ball.dx *= -1;
-        }
-        if (ball.getCenterY() < ball.getRadius() || 
-            ball.getCenterY() > getHeight() - ball.getRadius()) {
-          ball.dy *= -1;
-        }
-
-        ball.setCenterX(ball.dx + ball.getCenterX());
-        ball.setCenterY(ball.dy + ball.getCenterY());
-      }
-    }
-  }
+      world.setSize(getWidth(), getHeight());
+      world.step(1);
 
-  class Ball extends Circle {
-    private double dx = 1, dy = 1;
-
-    Ball(double x, double y, double radius, Color color) {
-      super(x, y, radius);
-      setFill(color);
+      for (int i = 0; i < world.size(); i++) {
+        Circle circle = (Circle)getChildren().get(i);
+        circle.setCenterX(world.getX(i));
+        circle.setCenterY(world.getY(i));
+      }
     }
   }
   
@@ -0,0 +1,378 @@
+// A bounded cache. A MyHashMap finds the node of a key, and the nodes are
+// also linked in access order, so both a hit and an eviction of the least
+// recently used entry take O(1). Entries are weighed (one unit each by
+// default) and evicted once the total exceeds maximumWeight. Optionally
+// entries expire a fixed time after they were written, and a TinyLFU
+// sketch of key frequencies decides whether a new entry is worth evicting
+// the least recently used one for
+public class MyCache<K, V> implements MyMap<K, V> {
+  public enum RemovalCause {
+    // Evicted to stay within maximumWeight
+    SIZE,
+    // Older than the expire-after-write time
+    EXPIRED,
+    // A new entry the admission policy refused to store
+    REJECTED
+  }
+
+  public interface EvictionListener<K, V> {
+    public void onEviction(K key, V value, RemovalCause cause);
+  }
+
+  private final long maximumWeight;
+  private long weight = 0;
+  private java.util.function.ToIntBiFunction<? super K, ? super V> weigher =
+    (key, value) -> 1;
+  private long expireAfterWriteNanos = 0;
+  private EvictionListener<? super K, ? super V> evictionListener;
+  private FrequencySketch sketch;
+
+  private final MyHashMap<K, Node<K, V>> map = new MyHashMap<>();
+  // head.next is the most recently used entry and head.previous the least;
+  // head.writeNext is the oldest write
+  private final Node<K, V> head = new Node<>(null, null, 0, 0);
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  public MyCache(long maximumWeight) {
+    if (maximumWeight <= 0)
+      throw new IllegalArgumentException("maximumWeight must be positive");
+
+    this.maximumWeight = maximumWeight;
+    head.next = head.previous = head;
+    head.writeNext = head.writePrevious = head;
+  }
+
+  // Affects entries written from now on
+  public void setWeigher(
+      java.util.function.ToIntBiFunction<? super K, ? super V> weigher) {
+    this.weigher = weigher;
+  }
+
+  // A duration of 0 turns expiry off
+  public void setExpireAfterWrite(long duration,
+      java.util.concurrent.TimeUnit unit) {
+    this.expireAfterWriteNanos = unit.toNanos(duration);
+  }
+
+  public void setEvictionListener(
+      EvictionListener<? super K, ? super V> evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
+  // With admission on, a new entry that would force an eviction is only
+  // stored if its key has been used more often than the key of the entry
+  // it would evict. This keeps one-off keys from flushing out hot ones
+  public void setFrequencyAdmission(boolean enabled) {
+    sketch = enabled ? new FrequencySketch(
+      (int)Math.min(maximumWeight, 1 << 24)) : null;
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+    head.next = head.previous = head;
+    head.writeNext = head.writePrevious = head;
+    weight = 0;
+  }
+
+  // Does not count as a use of the key
+  @Override
+  public boolean containsKey(K key) {
+    Node<K, V> node = map.get(key);
+    return node != null && !isExpired(node, System.nanoTime());
+  }
+
+  @Override
+  public boolean containsValue(V value) {
+    long now = System.nanoTime();
+    for (Node<K, V> node = head.next; node != head; node = node.next)
+      if (node.value.equals(value) && !isExpired(node, now))
+        return true;
+
+    return false;
+  }
+
+  // The views are copies in access order, most recently used first
+  @Override
+  public java.util.Set<MyMap.Entry<K, V>> entrySet() {
+    java.util.Set<MyMap.Entry<K, V>> set = new java.util.LinkedHashSet<>();
+    for (Node<K, V> node = head.next; node != head; node = node.next)
+      set.add(new MyMap.Entry<K, V>(node.key, node.value));
+    return set;
+  }
+
+  // Only get records a use of the key in the frequency sketch, so that the
+  // usual get-then-put on a miss counts once
+  @Override
+  public V get(K key) {
+    if (sketch != null)
+      sketch.increment(key.hashCode());
+
+    long now = System.nanoTime();
+    expireEntries(now);
+    Node<K, V> node = map.get(key);
+    if (node == null) {
+      missCount++;
+      return null;
+    }
+
+    hitCount++;
+    moveToFront(node);
+    return node.value;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public java.util.Set<K> keySet() {
+    java.util.Set<K> set = new java.util.LinkedHashSet<>();
+    for (Node<K, V> node = head.next; node != head; node = node.next)
+      set.add(node.key);
+    return set;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    long now = System.nanoTime();
+    expireEntries(now);
+    int entryWeight = weigher.applyAsInt(key, value);
+    Node<K, V> node = map.get(key);
+
+    if (node != null) {
+      V oldValue = node.value;
+      weight += entryWeight - node.weight;
+      node.value = value;
+      node.weight = entryWeight;
+      node.writeTime = now;
+      moveToFront(node);
+      unlinkWrite(node);
+      linkWrite(node);
+      evictToFit(node);
+      return oldValue;
+    }
+
+    if (entryWeight > maximumWeight || !admit(key, entryWeight)) {
+      evictionCount++;
+      notifyEviction(key, value, RemovalCause.REJECTED);
+      return value;
+    }
+
+    node = new Node<>(key, value, entryWeight, now);
+    map.put(key, node);
+    linkFront(node);
+    linkWrite(node);
+    weight += entryWeight;
+    evictToFit(node);
+
+    return value;
+  }
+
+  @Override
+  public void remove(K key) {
+    Node<K, V> node = map.get(key);
+    if (node != null)
+      removeNode(node);
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public java.util.Collection<V> values() {
+    java.util.List<V> list = new java.util.ArrayList<>();
+    for (Node<K, V> node = head.next; node != head; node = node.next)
+      list.add(node.value);
+    return list;
+  }
+
+  public long getWeight() {
+    return weight;
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public double getHitRate() {
+    long requests = hitCount + missCount;
+    return requests == 0 ? 1 : (double)hitCount / requests;
+  }
+
+  // A new entry is admitted if it fits, or if its key is more frequent
+  // than that of the least recently used entry
+  private boolean admit(K key, int entryWeight) {
+    if (sketch == null || weight + entryWeight <= maximumWeight ||
+        head.previous == head)
+      return true;
+
+    return sketch.frequency(key.hashCode()) >
+      sketch.frequency(head.previous.key.hashCode());
+  }
+
+  private void evictToFit(Node<K, V> keep) {
+    while (weight > maximumWeight && head.previous != head) {
+      Node<K, V> victim = head.previous;
+      if (victim == keep)
+        victim = victim.previous;
+      if (victim == head)
+        return;
+
+      removeNode(victim);
+      evictionCount++;
+      notifyEviction(victim.key, victim.value, RemovalCause.SIZE);
+    }
+  }
+
+  // The write-order list starts with the oldest write, so only the
+  // entries that have actually expired are visited
+  private void expireEntries(long now) {
+    if (expireAfterWriteNanos == 0)
+      return;
+
+    while (head.writeNext != head && isExpired(head.writeNext, now)) {
+      Node<K, V> node = head.writeNext;
+      removeNode(node);
+      evictionCount++;
+      notifyEviction(node.key, node.value, RemovalCause.EXPIRED);
+    }
+  }
+
+  private boolean isExpired(Node<K, V> node, long now) {
+    return expireAfterWriteNanos != 0 &&
+      now - node.writeTime >= expireAfterWriteNanos;
+  }
+
+  private void notifyEviction(K key, V value, RemovalCause cause) {
+    if (evictionListener != null)
+      evictionListener.onEviction(key, value, cause);
+  }
+
+  private void removeNode(Node<K, V> node) {
+    map.remove(node.key);
+    unlink(node);
+    unlinkWrite(node);
+    weight -= node.weight;
+  }
+
+  private void moveToFront(Node<K, V> node) {
+    unlink(node);
+    linkFront(node);
+  }
+
+  private void linkFront(Node<K, V> node) {
+    node.previous = head;
+    node.next = head.next;
+    head.next.previous = node;
+    head.next = node;
+  }
+
+  private void unlink(Node<K, V> node) {
+    node.previous.next = node.next;
+    node.next.previous = node.previous;
+  }
+
+  private void linkWrite(Node<K, V> node) {
+    node.writeNext = head;
+    node.writePrevious = head.writePrevious;
+    head.writePrevious.writeNext = node;
+    head.writePrevious = node;
+  }
+
+  private void unlinkWrite(Node<K, V> node) {
+    node.writePrevious.writeNext = node.writeNext;
+    node.writeNext.writePrevious = node.writePrevious;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    for (Node<K, V> node = head.next; node != head; node = node.next)
+      builder.append("[" + node.key + ", " + node.value + "]");
+    builder.append("]");
+    return builder.toString();
+  }
+
+  private static class Node<K, V> {
+    final K key;
+    V value;
+    int weight;
+    long writeTime;
+    Node<K, V> previous;
+    Node<K, V> next;
+    Node<K, V> writePrevious;
+    Node<K, V> writeNext;
+
+    Node(K key, V value, int weight, long writeTime) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      this.writeTime = writeTime;
+    }
+  }
+
+  // A count-min sketch of 4 rows of counters that saturate at 15. Every
+  // counter is halved once the sketch has seen 10 samples per counter of
+  // a row, so old popularity fades away
+  private static class FrequencySketch {
+    private final static int ROWS = 4;
+    private final static int[] SEEDS =
+      {0x97cb3127, 0xb71c6f5b, 0x5bd1e995, 0x7feb352d};
+    private final byte[][] counters = new byte[ROWS][];
+    private final int shift;
+    private final int sampleLimit;
+    private int samples;
+
+    FrequencySketch(int expectedKeys) {
+      int width = Integer.highestOneBit(Math.max(expectedKeys, 8) - 1) << 1;
+      for (int i = 0; i < ROWS; i++)
+        counters[i] = new byte[width];
+      shift = 32 - Integer.numberOfTrailingZeros(width);
+      sampleLimit = 10 * width;
+    }
+
+    void increment(int hashCode) {
+      int h = HashStrategy.murmur(hashCode);
+      for (int i = 0; i < ROWS; i++) {
+        int index = (h * SEEDS[i]) >>> shift;
+        if (counters[i][index] < 15)
+          counters[i][index]++;
+      }
+
+      if (++samples == sampleLimit) {
+        for (byte[] row: counters)
+          for (int index = 0; index < row.length; index++)
+            row[index] >>= 1;
+        samples /= 2;
+      }
+    }
+
+    int frequency(int hashCode) {
+      int h = HashStrategy.murmur(hashCode);
+      int frequency = 15;
+      for (int i = 0; i < ROWS; i++)
+        frequency = Math.min(frequency,
+          counters[i][(h * SEEDS[i]) >>> shift]);
+      return frequency;
+    }
+  }
+}
@@ -0,0 +1,536 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MyConcurrentHashMap<K, V> implements MyMap<K, V> {
+  private final static int DEFAULT_INITIAL_CAPACITY = 16;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private final static int MIN_TRANSFER_STRIDE = 16;
+  private final float loadFactorThreshold;
+
+  // Hashes of real entries are non-negative; special nodes use these
+  private final static int MOVED = -1;
+  private final static int RESERVED = -2;
+
+  // Bins are published with CAS when empty and otherwise changed only
+  // while holding the monitor of the bin's first node. Readers never
+  // lock: they follow the volatile next and value fields
+  private volatile AtomicReferenceArray<Node<K, V>> table;
+  private volatile Transfer<K, V> transfer;
+  private final LongAdder count = new LongAdder();
+
+  public MyConcurrentHashMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public MyConcurrentHashMap(int initialCapacity) {
+    this(initialCapacity, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public MyConcurrentHashMap(int initialCapacity, float loadFactorThreshold) {
+    int capacity;
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      capacity = MAXIMUM_CAPACITY;
+    else
+      capacity = trimToPowerOf2(initialCapacity);
+
+    this.loadFactorThreshold = loadFactorThreshold;
+    table = new AtomicReferenceArray<>(capacity);
+  }
+
+  @Override
+  public void clear() {
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    int i = 0;
+    while (i < tab.length()) {
+      Node<K, V> f = tab.get(i);
+      if (f == null)
+        i++;
+      else if (f.hash == MOVED) {
+        tab = helpTransfer((ForwardingNode<K, V>)f);
+        i = 0;
+      }
+      else {
+        synchronized (f) {
+          if (tab.get(i) == f) {
+            checkNotReserved(f);
+            int removed = 0;
+            for (Node<K, V> e = f; e != null; e = e.next)
+              if (e.hash >= 0)
+                removed++;
+            tab.set(i, null);
+            count.add(-removed);
+            i++;
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public boolean containsValue(V value) {
+    boolean[] found = new boolean[1];
+    forEachNode(e -> {
+      if (e.value.equals(value))
+        found[0] = true;
+    });
+    return found[0];
+  }
+
+  @Override
+  public java.util.Set<MyMap.Entry<K, V>> entrySet() {
+    java.util.Set<MyMap.Entry<K, V>> set = new java.util.HashSet<>();
+    forEachNode(e -> set.add(new MyMap.Entry<K, V>(e.key, e.value)));
+    return set;
+  }
+
+  @Override
+  public V get(K key) {
+    int h = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    while (true) {
+      Node<K, V> e = tab.get(h & (tab.length() - 1));
+      if (e != null && e.hash == MOVED) {
+        tab = ((ForwardingNode<K, V>)e).transfer.newTable;
+        continue;
+      }
+
+      for (; e != null; e = e.next)
+        if (e.hash == h && e.key.equals(key))
+          return e.value;
+
+      return null;
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return count.sum() <= 0;
+  }
+
+  @Override
+  public java.util.Set<K> keySet() {
+    java.util.Set<K> set = new java.util.HashSet<>();
+    forEachNode(e -> set.add(e.key));
+    return set;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    if (key == null || value == null)
+      throw new NullPointerException();
+
+    int h = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    while (true) {
+      int i = h & (tab.length() - 1);
+      Node<K, V> f = tab.get(i);
+      if (f == null) {
+        if (tab.compareAndSet(i, null, new Node<K, V>(h, key, value, null)))
+          break;
+      }
+      else if (f.hash == MOVED)
+        tab = helpTransfer((ForwardingNode<K, V>)f);
+      else {
+        boolean locked = false;
+        Node<K, V> existing = null;
+        V oldValue = null;
+        synchronized (f) {
+          if (tab.get(i) == f) {
+            checkNotReserved(f);
+            locked = true;
+            Node<K, V> e = f;
+            while (true) {
+              if (e.hash == h && e.key.equals(key)) {
+                existing = e;
+                oldValue = e.value;
+                e.value = value;
+                break;
+              }
+              if (e.next == null) {
+                e.next = new Node<K, V>(h, key, value, null);
+                break;
+              }
+              e = e.next;
+            }
+          }
+        }
+
+        if (existing != null)
+          return oldValue;
+        if (locked)
+          break;
+      }
+    }
+
+    count.increment();
+    checkResize();
+    return value;
+  }
+
+  @Override
+  public V compute(K key, java.util.function.BiFunction<
+      ? super K, ? super V, ? extends V> remappingFunction) {
+    if (key == null || remappingFunction == null)
+      throw new NullPointerException();
+
+    int h = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    V newValue = null;
+    int delta = 0;
+    while (true) {
+      int i = h & (tab.length() - 1);
+      Node<K, V> f = tab.get(i);
+      if (f == null) {
+        // Reserve the empty bin so that no other writer or the resize
+        // can touch it while the function runs
+        Node<K, V> r = new Node<K, V>(RESERVED, null, null, null);
+        boolean reserved = false;
+        synchronized (r) {
+          if (tab.compareAndSet(i, null, r)) {
+            reserved = true;
+            try {
+              newValue = remappingFunction.apply(key, null);
+            }
+            finally {
+              tab.set(i, newValue == null ? null :
+                new Node<K, V>(h, key, newValue, null));
+            }
+            if (newValue != null)
+              delta = 1;
+          }
+        }
+        if (reserved)
+          break;
+      }
+      else if (f.hash == MOVED)
+        tab = helpTransfer((ForwardingNode<K, V>)f);
+      else {
+        boolean locked = false;
+        synchronized (f) {
+          if (tab.get(i) == f) {
+            checkNotReserved(f);
+            locked = true;
+            Node<K, V> pred = null;
+            Node<K, V> e = f;
+            while (e != null && !(e.hash == h && e.key.equals(key))) {
+              pred = e;
+              e = e.next;
+            }
+
+            newValue = remappingFunction.apply(key, e == null ? null : e.value);
+            if (e != null) {
+              if (newValue != null)
+                e.value = newValue;
+              else {
+                if (pred == null)
+                  tab.set(i, e.next);
+                else
+                  pred.next = e.next;
+                delta = -1;
+              }
+            }
+            else if (newValue != null) {
+              pred.next = new Node<K, V>(h, key, newValue, null);
+              delta = 1;
+            }
+          }
+        }
+        if (locked)
+          break;
+      }
+    }
+
+    if (delta > 0) {
+      count.increment();
+      checkResize();
+    }
+    else if (delta < 0)
+      count.decrement();
+
+    return newValue;
+  }
+
+  @Override
+  public V computeIfAbsent(K key,
+      java.util.function.Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+    if (value != null)
+      return value;
+
+    return compute(key, (k, oldValue) ->
+      oldValue == null ? mappingFunction.apply(k) : oldValue);
+  }
+
+  @Override
+  public V computeIfPresent(K key, java.util.function.BiFunction<
+      ? super K, ? super V, ? extends V> remappingFunction) {
+    if (get(key) == null)
+      return null;
+
+    return compute(key, (k, oldValue) ->
+      oldValue == null ? null : remappingFunction.apply(k, oldValue));
+  }
+
+  @Override
+  public V merge(K key, V value, java.util.function.BiFunction<
+      ? super V, ? super V, ? extends V> remappingFunction) {
+    if (value == null)
+      throw new NullPointerException();
+
+    return compute(key, (k, oldValue) ->
+      oldValue == null ? value : remappingFunction.apply(oldValue, value));
+  }
+
+  @Override
+  public void remove(K key) {
+    int h = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    while (true) {
+      int i = h & (tab.length() - 1);
+      Node<K, V> f = tab.get(i);
+      if (f == null)
+        return;
+      else if (f.hash == MOVED)
+        tab = helpTransfer((ForwardingNode<K, V>)f);
+      else {
+        boolean locked = false;
+        boolean removed = false;
+        synchronized (f) {
+          if (tab.get(i) == f) {
+            checkNotReserved(f);
+            locked = true;
+            Node<K, V> pred = null;
+            for (Node<K, V> e = f; e != null; pred = e, e = e.next) {
+              if (e.hash == h && e.key.equals(key)) {
+                if (pred == null)
+                  tab.set(i, e.next);
+                else
+                  pred.next = e.next;
+                removed = true;
+                break;
+              }
+            }
+          }
+        }
+
+        if (removed)
+          count.decrement();
+        if (locked)
+          return;
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    long n = count.sum();
+    return n < 0 ? 0 : n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)n;
+  }
+
+  @Override
+  public java.util.Set<V> values() {
+    java.util.Set<V> set = new java.util.HashSet<>();
+    forEachNode(e -> set.add(e.value));
+    return set;
+  }
+
+  private void checkResize() {
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    Transfer<K, V> t = transfer;
+    if (t != null) {
+      runTransfer(t);
+      return;
+    }
+
+    if (tab.length() < MAXIMUM_CAPACITY &&
+        count.sum() >= (long)(tab.length() * loadFactorThreshold))
+      startResize(tab);
+  }
+
+  // Starting a resize is rare, so it is serialized on the map itself;
+  // the bins are then moved cooperatively by every thread that joins
+  private void startResize(AtomicReferenceArray<Node<K, V>> tab) {
+    Transfer<K, V> t;
+    synchronized (this) {
+      t = transfer;
+      if (t == null && table == tab)
+        transfer = t = new Transfer<K, V>(tab);
+    }
+
+    if (t != null)
+      runTransfer(t);
+  }
+
+  private AtomicReferenceArray<Node<K, V>> helpTransfer(
+      ForwardingNode<K, V> forward) {
+    runTransfer(forward.transfer);
+    return forward.transfer.newTable;
+  }
+
+  // Claims strides of old bins from the top down until none are left.
+  // Whoever moves the last bin installs the new table
+  private void runTransfer(Transfer<K, V> t) {
+    while (true) {
+      int end = t.nextIndex.get();
+      if (end <= 0)
+        return;
+
+      int start = Math.max(0, end - t.stride);
+      if (!t.nextIndex.compareAndSet(end, start))
+        continue;
+
+      for (int i = end - 1; i >= start; i--)
+        transferBin(t, i);
+
+      if (t.remaining.addAndGet(start - end) == 0) {
+        table = t.newTable;
+        transfer = null;
+        return;
+      }
+    }
+  }
+
+  // Copies the bin into its low and high halves of the new table and
+  // leaves the old nodes untouched for readers still walking them
+  private void transferBin(Transfer<K, V> t, int i) {
+    AtomicReferenceArray<Node<K, V>> oldTable = t.oldTable;
+    int n = oldTable.length();
+    while (true) {
+      Node<K, V> f = oldTable.get(i);
+      if (f == null) {
+        if (oldTable.compareAndSet(i, null, t.forward))
+          return;
+      }
+      else {
+        synchronized (f) {
+          if (oldTable.get(i) == f) {
+            checkNotReserved(f);
+            Node<K, V> lo = null;
+            Node<K, V> hi = null;
+            for (Node<K, V> e = f; e != null; e = e.next) {
+              if ((e.hash & n) == 0)
+                lo = new Node<K, V>(e.hash, e.key, e.value, lo);
+              else
+                hi = new Node<K, V>(e.hash, e.key, e.value, hi);
+            }
+
+            t.newTable.set(i, lo);
+            t.newTable.set(i + n, hi);
+            oldTable.set(i, t.forward);
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  // Weakly consistent walk over every entry, following forwarded bins
+  private void forEachNode(java.util.function.Consumer<Node<K, V>> action) {
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    for (int i = 0; i < tab.length(); i++)
+      forEachNode(tab, i, action);
+  }
+
+  private void forEachNode(AtomicReferenceArray<Node<K, V>> tab, int i,
+      java.util.function.Consumer<Node<K, V>> action) {
+    Node<K, V> f = tab.get(i);
+    if (f != null && f.hash == MOVED) {
+      AtomicReferenceArray<Node<K, V>> next =
+        ((ForwardingNode<K, V>)f).transfer.newTable;
+      forEachNode(next, i, action);
+      forEachNode(next, i + tab.length(), action);
+      return;
+    }
+
+    for (Node<K, V> e = f; e != null; e = e.next)
+      if (e.hash >= 0)
+        action.accept(e);
+  }
+
+  // A bin is reserved only while compute runs the function, with the
+  // monitor of the reservation held; other threads wait for it and then
+  // find the bin replaced. So a reserved bin seen with the lock held means
+  // the function itself is changing the map in that bin
+  private static void checkNotReserved(Node<?, ?> f) {
+    if (f.hash == RESERVED)
+      throw new IllegalStateException("Recursive update");
+  }
+
+  private static int spread(int h) {
+    return supplementalHash(h) & 0x7fffffff;
+  }
+
+  private static int supplementalHash(int h) {
+    h ^= (h >>> 20) ^ (h >>> 12);
+    return h ^ (h >>> 7) ^ (h >>> 4);
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    forEachNode(e -> builder.append("[" + e.key + ", " + e.value + "]"));
+    builder.append("]");
+    return builder.toString();
+  }
+
+  private static class Node<K, V> {
+    final int hash;
+    final K key;
+    volatile V value;
+    volatile Node<K, V> next;
+
+    Node(int hash, K key, V value, Node<K, V> next) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  private static class ForwardingNode<K, V> extends Node<K, V> {
+    final Transfer<K, V> transfer;
+
+    ForwardingNode(Transfer<K, V> transfer) {
+      super(MOVED, null, null, null);
+      this.transfer = transfer;
+    }
+  }
+
+  private static class Transfer<K, V> {
+    final AtomicReferenceArray<Node<K, V>> oldTable;
+    final AtomicReferenceArray<Node<K, V>> newTable;
+    final ForwardingNode<K, V> forward;
+    final int stride;
+    // Bins below nextIndex are still unclaimed; remaining counts the
+    // bins not yet moved
+    final AtomicInteger nextIndex;
+    final AtomicInteger remaining;
+
+    Transfer(AtomicReferenceArray<Node<K, V>> oldTable) {
+      int n = oldTable.length();
+      this.oldTable = oldTable;
+      this.newTable = new AtomicReferenceArray<>(n << 1);
+      this.forward = new ForwardingNode<K, V>(this);
+      this.stride = Math.max(MIN_TRANSFER_STRIDE,
+        n / (4 * Runtime.getRuntime().availableProcessors()));
+      this.nextIndex = new AtomicInteger(n);
+      this.remaining = new AtomicInteger(n);
+    }
+  }
+}
@@ -6,9 +6,27 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   private int capacity;
   private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f; 
   private float loadFactorThreshold; 
+  private final static int MIGRATION_STEP = 4;
+  private boolean incrementalRehash;
+  private final HashStrategy hashStrategy;
+  private final static int TREEIFY_THRESHOLD = 8;
+  private final static int UNTREEIFY_THRESHOLD = 6;
+  private final static int MIN_TREEIFY_CAPACITY = 64;
      
   private int size = 0; 
+  // Counts structural changes so that iterators can fail fast
+  private int modCount = 0;
   LinkedList<MyMap.Entry<K,V>>[] table;
+  // A bucket whose chain grew past TREEIFY_THRESHOLD is kept in trees[i]
+  // instead of table[i]; trees stays null until the first such bucket
+  HashTreeBucket<K,V>[] trees;
+  // While an incremental rehash is in progress the entries not yet moved
+  // stay in oldTable; buckets below migrationIndex have been moved
+  LinkedList<MyMap.Entry<K,V>>[] oldTable;
+  HashTreeBucket<K,V>[] oldTrees;
+  private int migrationIndex;
+  // Null unless stats are enabled
+  private HashTableStats stats;
 
   public MyHashMap() {  
     this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);    
@@ -19,18 +37,175 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   }
   
   public MyHashMap(int initialCapacity, float loadFactorThreshold) { 
+    this(initialCapacity, loadFactorThreshold, false);
+  }
+  
+  public MyHashMap(int initialCapacity, float loadFactorThreshold,
+      boolean incrementalRehash) { 
+    this(initialCapacity, loadFactorThreshold, incrementalRehash,
+      HashStrategy.SUPPLEMENTAL);
+  }
+  
+  public MyHashMap(HashStrategy hashStrategy) {  
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR, false,
+      hashStrategy);    
+  }
+  
+  public MyHashMap(int initialCapacity, float loadFactorThreshold,
+      boolean incrementalRehash, HashStrategy hashStrategy) { 
     if (initialCapacity > MAXIMUM_CAPACITY)
       this.capacity = MAXIMUM_CAPACITY;
     else
       this.capacity = trimToPowerOf2(initialCapacity);
     
     this.loadFactorThreshold = loadFactorThreshold;    
+    this.incrementalRehash = incrementalRehash;
+    this.hashStrategy = hashStrategy;
     table = new LinkedList[capacity];
   }
   
+  // Builds a map from keys[i] to values[i]. The table is sized for
+  // keys.length up front, so it never rehashes, and the buckets are filled
+  // by ForkJoin workers in parallel. As with repeated put, a key that
+  // occurs more than once keeps its last value
+  public static <K, V> MyHashMap<K, V> of(K[] keys, V[] values) {
+    if (keys.length != values.length)
+      throw new IllegalArgumentException(
+        "keys and values have different lengths");
+    
+    return build(keys, values);
+  }
+  
+  // Builds a map from the elements of spliterator, which are mapped and
+  // split across ForkJoin workers
+  public static <T, K, V> MyHashMap<K, V> fromSpliterator(
+      java.util.Spliterator<T> spliterator,
+      java.util.function.Function<? super T, ? extends K> keyMapper,
+      java.util.function.Function<? super T, ? extends V> valueMapper) {
+    return java.util.stream.StreamSupport.stream(spliterator, true)
+      .collect(toMyHashMap(keyMapper, valueMapper));
+  }
+  
+  // Collects the elements of a stream in encounter order, then builds the
+  // map as of does, so a later duplicate key wins
+  public static <T, K, V> java.util.stream.Collector<T, ?, MyHashMap<K, V>>
+      toMyHashMap(java.util.function.Function<? super T, ? extends K> keyMapper,
+      java.util.function.Function<? super T, ? extends V> valueMapper) {
+    return java.util.stream.Collector.<T, java.util.ArrayList<T>,
+        MyHashMap<K, V>>of(
+      java.util.ArrayList::new,
+      java.util.ArrayList::add,
+      (left, right) -> {
+        left.addAll(right);
+        return left;
+      },
+      elements -> {
+        Object[] keys = new Object[elements.size()];
+        Object[] values = new Object[elements.size()];
+        java.util.stream.IntStream.range(0, keys.length).parallel()
+          .forEach(i -> {
+            keys[i] = keyMapper.apply(elements.get(i));
+            values[i] = valueMapper.apply(elements.get(i));
+          });
+        return build(keys, values);
+      });
+  }
+  
+  // The buckets are cut into slices of consecutive indexes, a few per
+  // worker. The keys are first grouped by slice with a counting sort that
+  // keeps their order, and then every slice is filled by one task. No two
+  // tasks touch the same bucket, so no locks are needed, and a duplicate
+  // key meets its earlier occurrence in the same task
+  private static <K, V> MyHashMap<K, V> build(Object[] keys,
+      Object[] values) {
+    int n = keys.length;
+    MyHashMap<K, V> map = new MyHashMap<>((int)Math.min(MAXIMUM_CAPACITY,
+      (long)(n / DEFAULT_MAX_LOAD_FACTOR) + 1));
+    if (n == 0)
+      return map;
+    
+    // Runs in the caller's pool, so a benchmark can pick the parallelism
+    java.util.concurrent.ForkJoinPool pool = 
+      java.util.concurrent.ForkJoinTask.inForkJoinPool() ?
+      java.util.concurrent.ForkJoinTask.getPool() :
+      java.util.concurrent.ForkJoinPool.commonPool();
+    int tasks = 4 * pool.getParallelism();
+    int slices = Math.min(map.capacity, map.trimToPowerOf2(tasks));
+    int sliceShift = Integer.numberOfTrailingZeros(map.capacity) -
+      Integer.numberOfTrailingZeros(slices);
+    int chunks = Math.min(n, tasks);
+    int chunkSize = (n + chunks - 1) / chunks;
+    
+    // bucketIndexes[i] is the bucket of keys[i]; counts[c][s] is the
+    // number of keys of chunk c that fall into slice s
+    int[] bucketIndexes = new int[n];
+    int[][] counts = new int[chunks][slices];
+    java.util.stream.IntStream.range(0, chunks).parallel().forEach(c -> {
+      for (int i = c * chunkSize; i < Math.min(n, (c + 1) * chunkSize); i++) {
+        bucketIndexes[i] = map.hash(keys[i].hashCode());
+        counts[c][bucketIndexes[i] >>> sliceShift]++;
+      }
+    });
+    
+    // Turn the counts into the position where each chunk writes the keys
+    // of each slice
+    int[] sliceStarts = new int[slices + 1];
+    for (int s = 0, position = 0; s < slices; s++) {
+      sliceStarts[s] = position;
+      for (int c = 0; c < chunks; c++) {
+        int count = counts[c][s];
+        counts[c][s] = position;
+        position += count;
+      }
+    }
+    sliceStarts[slices] = n;
+    
+    int[] order = new int[n];
+    java.util.stream.IntStream.range(0, chunks).parallel().forEach(c -> {
+      for (int i = c * chunkSize; i < Math.min(n, (c + 1) * chunkSize); i++)
+        order[counts[c][bucketIndexes[i] >>> sliceShift]++] = i;
+    });
+    
+    int[] sizes = new int[slices];
+    java.util.stream.IntStream.range(0, slices).parallel().forEach(s -> {
+      for (int k = sliceStarts[s]; k < sliceStarts[s + 1]; k++) {
+        int i = order[k];
+        int bucketIndex = bucketIndexes[i];
+        K key = (K)keys[i];
+        Entry<K, V> existing = map.findInBucket(map.table, null, bucketIndex,
+          key, 0);
+        if (existing != null) {
+          existing.value = (V)values[i];
+          continue;
+        }
+        
+        if (map.table[bucketIndex] == null)
+          map.table[bucketIndex] = new LinkedList<Entry<K, V>>();
+        map.table[bucketIndex].add(new MyMap.Entry<K, V>(key, (V)values[i]));
+        sizes[s]++;
+      }
+    });
+    
+    for (int size: sizes)
+      map.size += size;
+    
+    // treeify shares the trees array, so long chains are converted after
+    // the parallel part
+    if (map.capacity >= MIN_TREEIFY_CAPACITY)
+      for (int i = 0; i < map.capacity; i++)
+        if (map.table[i] != null && map.table[i].size() > TREEIFY_THRESHOLD)
+          map.treeify(i);
+    
+    return map;
+  }
+  
   @Override 
   public void clear() {
     size = 0;
+    modCount++;
+    oldTable = null;
+    oldTrees = null;
+    trees = null;
     removeEntries();
   }
   @Override
@@ -43,9 +218,10 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   
   @Override 
   public boolean containsValue(V value) {
+    finishMigration();
     for (int i = 0; i < capacity; i++) {
-      if (table[i] != null) {
-        LinkedList<Entry<K, V>> bucket = table[i]; 
+      Iterable<Entry<K, V>> bucket = bucket(i);
+      if (bucket != null) {
         for (Entry<K, V> entry: bucket)
           if (entry.getValue().equals(value)) 
             return true;
@@ -57,30 +233,20 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   
   @Override
   public java.util.Set<MyMap.Entry<K,V>> entrySet() {
-    java.util.Set<MyMap.Entry<K, V>> set = 
-      new java.util.HashSet<>();
-    
-    for (int i = 0; i < capacity; i++) {
-      if (table[i] != null) {
-        LinkedList<Entry<K, V>> bucket = table[i]; 
-        for (Entry<K, V> entry: bucket)
-          set.add(entry); 
-      }
-    }
-    
-    return set;
+    return new EntrySet();
   }
   @Override
   public V get(K key) {
-    int bucketIndex = hash(key.hashCode());
-    if (table[bucketIndex] != null) {
-      LinkedList<Entry<K, V>> bucket = table[bucketIndex]; 
-      for (Entry<K, V> entry: bucket)
-        if (entry.getKey().equals(key)) 
-          return entry.getValue();
-    }
-    
-    return null;
+    migrateBuckets();
+    Entry<K, V> entry = getEntry(key, key.hashCode());
+    return entry == null ? null : entry.getValue();
+  }
+  
+  @Override
+  public V getOrDefault(K key, V defaultValue) {
+    migrateBuckets();
+    Entry<K, V> entry = getEntry(key, key.hashCode());
+    return entry == null ? defaultValue : entry.getValue();
   }
   
   @Override
@@ -90,32 +256,119 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   
   @Override
   public java.util.Set<K> keySet() {
-    java.util.Set<K> set = new java.util.HashSet<>();
+    return new KeySet();
+  }
+      
+  @Override
+  public V put(K key, V value) {
+    migrateBuckets();
+    int hashCode = key.hashCode();
+    Entry<K, V> existing = getEntry(key, hashCode);
+    if (existing != null) {
+      V oldValue = existing.getValue();
+      existing.value = value; 
+      return oldValue;
+    }
+  
+    addEntry(key, hashCode, value);
     
-    for (int i = 0; i < capacity; i++) {
-      if (table[i] != null) {
-        LinkedList<Entry<K, V>> bucket = table[i]; 
-        for (Entry<K, V> entry: bucket)
-          set.add(entry.getKey()); 
-      }
+    return value;  
+  } 
+  
+  @Override
+  public V computeIfAbsent(K key,
+      java.util.function.Function<? super K, ? extends V> mappingFunction) {
+    migrateBuckets();
+    int hashCode = key.hashCode();
+    Entry<K, V> entry = getEntry(key, hashCode);
+    if (entry != null)
+      return entry.getValue();
+    
+    int expectedModCount = modCount;
+    V value = mappingFunction.apply(key);
+    checkModCount(expectedModCount);
+    if (value != null)
+      addEntry(key, hashCode, value);
+    
+    return value;
+  }
+  
+  @Override
+  public V computeIfPresent(K key, java.util.function.BiFunction<
+      ? super K, ? super V, ? extends V> remappingFunction) {
+    migrateBuckets();
+    int hashCode = key.hashCode();
+    Entry<K, V> entry = getEntry(key, hashCode);
+    if (entry == null)
+      return null;
+    
+    int expectedModCount = modCount;
+    V newValue = remappingFunction.apply(key, entry.getValue());
+    checkModCount(expectedModCount);
+    if (newValue == null)
+      removeEntry(entry, hashCode);
+    else
+      entry.value = newValue;
+    
+    return newValue;
+  }
+  
+  @Override
+  public V compute(K key, java.util.function.BiFunction<
+      ? super K, ? super V, ? extends V> remappingFunction) {
+    migrateBuckets();
+    int hashCode = key.hashCode();
+    Entry<K, V> entry = getEntry(key, hashCode);
+    int expectedModCount = modCount;
+    V newValue = remappingFunction.apply(key,
+      entry == null ? null : entry.getValue());
+    checkModCount(expectedModCount);
+    
+    if (newValue == null) {
+      if (entry != null)
+        removeEntry(entry, hashCode);
     }
+    else if (entry != null)
+      entry.value = newValue;
+    else
+      addEntry(key, hashCode, newValue);
     
-    return set;
+    return newValue;
   }
-      
+  
   @Override
-  public V put(K key, V value) {
-    if (get(key) != null) {
-      int bucketIndex = hash(key.hashCode());
-      LinkedList<Entry<K, V>> bucket = table[bucketIndex]; 
-      for (Entry<K, V> entry: bucket)
-        if (entry.getKey().equals(key)) {
-          V oldValue = entry.getValue();
-          entry.value = value; 
-          return oldValue;
-        }
+  public V merge(K key, V value, java.util.function.BiFunction<
+      ? super V, ? super V, ? extends V> remappingFunction) {
+    migrateBuckets();
+    int hashCode = key.hashCode();
+    Entry<K, V> entry = getEntry(key, hashCode);
+    if (entry == null) {
+      if (value != null)
+        addEntry(key, hashCode, value);
+      return value;
     }
+    
+    int expectedModCount = modCount;
+    V newValue = remappingFunction.apply(entry.getValue(), value);
+    checkModCount(expectedModCount);
+    if (newValue == null)
+      removeEntry(entry, hashCode);
+    else
+      entry.value = newValue;
+    
+    return newValue;
+  }
+ 
+  @Override
+  public void remove(K key) {
+    migrateBuckets();
+    int hashCode = key.hashCode();
+    Entry<K, V> entry = getEntry(key, hashCode);
+    if (entry != null)
+      removeEntry(entry, hashCode);
+  }
   
+  private void addEntry(K key, int hashCode, V value) {
     if (size >= capacity * loadFactorThreshold) {
       if (capacity == MAXIMUM_CAPACITY)
         throw new RuntimeException("Exceeding maximum capacity");
@@ -123,30 +376,82 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
       rehash();
     }
     
-    int bucketIndex = hash(key.hashCode());
+    link(new MyMap.Entry<K, V>(key, value), hashCode);
+    size++;
+    modCount++;
+  }
+  
+  private void link(Entry<K, V> entry, int hashCode) {
+    int bucketIndex = hash(hashCode);
+    
+    if (trees != null && trees[bucketIndex] != null) {
+      trees[bucketIndex].add(spread(hashCode), entry);
+      return;
+    }
     
     if (table[bucketIndex] == null) {
       table[bucketIndex] = new LinkedList<Entry<K, V>>();
     }
-    table[bucketIndex].add(new MyMap.Entry<K, V>(key, value));
-    size++;
-    
-    return value;  
-  } 
- 
-  @Override
-  public void remove(K key) {
-    int bucketIndex = hash(key.hashCode());
+    table[bucketIndex].add(entry);
     
-    if (table[bucketIndex] != null) {
-      LinkedList<Entry<K, V>> bucket = table[bucketIndex]; 
-      for (Entry<K, V> entry: bucket)
-        if (entry.getKey().equals(key)) {
-          bucket.remove(entry);
-          size--;
-          break;
-        }
+    if (table[bucketIndex].size() > TREEIFY_THRESHOLD &&
+        capacity >= MIN_TREEIFY_CAPACITY)
+      treeify(bucketIndex);
+  }
+  
+  // Unlinks an entry found by getEntry. Buckets below migrationIndex have
+  // been moved, so the entry's bucket is known without searching the new
+  // table first. Entry does not override equals, so LinkedList.remove
+  // compares by identity and stops at the entry
+  private void removeEntry(Entry<K, V> entry, int hashCode) {
+    if (oldTable != null &&
+        hash(hashCode, oldTable.length) >= migrationIndex)
+      unlink(oldTable, oldTrees, hash(hashCode, oldTable.length), entry,
+        hashCode);
+    else {
+      int bucketIndex = hash(hashCode);
+      unlink(table, trees, bucketIndex, entry, hashCode);
+      if (trees != null && trees[bucketIndex] != null &&
+          trees[bucketIndex].size() <= UNTREEIFY_THRESHOLD)
+        untreeify(bucketIndex);
     }
+    size--;
+    modCount++;
+  }
+  
+  private void unlink(LinkedList<Entry<K, V>>[] table,
+      HashTreeBucket<K, V>[] trees, int bucketIndex, Entry<K, V> entry,
+      int hashCode) {
+    if (trees != null && trees[bucketIndex] != null)
+      trees[bucketIndex].remove(spread(hashCode), entry);
+    else
+      table[bucketIndex].remove(entry);
+  }
+  
+  // The entry found before a remapping function ran is stale if the
+  // function added or removed entries, as java.util.HashMap also reports
+  private void checkModCount(int expectedModCount) {
+    if (modCount != expectedModCount)
+      throw new java.util.ConcurrentModificationException();
+  }
+  
+  private void treeify(int bucketIndex) {
+    if (trees == null)
+      trees = new HashTreeBucket[capacity];
+    
+    HashTreeBucket<K, V> tree = new HashTreeBucket<>();
+    for (Entry<K, V> entry: table[bucketIndex])
+      tree.add(spread(entry.getKey().hashCode()), entry);
+    trees[bucketIndex] = tree;
+    table[bucketIndex] = null;
+  }
+  
+  private void untreeify(int bucketIndex) {
+    LinkedList<Entry<K, V>> bucket = new LinkedList<>();
+    for (Entry<K, V> entry: trees[bucketIndex])
+      bucket.add(entry);
+    table[bucketIndex] = bucket;
+    trees[bucketIndex] = null;
   }
   
   @Override
@@ -155,28 +460,48 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   }
   
   @Override
-  public java.util.Set<V> values() {
-    java.util.Set<V> set = new java.util.HashSet<>();
+  public java.util.Collection<V> values() {
+    return new Values();
+  }
+  
+  private Entry<K, V> getEntry(K key, int hashCode) {
+    Entry<K, V> entry = findInBucket(table, trees, hash(hashCode), key,
+      hashCode);
+    if (entry == null && oldTable != null)
+      entry = findInBucket(oldTable, oldTrees,
+        hash(hashCode, oldTable.length), key, hashCode);
     
-    for (int i = 0; i < capacity; i++) {
-      if (table[i] != null) {
-        LinkedList<Entry<K, V>> bucket = table[i]; 
-        for (Entry<K, V> entry: bucket)
-          set.add(entry.getValue()); 
-      }
+    return entry;
+  }
+  
+  private Entry<K, V> findInBucket(
+      LinkedList<Entry<K, V>>[] table, HashTreeBucket<K, V>[] trees,
+      int bucketIndex, K key, int hashCode) {
+    if (trees != null && trees[bucketIndex] != null)
+      return trees[bucketIndex].find(spread(hashCode), key);
+    
+    LinkedList<Entry<K, V>> bucket = table[bucketIndex];
+    if (bucket != null) {
+      for (Entry<K, V> entry: bucket)
+        if (entry.getKey().equals(key)) 
+          return entry;
     }
     
-    return set;
+    return null;
   }
   
   private int hash(int hashCode) {
-    return supplementalHash(hashCode) & (capacity - 1);
+    return hash(hashCode, capacity);
   }
   
-  private static int supplementalHash(int h) {
-    h ^= (h >>> 20) ^ (h >>> 12);
-    return h ^ (h >>> 7) ^ (h >>> 4);
+  private int hash(int hashCode, int capacity) {
+    return spread(hashCode) & (capacity - 1);
   }
+  
+  private int spread(int hashCode) {
+    return hashStrategy.hash(hashCode);
+  }
+  
   private int trimToPowerOf2(int initialCapacity) {
     int capacity = 1;
     while (capacity < initialCapacity) {
@@ -186,6 +511,48 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
     return capacity;
   }
   
+  private Iterable<Entry<K, V>> bucket(int i) {
+    if (trees != null && trees[i] != null)
+      return trees[i];
+    
+    return table[i];
+  }
+  
+  public void setStatsEnabled(boolean enabled) {
+    if (!enabled)
+      stats = null;
+    else if (stats == null)
+      stats = new HashTableStats();
+  }
+  
+  // Counts the bucket lengths of the table, so it costs one pass over the
+  // buckets; returns null when stats are not enabled
+  public HashTableStats.Snapshot getStats() {
+    if (stats == null)
+      return null;
+    
+    int[] bucketLengths = new int[16];
+    for (int i = 0; i < capacity; i++)
+      bucketLengths = HashTableStats.countBucket(bucketLengths,
+        bucketSize(table, trees, i));
+    // Buckets still waiting in the old table are searched as well
+    if (oldTable != null)
+      for (int i = migrationIndex; i < oldTable.length; i++)
+        if (bucketSize(oldTable, oldTrees, i) > 0)
+          bucketLengths = HashTableStats.countBucket(bucketLengths,
+            bucketSize(oldTable, oldTrees, i));
+    
+    return stats.snapshot(size, capacity, bucketLengths);
+  }
+  
+  private static <K, V> int bucketSize(LinkedList<Entry<K, V>>[] table,
+      HashTreeBucket<K, V>[] trees, int i) {
+    if (trees != null && trees[i] != null)
+      return trees[i].size();
+    
+    return table[i] == null ? 0 : table[i].size();
+  }
+  
   private void removeEntries() {
     for (int i = 0; i < capacity; i++) {
       if (table[i] != null) {
@@ -195,22 +562,354 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
   }
   
   private void rehash() {
-    java.util.Set<Entry<K, V>> set = entrySet();
+    finishMigration();
+    long startTime = stats == null ? 0 : System.nanoTime();
+    if (stats != null)
+      stats.recordRehash(size, capacity);
+    oldTable = table;
+    oldTrees = trees;
+    migrationIndex = 0;
     capacity <<= 1;
     table = new LinkedList[capacity];
-    size = 0;
+    trees = null;
+    if (stats != null)
+      stats.addRehashNanos(System.nanoTime() - startTime);
+    
+    if (!incrementalRehash)
+      finishMigration();
+  }
+  
+  // Moves a bounded number of old buckets so that no single operation
+  // pays for the whole rehash
+  private void migrateBuckets() {
+    if (oldTable == null)
+      return;
     
-    for (Entry<K, V> entry: set) {
-      put(entry.getKey(), entry.getValue());
+    long startTime = stats == null ? 0 : System.nanoTime();
+    int end = Math.min(migrationIndex + MIGRATION_STEP, oldTable.length);
+    while (migrationIndex < end)
+      transferBucket(migrationIndex++);
+    if (stats != null)
+      stats.addRehashNanos(System.nanoTime() - startTime);
+    
+    if (migrationIndex == oldTable.length) {
+      oldTable = null;
+      oldTrees = null;
+    }
+  }
+  
+  private void finishMigration() {
+    if (oldTable == null)
+      return;
+    
+    long startTime = stats == null ? 0 : System.nanoTime();
+    while (migrationIndex < oldTable.length)
+      transferBucket(migrationIndex++);
+    if (stats != null)
+      stats.addRehashNanos(System.nanoTime() - startTime);
+    oldTable = null;
+    oldTrees = null;
+  }
+  
+  // Entries are relinked into the new table as they are; no entry or
+  // temporary collection is created. A tree bucket splits into two
+  // halves that become lists again unless they are still overfull
+  private void transferBucket(int i) {
+    Iterable<Entry<K, V>> bucket = oldTable[i];
+    if (oldTrees != null && oldTrees[i] != null)
+      bucket = oldTrees[i];
+    if (bucket == null)
+      return;
+    
+    for (Entry<K, V> entry: bucket)
+      link(entry, entry.getKey().hashCode());
+    oldTable[i] = null;
+    if (oldTrees != null)
+      oldTrees[i] = null;
+  }
+  
+  // The views below read the table directly. Creating an iterator or a
+  // spliterator completes any pending incremental rehash, so that later
+  // reads do not move entries under it
+  private class KeySet extends java.util.AbstractSet<K> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return getEntry((K)o, o.hashCode()) != null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      Entry<K, V> entry = getEntry((K)o, o.hashCode());
+      if (entry == null)
+        return false;
+
+      removeEntry(entry, o.hashCode());
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      MyHashMap.this.clear();
+    }
+
+    @Override
+    public java.util.Iterator<K> iterator() {
+      return new HashIterator<K>() {
+        @Override
+        public K next() {
+          return nextEntry().getKey();
+        }
+      };
+    }
+
+    @Override
+    public java.util.Spliterator<K> spliterator() {
+      return new HashSpliterator<K>(java.util.Spliterator.DISTINCT) {
+        @Override
+        K map(Entry<K, V> entry) {
+          return entry.getKey();
+        }
+      };
+    }
+  }
+
+  private class Values extends java.util.AbstractCollection<V> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      MyHashMap.this.clear();
+    }
+
+    @Override
+    public java.util.Iterator<V> iterator() {
+      return new HashIterator<V>() {
+        @Override
+        public V next() {
+          return nextEntry().getValue();
+        }
+      };
+    }
+
+    @Override
+    public java.util.Spliterator<V> spliterator() {
+      return new HashSpliterator<V>(0) {
+        @Override
+        V map(Entry<K, V> entry) {
+          return entry.getValue();
+        }
+      };
     }
   }
+
+  private class EntrySet extends java.util.AbstractSet<Entry<K, V>> {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return find(o) != null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      Entry<K, V> entry = find(o);
+      if (entry == null)
+        return false;
+
+      removeEntry(entry, entry.getKey().hashCode());
+      return true;
+    }
+
+    private Entry<K, V> find(Object o) {
+      if (!(o instanceof MyMap.Entry))
+        return null;
+
+      Entry<K, V> given = (Entry<K, V>)o;
+      Entry<K, V> entry =
+        getEntry(given.getKey(), given.getKey().hashCode());
+      if (entry != null &&
+          java.util.Objects.equals(entry.getValue(), given.getValue()))
+        return entry;
+
+      return null;
+    }
+
+    @Override
+    public void clear() {
+      MyHashMap.this.clear();
+    }
+
+    @Override
+    public java.util.Iterator<Entry<K, V>> iterator() {
+      return new HashIterator<Entry<K, V>>() {
+        @Override
+        public Entry<K, V> next() {
+          return nextEntry();
+        }
+      };
+    }
+
+    @Override
+    public java.util.Spliterator<Entry<K, V>> spliterator() {
+      return new HashSpliterator<Entry<K, V>>(
+          java.util.Spliterator.DISTINCT) {
+        @Override
+        Entry<K, V> map(Entry<K, V> entry) {
+          return entry;
+        }
+      };
+    }
+  }
+
+  private abstract class HashIterator<T> implements java.util.Iterator<T> {
+    private int bucketIndex = 0;
+    private java.util.Iterator<Entry<K, V>> bucketIterator;
+    private java.util.Iterator<Entry<K, V>> lastIterator;
+    private int expectedModCount;
+
+    HashIterator() {
+      finishMigration();
+      expectedModCount = modCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (bucketIterator == null || !bucketIterator.hasNext()) {
+        if (bucketIndex >= capacity)
+          return false;
+
+        Iterable<Entry<K, V>> bucket = bucket(bucketIndex++);
+        bucketIterator = bucket == null ? null : bucket.iterator();
+      }
+
+      return true;
+    }
+
+    Entry<K, V> nextEntry() {
+      if (modCount != expectedModCount)
+        throw new java.util.ConcurrentModificationException();
+      if (!hasNext())
+        throw new java.util.NoSuchElementException();
+
+      lastIterator = bucketIterator;
+      return bucketIterator.next();
+    }
+
+    // Tree buckets are not converted back to lists here; that happens
+    // on the next regular remove from the bucket or on rehash
+    @Override
+    public void remove() {
+      if (lastIterator == null)
+        throw new IllegalStateException();
+      if (modCount != expectedModCount)
+        throw new java.util.ConcurrentModificationException();
+
+      lastIterator.remove();
+      lastIterator = null;
+      size--;
+      expectedModCount = ++modCount;
+    }
+  }
+
+  // Splits the bucket array in halves so that parallel streams can walk
+  // disjoint ranges of the table
+  private abstract class HashSpliterator<T>
+      implements java.util.Spliterator<T> {
+    private int bucketIndex;
+    private int fence;
+    private long estimatedSize;
+    private final int characteristics;
+    private final int expectedModCount;
+    private java.util.Iterator<Entry<K, V>> bucketIterator;
+
+    HashSpliterator(int characteristics) {
+      finishMigration();
+      this.bucketIndex = 0;
+      this.fence = capacity;
+      this.estimatedSize = size;
+      this.characteristics = characteristics | java.util.Spliterator.SIZED;
+      this.expectedModCount = modCount;
+    }
+
+    HashSpliterator(HashSpliterator<T> parent, int bucketIndex, int fence) {
+      this.bucketIndex = bucketIndex;
+      this.fence = fence;
+      this.estimatedSize = parent.estimatedSize;
+      this.characteristics =
+        parent.characteristics & ~java.util.Spliterator.SIZED;
+      this.expectedModCount = parent.expectedModCount;
+    }
+
+    abstract T map(Entry<K, V> entry);
+
+    @Override
+    public boolean tryAdvance(java.util.function.Consumer<? super T> action) {
+      while (bucketIterator == null || !bucketIterator.hasNext()) {
+        if (bucketIndex >= fence)
+          return false;
+
+        Iterable<Entry<K, V>> bucket = bucket(bucketIndex++);
+        bucketIterator = bucket == null ? null : bucket.iterator();
+      }
+
+      action.accept(map(bucketIterator.next()));
+      if (modCount != expectedModCount)
+        throw new java.util.ConcurrentModificationException();
+      return true;
+    }
+
+    @Override
+    public java.util.Spliterator<T> trySplit() {
+      int mid = (bucketIndex + fence) >>> 1;
+      if (mid <= bucketIndex)
+        return null;
+
+      HashSpliterator<T> prefix = this;
+      HashSpliterator<T> split =
+        new HashSpliterator<T>(prefix, bucketIndex, mid) {
+          @Override
+          T map(Entry<K, V> entry) {
+            return prefix.map(entry);
+          }
+        };
+      bucketIndex = mid;
+      estimatedSize >>>= 1;
+      split.estimatedSize = estimatedSize;
+      return split;
+    }
+
+    @Override
+    public long estimateSize() {
+      return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+      return bucketIterator == null && bucketIndex == 0 && fence == capacity
+        ? characteristics : characteristics & ~java.util.Spliterator.SIZED;
+    }
+  }
+
   @Override
   public String toString() {
     StringBuilder builder = new StringBuilder("[");
     
+    finishMigration();
     for (int i = 0; i < capacity; i++) {
-      if (table[i] != null && table[i].size() > 0) 
-        for (Entry<K, V> entry: table[i])
+      Iterable<Entry<K, V>> bucket = bucket(i);
+      if (bucket != null) 
+        for (Entry<K, V> entry: bucket)
           builder.append(entry);
     }
     
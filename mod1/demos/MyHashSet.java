@@ -6,9 +6,20 @@ public class MyHashSet<E> implements Collection<E> {
 
   private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f; 
   private float loadFactorThreshold; 
+  private final static int MIGRATION_STEP = 4;
+  private boolean incrementalRehash;
+  private final HashStrategy hashStrategy;
   
   private int size = 0; 
+  // Counts structural changes so that iterators can fail fast
+  private int modCount = 0;
   private LinkedList<E>[] table;
+  // Elements of buckets at or above migrationIndex that have not been
+  // moved yet while an incremental rehash is in progress
+  private LinkedList<E>[] oldTable;
+  private int migrationIndex;
+  // Null unless stats are enabled
+  private HashTableStats stats;
   public MyHashSet() {  
     this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);    
   }
@@ -18,26 +29,55 @@ public class MyHashSet<E> implements Collection<E> {
   }
   
   public MyHashSet(int initialCapacity, float loadFactorThreshold) { 
+    this(initialCapacity, loadFactorThreshold, false);
+  }
+  
+  public MyHashSet(int initialCapacity, float loadFactorThreshold,
+      boolean incrementalRehash) { 
+    this(initialCapacity, loadFactorThreshold, incrementalRehash,
+      HashStrategy.SUPPLEMENTAL);
+  }
+  
+  public MyHashSet(HashStrategy hashStrategy) {  
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR, false,
+      hashStrategy);    
+  }
+  
+  public MyHashSet(int initialCapacity, float loadFactorThreshold,
+      boolean incrementalRehash, HashStrategy hashStrategy) { 
     if (initialCapacity > MAXIMUM_CAPACITY)
       this.capacity = MAXIMUM_CAPACITY;
     else
       this.capacity = trimToPowerOf2(initialCapacity);
     
     this.loadFactorThreshold = loadFactorThreshold;    
+    this.incrementalRehash = incrementalRehash;
+    this.hashStrategy = hashStrategy;
     table = new LinkedList[capacity];
   }
   
   @Override 
   public void clear() {
     size = 0;
+    modCount++;
+    oldTable = null;
     removeElements();
   }
   @Override
   public boolean contains(Object e) {
-    int bucketIndex = hash(e.hashCode());
-    if (table[bucketIndex] != null) {
-      LinkedList<E> bucket = table[bucketIndex]; 
-      return bucket.contains(e);
+    migrateBuckets();
+    return containsElement(e);
+  }
+  
+  private boolean containsElement(Object e) {
+    int hashCode = e.hashCode();
+    LinkedList<E> bucket = table[hash(hashCode)];
+    if (bucket != null && bucket.contains(e))
+      return true;
+    
+    if (oldTable != null) {
+      bucket = oldTable[hash(hashCode, oldTable.length)];
+      return bucket != null && bucket.contains(e);
     }
     
     return false;
@@ -45,7 +85,8 @@ public class MyHashSet<E> implements Collection<E> {
   
   @Override
   public boolean add(E e) {
-    if (contains(e))
+    migrateBuckets();
+    if (containsElement(e))
       return false;
     
     if (size + 1 > capacity * loadFactorThreshold) {
@@ -62,21 +103,26 @@ public class MyHashSet<E> implements Collection<E> {
     }
     table[bucketIndex].add(e);
     size++;
+    modCount++;
     
     return true;
   }
   @Override
   public boolean remove(Object e) {
-    if (!contains(e))
-      return false;
+    migrateBuckets();
+    int hashCode = e.hashCode();
     
-    int bucketIndex = hash(e.hashCode());
-    
-    if (table[bucketIndex] != null) {
-      LinkedList<E> bucket = table[bucketIndex]; 
-      bucket.remove(e);
+    LinkedList<E> bucket = table[hash(hashCode)];
+    if (bucket == null || !bucket.remove(e)) {
+      if (oldTable == null)
+        return false;
+      
+      bucket = oldTable[hash(hashCode, oldTable.length)];
+      if (bucket == null || !bucket.remove(e))
+        return false;
     }
     size--;
+    modCount++;
     
     return true;
   }
@@ -90,33 +136,127 @@ public class MyHashSet<E> implements Collection<E> {
   }
   @Override
   public java.util.Iterator<E> iterator() {
-    return new MyHashSetIterator(this);
+    return new MyHashSetIterator();
   }
   
+  // Walks the buckets in place instead of copying the elements first;
+  // creating it completes any pending incremental rehash
   private class MyHashSetIterator implements java.util.Iterator<E> {
-    private java.util.ArrayList<E> list;
-    private int current = 0;
-    private MyHashSet<E> set;
+    private int bucketIndex = 0;
+    private java.util.Iterator<E> bucketIterator;
+    private java.util.Iterator<E> lastIterator;
+    private int expectedModCount;
     
-    public MyHashSetIterator(MyHashSet<E> set) {
-      this.set = set;
-      list = setToList();
+    public MyHashSetIterator() {
+      finishMigration();
+      expectedModCount = modCount;
     }
     @Override
     public boolean hasNext() {
-      return current < list.size();
+      while (bucketIterator == null || !bucketIterator.hasNext()) {
+        if (bucketIndex >= capacity)
+          return false;
+        
+        LinkedList<E> bucket = table[bucketIndex++];
+        bucketIterator = bucket == null ? null : bucket.iterator();
+      }
+      
+      return true;
     }
     @Override
     public E next() {
-      return list.get(current++);
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+      if (!hasNext())
+        throw new NoSuchElementException();
+      
+      lastIterator = bucketIterator;
+      return bucketIterator.next();
     }
     @Override
     public void remove() {
+      if (lastIterator == null)
+        throw new IllegalStateException();
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+      
+      lastIterator.remove();
+      lastIterator = null;
+      size--;
+      expectedModCount = ++modCount;
     }
   }  
   
+  @Override
+  public Spliterator<E> spliterator() {
+    finishMigration();
+    return new MyHashSetSpliterator(0, capacity, size, modCount, true);
+  }
+  
+  // Splits the bucket array in halves so that parallel streams can walk
+  // disjoint ranges of the table
+  private class MyHashSetSpliterator implements Spliterator<E> {
+    private int bucketIndex;
+    private int fence;
+    private long estimatedSize;
+    private final int expectedModCount;
+    private boolean exactSize;
+    private java.util.Iterator<E> bucketIterator;
+    
+    MyHashSetSpliterator(int bucketIndex, int fence, long estimatedSize,
+        int expectedModCount, boolean exactSize) {
+      this.bucketIndex = bucketIndex;
+      this.fence = fence;
+      this.estimatedSize = estimatedSize;
+      this.expectedModCount = expectedModCount;
+      this.exactSize = exactSize;
+    }
+    @Override
+    public boolean tryAdvance(java.util.function.Consumer<? super E> action) {
+      while (bucketIterator == null || !bucketIterator.hasNext()) {
+        if (bucketIndex >= fence)
+          return false;
+        
+        LinkedList<E> bucket = table[bucketIndex++];
+        bucketIterator = bucket == null ? null : bucket.iterator();
+      }
+      
+      exactSize = false;
+      action.accept(bucketIterator.next());
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+      return true;
+    }
+    @Override
+    public Spliterator<E> trySplit() {
+      int mid = (bucketIndex + fence) >>> 1;
+      if (mid <= bucketIndex)
+        return null;
+      
+      exactSize = false;
+      estimatedSize >>>= 1;
+      int start = bucketIndex;
+      bucketIndex = mid;
+      return new MyHashSetSpliterator(start, mid, estimatedSize,
+        expectedModCount, false);
+    }
+    @Override
+    public long estimateSize() {
+      return estimatedSize;
+    }
+    @Override
+    public int characteristics() {
+      return exactSize ? Spliterator.DISTINCT | Spliterator.SIZED
+        : Spliterator.DISTINCT;
+    }
+  }
+  
   private int hash(int hashCode) {
-    return hashCode & (capacity - 1);
+    return hash(hashCode, capacity);
+  }
+  
+  private int hash(int hashCode, int capacity) {
+    return hashStrategy.hash(hashCode) & (capacity - 1);
   }
   private int trimToPowerOf2(int initialCapacity) {
     int capacity = 1;
@@ -127,6 +267,37 @@ public class MyHashSet<E> implements Collection<E> {
     return capacity;
   }
   
+  public void setStatsEnabled(boolean enabled) {
+    if (!enabled)
+      stats = null;
+    else if (stats == null)
+      stats = new HashTableStats();
+  }
+  
+  // Counts the bucket lengths of the table, so it costs one pass over the
+  // buckets; returns null when stats are not enabled
+  public HashTableStats.Snapshot getStats() {
+    if (stats == null)
+      return null;
+    
+    int[] bucketLengths = new int[16];
+    for (int i = 0; i < capacity; i++)
+      bucketLengths = HashTableStats.countBucket(bucketLengths,
+        bucketSize(table, i));
+    // Buckets still waiting in the old table are searched as well
+    if (oldTable != null)
+      for (int i = migrationIndex; i < oldTable.length; i++)
+        if (bucketSize(oldTable, i) > 0)
+          bucketLengths = HashTableStats.countBucket(bucketLengths,
+            bucketSize(oldTable, i));
+    
+    return stats.snapshot(size, capacity, bucketLengths);
+  }
+  
+  private static <E> int bucketSize(LinkedList<E>[] table, int i) {
+    return table[i] == null ? 0 : table[i].size();
+  }
+  
   private void removeElements() {
     for (int i = 0; i < capacity; i++) {
       if (table[i] != null) {
@@ -136,42 +307,73 @@ public class MyHashSet<E> implements Collection<E> {
   }
   
   private void rehash() {
-    java.util.ArrayList<E> list = setToList();
+    finishMigration();
+    long startTime = stats == null ? 0 : System.nanoTime();
+    if (stats != null)
+      stats.recordRehash(size, capacity);
+    oldTable = table;
+    migrationIndex = 0;
     capacity <<= 1;
     table = new LinkedList[capacity];
-    size = 0;
+    if (stats != null)
+      stats.addRehashNanos(System.nanoTime() - startTime);
     
-    for (E element: list) {
-      add(element);
-    }
+    if (!incrementalRehash)
+      finishMigration();
   }
-  private java.util.ArrayList<E> setToList() {
-    java.util.ArrayList<E> list = new java.util.ArrayList<>();
+  
+  private void migrateBuckets() {
+    if (oldTable == null)
+      return;
     
-    for (int i = 0; i < capacity; i++) {
-      if (table[i] != null) {
-        for (E e: table[i]) {
-          list.add(e);
-        }
-      }
-    }  
+    long startTime = stats == null ? 0 : System.nanoTime();
+    int end = Math.min(migrationIndex + MIGRATION_STEP, oldTable.length);
+    while (migrationIndex < end)
+      transferBucket(migrationIndex++);
+    if (stats != null)
+      stats.addRehashNanos(System.nanoTime() - startTime);
+    
+    if (migrationIndex == oldTable.length)
+      oldTable = null;
+  }
+  
+  private void finishMigration() {
+    if (oldTable == null)
+      return;
     
-    return list;
+    long startTime = stats == null ? 0 : System.nanoTime();
+    while (migrationIndex < oldTable.length)
+      transferBucket(migrationIndex++);
+    if (stats != null)
+      stats.addRehashNanos(System.nanoTime() - startTime);
+    oldTable = null;
   }
+  
+  private void transferBucket(int i) {
+    LinkedList<E> bucket = oldTable[i];
+    if (bucket == null)
+      return;
+    
+    for (E e: bucket) {
+      int bucketIndex = hash(e.hashCode());
+      if (table[bucketIndex] == null)
+        table[bucketIndex] = new LinkedList<E>();
+      table[bucketIndex].add(e);
+    }
+    oldTable[i] = null;
+  }
+  
   @Override
   public String toString() {
-    java.util.ArrayList<E> list = setToList();
     StringBuilder builder = new StringBuilder("[");
     
-    for (int i = 0; i < list.size() - 1; i++) {
-      builder.append(list.get(i) + ", ");
+    for (E e: this) {
+      if (builder.length() > 1)
+        builder.append(", ");
+      builder.append(e);
     }
     
-    if (list.size() == 0)
-      builder.append("]");
-    else
-      builder.append(list.get(list.size() - 1) + "]");
-    
+    builder.append("]");
     return builder.toString();
   }
   @Override
@@ -9,7 +9,66 @@ public interface MyMap<K, V> {
   public V put(K key, V value);
   public void remove(K key);
   public int size();
-  public java.util.Set<V> values();
+  public java.util.Collection<V> values();
+  
+  public default V getOrDefault(K key, V defaultValue) {
+    V value = get(key);
+    return value != null ? value : defaultValue;
+  }
+  
+  public default V computeIfAbsent(K key,
+      java.util.function.Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+    if (value == null) {
+      value = mappingFunction.apply(key);
+      if (value != null)
+        put(key, value);
+    }
+    
+    return value;
+  }
+  
+  public default V computeIfPresent(K key, java.util.function.BiFunction<
+      ? super K, ? super V, ? extends V> remappingFunction) {
+    V oldValue = get(key);
+    if (oldValue == null)
+      return null;
+    
+    V newValue = remappingFunction.apply(key, oldValue);
+    if (newValue == null)
+      remove(key);
+    else
+      put(key, newValue);
+    
+    return newValue;
+  }
+  
+  public default V compute(K key, java.util.function.BiFunction<
+      ? super K, ? super V, ? extends V> remappingFunction) {
+    V oldValue = get(key);
+    V newValue = remappingFunction.apply(key, oldValue);
+    if (newValue == null) {
+      if (oldValue != null)
+        remove(key);
+    }
+    else
+      put(key, newValue);
+    
+    return newValue;
+  }
+  
+  public default V merge(K key, V value, java.util.function.BiFunction<
+      ? super V, ? super V, ? extends V> remappingFunction) {
+    V oldValue = get(key);
+    V newValue = oldValue == null ? value :
+      remappingFunction.apply(oldValue, value);
+    if (newValue == null)
+      remove(key);
+    else
+      put(key, newValue);
+    
+    return newValue;
+  }
   
   public static class Entry<K, V> {
     K key;
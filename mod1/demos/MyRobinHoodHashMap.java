@@ -0,0 +1,250 @@
+public class MyRobinHoodHashMap<K, V> implements MyMap<K, V> {
+  private final static int DEFAULT_INITIAL_CAPACITY = 4;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private int capacity;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private float loadFactorThreshold;
+
+  private int size = 0;
+  // hashes[i] == 0 marks an empty slot; occupied slots keep the
+  // supplemental hash with the sign bit set so it is never 0
+  private int[] hashes;
+  private K[] keys;
+  private V[] values;
+
+  public MyRobinHoodHashMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public MyRobinHoodHashMap(int initialCapacity) {
+    this(initialCapacity, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public MyRobinHoodHashMap(int initialCapacity, float loadFactorThreshold) {
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      this.capacity = MAXIMUM_CAPACITY;
+    else
+      this.capacity = trimToPowerOf2(initialCapacity);
+
+    this.loadFactorThreshold = loadFactorThreshold;
+    allocate(capacity);
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    java.util.Arrays.fill(hashes, 0);
+    java.util.Arrays.fill(keys, null);
+    java.util.Arrays.fill(values, null);
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(V value) {
+    for (int i = 0; i < capacity; i++)
+      if (hashes[i] != 0 && values[i].equals(value))
+        return true;
+
+    return false;
+  }
+
+  @Override
+  public java.util.Set<MyMap.Entry<K,V>> entrySet() {
+    java.util.Set<MyMap.Entry<K, V>> set =
+      new java.util.HashSet<>();
+
+    for (int i = 0; i < capacity; i++)
+      if (hashes[i] != 0)
+        set.add(new MyMap.Entry<K, V>(keys[i], values[i]));
+
+    return set;
+  }
+
+  @Override
+  public V get(K key) {
+    int index = indexOf(key);
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public java.util.Set<K> keySet() {
+    java.util.Set<K> set = new java.util.HashSet<>();
+
+    for (int i = 0; i < capacity; i++)
+      if (hashes[i] != 0)
+        set.add(keys[i]);
+
+    return set;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      V oldValue = values[index];
+      values[index] = value;
+      return oldValue;
+    }
+
+    if (size >= capacity * loadFactorThreshold || size + 1 >= capacity) {
+      if (capacity == MAXIMUM_CAPACITY)
+        throw new RuntimeException("Exceeding maximum capacity");
+
+      rehash();
+    }
+
+    insert(hash(key.hashCode()), key, value);
+    size++;
+
+    return value;
+  }
+
+  @Override
+  public void remove(K key) {
+    int index = indexOf(key);
+    if (index < 0)
+      return;
+
+    // Backward-shift deletion: pull every displaced successor one slot
+    // closer to its home so no tombstone is left behind
+    int mask = capacity - 1;
+    int next = (index + 1) & mask;
+    while (hashes[next] != 0 && probeDistance(hashes[next], next) > 0) {
+      hashes[index] = hashes[next];
+      keys[index] = keys[next];
+      values[index] = values[next];
+      index = next;
+      next = (next + 1) & mask;
+    }
+
+    hashes[index] = 0;
+    keys[index] = null;
+    values[index] = null;
+    size--;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public java.util.Set<V> values() {
+    java.util.Set<V> set = new java.util.HashSet<>();
+
+    for (int i = 0; i < capacity; i++)
+      if (hashes[i] != 0)
+        set.add(values[i]);
+
+    return set;
+  }
+
+  private int indexOf(K key) {
+    int h = hash(key.hashCode());
+    int mask = capacity - 1;
+    int index = h & mask;
+
+    // A slot whose resident is closer to home than we already are ends
+    // the search: Robin Hood insertion would have placed the key there
+    for (int distance = 0; hashes[index] != 0 &&
+        probeDistance(hashes[index], index) >= distance; distance++) {
+      if (hashes[index] == h && keys[index].equals(key))
+        return index;
+      index = (index + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  private void insert(int h, K key, V value) {
+    int mask = capacity - 1;
+    int index = h & mask;
+    int distance = 0;
+
+    while (hashes[index] != 0) {
+      int residentDistance = probeDistance(hashes[index], index);
+      if (residentDistance < distance) {
+        int tempHash = hashes[index];
+        K tempKey = keys[index];
+        V tempValue = values[index];
+        hashes[index] = h;
+        keys[index] = key;
+        values[index] = value;
+        h = tempHash;
+        key = tempKey;
+        value = tempValue;
+        distance = residentDistance;
+      }
+
+      index = (index + 1) & mask;
+      distance++;
+    }
+
+    hashes[index] = h;
+    keys[index] = key;
+    values[index] = value;
+  }
+
+  private int probeDistance(int h, int index) {
+    return (index - h) & (capacity - 1);
+  }
+
+  private int hash(int hashCode) {
+    return supplementalHash(hashCode) | 0x80000000;
+  }
+
+  private static int supplementalHash(int h) {
+    h ^= (h >>> 20) ^ (h >>> 12);
+    return h ^ (h >>> 7) ^ (h >>> 4);
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    hashes = new int[capacity];
+    keys = (K[])new Object[capacity];
+    values = (V[])new Object[capacity];
+  }
+
+  private void rehash() {
+    int[] oldHashes = hashes;
+    K[] oldKeys = keys;
+    V[] oldValues = values;
+    capacity <<= 1;
+    allocate(capacity);
+
+    for (int i = 0; i < oldHashes.length; i++) {
+      if (oldHashes[i] != 0)
+        insert(oldHashes[i], oldKeys[i], oldValues[i]);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < capacity; i++) {
+      if (hashes[i] != 0)
+        builder.append("[" + keys[i] + ", " + values[i] + "]");
+    }
+
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,500 @@
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Keys and values are encoded by fixed-width codecs into slots of direct
+// ByteBuffers, so the heap holds only the page array no matter how many
+// entries the map has. A slot is laid out as
+//   [int hash][key bytes][value bytes]
+// where hash == 0 marks an empty slot and occupied slots keep the hash of
+// the key bytes with the sign bit set
+public class OffHeapHashMap<K, V> implements MyMap<K, V>, AutoCloseable {
+  private final static int DEFAULT_INITIAL_CAPACITY = 16;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private final static int MAXIMUM_PAGE_BYTES = 1 << 30;
+  private final static int HASH_BYTES = Integer.BYTES;
+  // A snapshot file is a header followed by the pages exactly as they
+  // are laid out in memory
+  private final static int SNAPSHOT_MAGIC = 0x48534e50;
+  private final static int SNAPSHOT_VERSION = 1;
+  private final static int SNAPSHOT_HEADER_BYTES = 32;
+  private int capacity;
+  private float loadFactorThreshold;
+
+  private final FixedWidthCodec<K> keyCodec;
+  private final FixedWidthCodec<V> valueCodec;
+  private final int keyWidth;
+  private final int valueWidth;
+  private final int slotWidth;
+
+  private int size = 0;
+  private ByteBuffer[] pages;
+  private int pageShift;
+  private boolean readOnly;
+  // The key of the current operation is encoded once into keyScratch and
+  // compared against the slots byte by byte
+  private final ByteBuffer keyScratch;
+  private int scratchHash;
+  private final ByteBuffer valueScratch;
+
+  public OffHeapHashMap(FixedWidthCodec<K> keyCodec,
+      FixedWidthCodec<V> valueCodec) {
+    this(keyCodec, valueCodec, DEFAULT_INITIAL_CAPACITY,
+      DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public OffHeapHashMap(FixedWidthCodec<K> keyCodec,
+      FixedWidthCodec<V> valueCodec, int initialCapacity) {
+    this(keyCodec, valueCodec, initialCapacity, DEFAULT_MAX_LOAD_FACTOR);
+  }
+
+  public OffHeapHashMap(FixedWidthCodec<K> keyCodec,
+      FixedWidthCodec<V> valueCodec, int initialCapacity,
+      float loadFactorThreshold) {
+    this(keyCodec, valueCodec, loadFactorThreshold);
+
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      this.capacity = MAXIMUM_CAPACITY;
+    else
+      this.capacity = trimToPowerOf2(initialCapacity);
+
+    pages = allocatePages(capacity);
+  }
+
+  private OffHeapHashMap(FixedWidthCodec<K> keyCodec,
+      FixedWidthCodec<V> valueCodec, float loadFactorThreshold) {
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.keyWidth = keyCodec.width();
+    this.valueWidth = valueCodec.width();
+    this.slotWidth = HASH_BYTES + keyWidth + valueWidth;
+    this.keyScratch = ByteBuffer.allocate(keyWidth);
+    this.valueScratch = ByteBuffer.allocate(valueWidth);
+    this.loadFactorThreshold = loadFactorThreshold;
+  }
+
+  // Copies any map, e.g. a MyHashMap, into the off-heap layout so that it
+  // can be saved as a snapshot
+  public static <K, V> OffHeapHashMap<K, V> copyOf(MyMap<K, V> map,
+      FixedWidthCodec<K> keyCodec, FixedWidthCodec<V> valueCodec) {
+    OffHeapHashMap<K, V> copy = new OffHeapHashMap<>(keyCodec, valueCodec,
+      (int)Math.min(MAXIMUM_CAPACITY,
+        (long)(map.size() / DEFAULT_MAX_LOAD_FACTOR) + 1));
+    for (MyMap.Entry<K, V> entry: map.entrySet())
+      copy.put(entry.getKey(), entry.getValue());
+    return copy;
+  }
+
+  // Writes the header and then every page byte for byte, so loading the
+  // file needs no rehashing and no decoding
+  public void save(Path file) throws java.io.IOException {
+    checkOpen();
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+      header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION)
+        .putInt(keyWidth).putInt(valueWidth)
+        .putInt(capacity).putInt(size).putInt(pageShift)
+        .putFloat(loadFactorThreshold);
+      header.flip();
+      writeFully(channel, header);
+
+      for (ByteBuffer page: pages)
+        writeFully(channel, page.duplicate().clear());
+    }
+  }
+
+  // Maps the pages of a snapshot file read-only. Lookups are served from
+  // the mapping, so only the slots that are touched are ever read from disk.
+  // put, remove and clear throw UnsupportedOperationException
+  public static <K, V> OffHeapHashMap<K, V> load(Path file,
+      FixedWidthCodec<K> keyCodec, FixedWidthCodec<V> valueCodec)
+      throws java.io.IOException {
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+      while (header.hasRemaining())
+        if (channel.read(header) < 0)
+          throw new java.io.IOException("Truncated snapshot " + file);
+      header.flip();
+
+      if (header.getInt() != SNAPSHOT_MAGIC ||
+          header.getInt() != SNAPSHOT_VERSION)
+        throw new java.io.IOException("Not a hash map snapshot " + file);
+      if (header.getInt() != keyCodec.width() ||
+          header.getInt() != valueCodec.width())
+        throw new java.io.IOException(
+          "Snapshot " + file + " was written with other codecs");
+
+      int capacity = header.getInt();
+      int size = header.getInt();
+      int pageShift = header.getInt();
+      if (capacity <= 0 || (capacity & (capacity - 1)) != 0 ||
+          pageShift < 0 || pageShift >= 31 || capacity < 1 << pageShift ||
+          size < 0 || size >= capacity)
+        throw new java.io.IOException("Corrupt snapshot header " + file);
+      OffHeapHashMap<K, V> map = new OffHeapHashMap<>(keyCodec, valueCodec,
+        header.getFloat());
+
+      long pageBytes = (long)map.slotWidth << pageShift;
+      long expectedBytes = SNAPSHOT_HEADER_BYTES + (long)capacity *
+        map.slotWidth;
+      if (channel.size() != expectedBytes)
+        throw new java.io.IOException("Truncated snapshot " + file);
+
+      ByteBuffer[] pages = new ByteBuffer[capacity >>> pageShift];
+      for (int i = 0; i < pages.length; i++)
+        pages[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+          SNAPSHOT_HEADER_BYTES + i * pageBytes, pageBytes);
+
+      map.capacity = capacity;
+      map.size = size;
+      map.pageShift = pageShift;
+      map.pages = pages;
+      map.readOnly = true;
+      return map;
+    }
+  }
+
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  // Releases the direct memory right away instead of waiting for the
+  // buffers to be collected; the map cannot be used afterwards
+  @Override
+  public void close() {
+    if (pages != null) {
+      freePages(pages);
+      pages = null;
+      size = 0;
+    }
+  }
+
+  @Override
+  public void clear() {
+    checkWritable();
+    ByteBuffer[] oldPages = pages;
+    pages = allocatePages(capacity);
+    freePages(oldPages);
+    size = 0;
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(V value) {
+    checkOpen();
+    valueCodec.write(value, valueScratch, 0);
+
+    for (long slot = 0; slot < capacity; slot++) {
+      ByteBuffer page = page(slot);
+      int offset = offset(slot);
+      if (page.getInt(offset) != 0 && equalBytes(page,
+          offset + HASH_BYTES + keyWidth, valueScratch, valueWidth))
+        return true;
+    }
+
+    return false;
+  }
+
+  // The entries are decoded onto the heap, so this copies the whole map
+  @Override
+  public java.util.Set<MyMap.Entry<K, V>> entrySet() {
+    java.util.Set<MyMap.Entry<K, V>> set = new java.util.HashSet<>();
+    forEachSlot((page, offset) -> set.add(new MyMap.Entry<K, V>(
+      keyCodec.read(page, offset + HASH_BYTES),
+      valueCodec.read(page, offset + HASH_BYTES + keyWidth))));
+    return set;
+  }
+
+  @Override
+  public V get(K key) {
+    long slot = indexOf(key);
+    if (slot < 0)
+      return null;
+
+    return valueCodec.read(page(slot), offset(slot) + HASH_BYTES + keyWidth);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public java.util.Set<K> keySet() {
+    java.util.Set<K> set = new java.util.HashSet<>();
+    forEachSlot((page, offset) ->
+      set.add(keyCodec.read(page, offset + HASH_BYTES)));
+    return set;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    checkWritable();
+    long slot = indexOf(key);
+    if (slot >= 0) {
+      ByteBuffer page = page(slot);
+      int valueOffset = offset(slot) + HASH_BYTES + keyWidth;
+      V oldValue = valueCodec.read(page, valueOffset);
+      valueCodec.write(value, page, valueOffset);
+      return oldValue;
+    }
+
+    if (size >= capacity * loadFactorThreshold || size + 1 >= capacity) {
+      if (capacity == MAXIMUM_CAPACITY)
+        throw new RuntimeException("Exceeding maximum capacity");
+
+      rehash();
+    }
+
+    int hash = scratchHash;
+    long mask = capacity - 1;
+    slot = hash & mask;
+    while (page(slot).getInt(offset(slot)) != 0)
+      slot = (slot + 1) & mask;
+
+    ByteBuffer page = page(slot);
+    int offset = offset(slot);
+    page.putInt(offset, hash);
+    copyBytes(keyScratch, 0, page, offset + HASH_BYTES, keyWidth);
+    valueCodec.write(value, page, offset + HASH_BYTES + keyWidth);
+    size++;
+
+    return value;
+  }
+
+  @Override
+  public void remove(K key) {
+    checkWritable();
+    long slot = indexOf(key);
+    if (slot < 0)
+      return;
+
+    shiftSlots(slot);
+    size--;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public java.util.Collection<V> values() {
+    java.util.List<V> list = new java.util.ArrayList<>();
+    forEachSlot((page, offset) ->
+      list.add(valueCodec.read(page, offset + HASH_BYTES + keyWidth)));
+    return list;
+  }
+
+  public long getOffHeapBytes() {
+    return (long)capacity * slotWidth;
+  }
+
+  private long indexOf(K key) {
+    checkOpen();
+    keyCodec.write(key, keyScratch, 0);
+    int hash = scratchHash = hashKey();
+
+    long mask = capacity - 1;
+    long slot = hash & mask;
+    while (true) {
+      ByteBuffer page = page(slot);
+      int offset = offset(slot);
+      int stored = page.getInt(offset);
+      if (stored == 0)
+        return -1;
+      if (stored == hash &&
+          equalBytes(page, offset + HASH_BYTES, keyScratch, keyWidth))
+        return slot;
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  // Linear-probing deletion: move later slots of the same cluster back
+  // into the hole unless that would place them before their home slot
+  private void shiftSlots(long slot) {
+    long mask = capacity - 1;
+    while (true) {
+      long last = slot;
+      slot = (slot + 1) & mask;
+      int hash;
+      while (true) {
+        if ((hash = page(slot).getInt(offset(slot))) == 0) {
+          page(last).putInt(offset(last), 0);
+          return;
+        }
+
+        long home = hash & mask;
+        if (last <= slot ? last >= home || home > slot
+            : last >= home && home > slot)
+          break;
+        slot = (slot + 1) & mask;
+      }
+
+      copyBytes(page(slot), offset(slot), page(last), offset(last),
+        slotWidth);
+    }
+  }
+
+  // FNV-1a over the encoded key followed by the murmur3 finalizer
+  private int hashKey() {
+    int h = 0x811c9dc5;
+    for (int i = 0; i < keyWidth; i++) {
+      h ^= keyScratch.get(i);
+      h *= 0x01000193;
+    }
+
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h | 0x80000000;
+  }
+
+  private static boolean equalBytes(ByteBuffer page, int offset,
+      ByteBuffer scratch, int length) {
+    int i = 0;
+    for (; i + Long.BYTES <= length; i += Long.BYTES)
+      if (page.getLong(offset + i) != scratch.getLong(i))
+        return false;
+    for (; i < length; i++)
+      if (page.get(offset + i) != scratch.get(i))
+        return false;
+
+    return true;
+  }
+
+  private static void copyBytes(ByteBuffer source, int sourceOffset,
+      ByteBuffer target, int targetOffset, int length) {
+    int i = 0;
+    for (; i + Long.BYTES <= length; i += Long.BYTES)
+      target.putLong(targetOffset + i, source.getLong(sourceOffset + i));
+    for (; i < length; i++)
+      target.put(targetOffset + i, source.get(sourceOffset + i));
+  }
+
+  private ByteBuffer page(long slot) {
+    return pages[(int)(slot >>> pageShift)];
+  }
+
+  private int offset(long slot) {
+    return (int)(slot & ((1L << pageShift) - 1)) * slotWidth;
+  }
+
+  // Every page holds a power-of-two number of slots and at most 1 GB
+  private ByteBuffer[] allocatePages(int capacity) {
+    int slotsPerPage = Integer.highestOneBit(MAXIMUM_PAGE_BYTES / slotWidth);
+    slotsPerPage = Math.min(slotsPerPage, capacity);
+    pageShift = Integer.numberOfTrailingZeros(slotsPerPage);
+
+    ByteBuffer[] pages = new ByteBuffer[capacity / slotsPerPage];
+    for (int i = 0; i < pages.length; i++)
+      pages[i] = ByteBuffer.allocateDirect(slotsPerPage * slotWidth);
+    return pages;
+  }
+
+  private void rehash() {
+    ByteBuffer[] oldPages = pages;
+    int oldPageShift = pageShift;
+    long oldCapacity = capacity;
+    capacity <<= 1;
+    pages = allocatePages(capacity);
+
+    long mask = capacity - 1;
+    long oldPageMask = (1L << oldPageShift) - 1;
+    for (long oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+      ByteBuffer oldPage = oldPages[(int)(oldSlot >>> oldPageShift)];
+      int oldOffset = (int)(oldSlot & oldPageMask) * slotWidth;
+      int hash = oldPage.getInt(oldOffset);
+      if (hash != 0) {
+        long slot = hash & mask;
+        while (page(slot).getInt(offset(slot)) != 0)
+          slot = (slot + 1) & mask;
+        copyBytes(oldPage, oldOffset, page(slot), offset(slot), slotWidth);
+      }
+    }
+
+    freePages(oldPages);
+  }
+
+  private void forEachSlot(
+      java.util.function.BiConsumer<ByteBuffer, Integer> action) {
+    checkOpen();
+    for (long slot = 0; slot < capacity; slot++) {
+      ByteBuffer page = page(slot);
+      int offset = offset(slot);
+      if (page.getInt(offset) != 0)
+        action.accept(page, offset);
+    }
+  }
+
+  private void checkOpen() {
+    if (pages == null)
+      throw new IllegalStateException("Map is closed");
+  }
+
+  private void checkWritable() {
+    checkOpen();
+    if (readOnly)
+      throw new UnsupportedOperationException("Map is a read-only snapshot");
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer)
+      throws java.io.IOException {
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  private static void freePages(ByteBuffer[] pages) {
+    for (ByteBuffer page: pages)
+      free(page);
+  }
+
+  // Direct and mapped buffers are normally released only when they are
+  // garbage collected. sun.misc.Unsafe.invokeCleaner frees or unmaps them
+  // immediately; if it is not available the buffer is left to the collector
+  static void free(ByteBuffer buffer) {
+    if (!buffer.isDirect())
+      return;
+
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      java.lang.reflect.Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafeClass.getMethod("invokeCleaner", ByteBuffer.class)
+        .invoke(field.get(null), buffer);
+    }
+    catch (Exception ex) {
+      // Fall back to garbage collection
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    forEachSlot((page, offset) -> builder.append("[" +
+      keyCodec.read(page, offset + HASH_BYTES) + ", " +
+      valueCodec.read(page, offset + HASH_BYTES + keyWidth) + "]"));
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Counts the keywords in every source file under a directory. The files
+// are scanned in parallel, each one straight from its bytes: large files
+// are memory-mapped and small ones read whole, and a state machine picks
+// out the identifiers while skipping comments, string, character and
+// text block literals and numbers. An identifier is looked up in a
+// PerfectHashSet without making a String, and every worker counts into
+// its own array, indexed by the keyword's slot, until the arrays are
+// added up at the end
+public class ParallelKeywordScanner {
+  // Mapping a file costs a system call and a page fault per page, which
+  // for small files is more than reading them
+  private final static int MAP_THRESHOLD = 64 * 1024;
+
+  private final static String[] JAVA_KEYWORDS = {"abstract", "assert",
+    "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+    "continue", "default", "do", "double", "else", "enum",
+    "extends", "for", "final", "finally", "float", "goto",
+    "if", "implements", "import", "instanceof", "int",
+    "interface", "long", "native", "new", "package", "private",
+    "protected", "public", "return", "short", "static",
+    "strictfp", "super", "switch", "synchronized", "this",
+    "throw", "throws", "transient", "try", "void", "volatile",
+    "while", "true", "false", "null"};
+
+  // States of the tokenizer
+  private final static int CODE = 0;
+  private final static int IDENTIFIER = 1;
+  private final static int NUMBER = 2;
+  private final static int LINE_COMMENT = 3;
+  private final static int BLOCK_COMMENT = 4;
+  private final static int STRING = 5;
+  private final static int CHARACTER = 6;
+  private final static int TEXT_BLOCK = 7;
+
+  private final PerfectHashSet keywords;
+  private final int maximumKeywordLength;
+  private java.util.function.Predicate<Path> fileFilter =
+    path -> path.toString().endsWith(".java");
+
+  public ParallelKeywordScanner() {
+    this(new PerfectHashSet(JAVA_KEYWORDS));
+  }
+
+  // The keywords must be ASCII, as identifiers are matched byte by byte
+  public ParallelKeywordScanner(PerfectHashSet keywords) {
+    this.keywords = keywords;
+    int length = 0;
+    for (String keyword: keywords)
+      length = Math.max(length, keyword.length());
+    this.maximumKeywordLength = length;
+  }
+
+  // Chooses the files to scan; by default those ending in .java
+  public void setFileFilter(java.util.function.Predicate<Path> fileFilter) {
+    this.fileFilter = fileFilter;
+  }
+
+  public Report scan(Path root) throws IOException {
+    java.util.List<Path> files;
+    try (java.util.stream.Stream<Path> paths = Files.walk(root)) {
+      files = paths.filter(Files::isRegularFile).filter(fileFilter)
+        .collect(java.util.stream.Collectors.toList());
+    }
+
+    // A list splits evenly across the workers, unlike the stream of
+    // Files.walk
+    long[] totals = files.parallelStream().collect(
+      () -> new long[keywords.size() + 1],
+      (counts, file) -> counts[keywords.size()] += scanFile(file, counts),
+      (counts1, counts2) -> {
+        for (int i = 0; i < counts1.length; i++)
+          counts1[i] += counts2[i];
+      });
+
+    return new Report(files.size(), totals[keywords.size()],
+      java.util.Arrays.copyOf(totals, keywords.size()));
+  }
+
+  // Adds the keywords of file to counts and returns its length
+  private long scanFile(Path file, long[] counts) {
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < MAP_THRESHOLD) {
+        ByteBuffer buffer = ByteBuffer.allocate((int)length);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+        buffer.flip();
+        scan(buffer, counts);
+        return length;
+      }
+
+      // Unmap right away, as a large tree would otherwise hold a mapping
+      // per file until the collector runs and could reach the limit on
+      // mappings per process
+      ByteBuffer buffer =
+        channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      try {
+        scan(buffer, counts);
+      }
+      finally {
+        OffHeapHashMap.free(buffer);
+      }
+      return length;
+    }
+    catch (IOException ex) {
+      throw new java.io.UncheckedIOException(file.toString(), ex);
+    }
+  }
+
+  // Adds the keywords in buffer, from its position to its limit, to
+  // counts. Only ASCII letters, digits, _ and $ and the bytes of non-ASCII
+  // UTF-8 characters form identifiers, which is enough to tell keywords
+  // apart from the rest
+  public void scan(ByteBuffer buffer, long[] counts) {
+    byte[] identifier = new byte[maximumKeywordLength];
+    int identifierLength = 0;
+    int state = CODE;
+    int end = buffer.limit();
+
+    for (int i = buffer.position(); i < end; i++) {
+      int b = buffer.get(i);
+      switch (state) {
+        case IDENTIFIER:
+          if (isIdentifierPart(b)) {
+            if (identifierLength < identifier.length)
+              identifier[identifierLength] = (byte)b;
+            identifierLength++;
+            continue;
+          }
+          if (identifierLength <= identifier.length) {
+            int slot = keywords.indexOf(identifier, 0, identifierLength);
+            if (slot >= 0)
+              counts[slot]++;
+          }
+          state = CODE;
+          break;
+        case NUMBER:
+          // Covers 0x1F, 1e10 and 1_000L; a sign or dot after it is
+          // handled as code, which has no identifiers to find
+          if (isIdentifierPart(b))
+            continue;
+          state = CODE;
+          break;
+        case LINE_COMMENT:
+          if (b == '\n')
+            state = CODE;
+          continue;
+        case BLOCK_COMMENT:
+          if (b == '*' && i + 1 < end && buffer.get(i + 1) == '/') {
+            i++;
+            state = CODE;
+          }
+          continue;
+        case STRING:
+        case CHARACTER:
+          if (b == '\\')
+            i++;
+          else if (b == (state == STRING ? '"' : '\'') || b == '\n')
+            state = CODE;
+          continue;
+        case TEXT_BLOCK:
+          if (b == '\\')
+            i++;
+          else if (b == '"' && i + 2 < end && buffer.get(i + 1) == '"' &&
+              buffer.get(i + 2) == '"') {
+            i += 2;
+            state = CODE;
+          }
+          continue;
+      }
+
+      // state is CODE: b may start a new token
+      if (isIdentifierPart(b)) {
+        if (b >= '0' && b <= '9')
+          state = NUMBER;
+        else {
+          state = IDENTIFIER;
+          identifier[0] = (byte)b;
+          identifierLength = 1;
+        }
+      }
+      else if (b == '/' && i + 1 < end && buffer.get(i + 1) == '/') {
+        i++;
+        state = LINE_COMMENT;
+      }
+      else if (b == '/' && i + 1 < end && buffer.get(i + 1) == '*') {
+        i++;
+        state = BLOCK_COMMENT;
+      }
+      else if (b == '"') {
+        if (i + 2 < end && buffer.get(i + 1) == '"' &&
+            buffer.get(i + 2) == '"') {
+          i += 2;
+          state = TEXT_BLOCK;
+        }
+        else
+          state = STRING;
+      }
+      else if (b == '\'')
+        state = CHARACTER;
+    }
+
+    if (state == IDENTIFIER && identifierLength <= identifier.length) {
+      int slot = keywords.indexOf(identifier, 0, identifierLength);
+      if (slot >= 0)
+        counts[slot]++;
+    }
+  }
+
+  private static boolean isIdentifierPart(int b) {
+    return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') ||
+      (b >= '0' && b <= '9') || b == '_' || b == '$' || b < 0;
+  }
+
+  public PerfectHashSet getKeywords() {
+    return keywords;
+  }
+
+  public class Report {
+    private final int files;
+    private final long bytes;
+    private final long[] counts;
+
+    private Report(int files, long bytes, long[] counts) {
+      this.files = files;
+      this.bytes = bytes;
+      this.counts = counts;
+    }
+
+    public int getFileCount() {
+      return files;
+    }
+
+    public long getByteCount() {
+      return bytes;
+    }
+
+    public long getCount(String keyword) {
+      int slot = keywords.indexOf(keyword);
+      return slot < 0 ? 0 : counts[slot];
+    }
+
+    public long getTotalCount() {
+      long total = 0;
+      for (long count: counts)
+        total += count;
+      return total;
+    }
+
+    // The keywords that occur, most frequent first
+    @Override
+    public String toString() {
+      Integer[] slots = new Integer[counts.length];
+      for (int i = 0; i < slots.length; i++)
+        slots[i] = i;
+      java.util.Arrays.sort(slots, (s1, s2) ->
+        Long.compare(counts[s2], counts[s1]));
+
+      StringBuilder builder = new StringBuilder();
+      builder.append(getTotalCount() + " keywords in " + files +
+        " files of " + bytes + " bytes\n");
+      for (int slot: slots)
+        if (counts[slot] > 0)
+          builder.append(String.format("%-12s %10d%n", keywords.get(slot),
+            counts[slot]));
+      return builder.toString();
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    Path root = Paths.get(args.length > 0 ? args[0] : ".");
+    ParallelKeywordScanner scanner = new ParallelKeywordScanner();
+
+    long startTime = System.nanoTime();
+    Report report = scanner.scan(root);
+    System.out.print(report);
+    System.out.println("Scanned in " +
+      (System.nanoTime() - startTime) / 1000000 + " ms");
+  }
+}
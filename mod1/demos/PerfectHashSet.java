@@ -0,0 +1,221 @@
+// An immutable set of strings built with hash-and-displace, a minimal
+// perfect hash: the n keys go to n slots without any collision. The keys
+// are first spread over buckets of a few keys each, and every bucket gets
+// a displacement that moves its keys into slots that are still free,
+// largest buckets first. A lookup therefore hashes the key once and
+// compares it with the single key in its slot.
+//
+// Keys must be Latin-1 strings, so that a key and its bytes hash the same
+// and contains(byte[], int, int) can match raw ISO-8859-1 or ASCII text
+public class PerfectHashSet implements MySet<String> {
+  private final static int KEYS_PER_BUCKET = 2;
+  private final static int MAXIMUM_DISPLACEMENT = 1 << 20;
+  private final String[] keys;
+  // The Latin-1 bytes of keys[i], for contains(byte[], int, int)
+  private final byte[][] keyBytes;
+  private final int[] displacements;
+  private long seed;
+
+  public PerfectHashSet(String... keys) {
+    this(java.util.Arrays.asList(keys));
+  }
+
+  public PerfectHashSet(java.util.Collection<String> keys) {
+    java.util.Set<String> distinct = new java.util.LinkedHashSet<>(keys);
+    for (String key: distinct)
+      for (int i = 0; i < key.length(); i++)
+        if (key.charAt(i) > 0xFF)
+          throw new IllegalArgumentException("Not a Latin-1 key: " + key);
+
+    this.keys = new String[distinct.size()];
+    this.keyBytes = new byte[distinct.size()][];
+    this.displacements = new int[distinct.size() / KEYS_PER_BUCKET + 1];
+
+    // A seed may map two keys to the same hash or leave a bucket without a
+    // usable displacement; then the next seed is tried
+    java.util.Random random = new java.util.Random(distinct.size());
+    do {
+      seed = random.nextLong();
+    } while (!place(distinct.toArray(new String[0])));
+
+    for (int i = 0; i < this.keys.length; i++)
+      keyBytes[i] = this.keys[i].getBytes(
+        java.nio.charset.StandardCharsets.ISO_8859_1);
+  }
+
+  // Returns the slot of key, or -1 if it is not in the set
+  public int indexOf(CharSequence key) {
+    if (keys.length == 0)
+      return -1;
+
+    long h = seed;
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c > 0xFF)
+        return -1;
+      h = (h ^ c) * 0x100000001b3L;
+    }
+
+    int slot = slot(mix(h));
+    return keys[slot].contentEquals(key) ? slot : -1;
+  }
+
+  // Returns the slot of the Latin-1 encoded key in bytes[offset, offset +
+  // length), or -1 if it is not in the set
+  public int indexOf(byte[] bytes, int offset, int length) {
+    if (keys.length == 0)
+      return -1;
+
+    long h = seed;
+    for (int i = offset; i < offset + length; i++)
+      h = (h ^ (bytes[i] & 0xFF)) * 0x100000001b3L;
+
+    int slot = slot(mix(h));
+    byte[] candidate = keyBytes[slot];
+    return java.util.Arrays.equals(candidate, 0, candidate.length,
+      bytes, offset, offset + length) ? slot : -1;
+  }
+
+  public boolean contains(CharSequence key) {
+    return indexOf(key) >= 0;
+  }
+
+  public boolean contains(byte[] bytes, int offset, int length) {
+    return indexOf(bytes, offset, length) >= 0;
+  }
+
+  @Override
+  public boolean contains(String key) {
+    return indexOf(key) >= 0;
+  }
+
+  // The key in a slot returned by indexOf
+  public String get(int slot) {
+    return keys[slot];
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  @Override
+  public boolean add(String e) {
+    throw new UnsupportedOperationException("PerfectHashSet is immutable");
+  }
+
+  @Override
+  public boolean remove(String e) {
+    throw new UnsupportedOperationException("PerfectHashSet is immutable");
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("PerfectHashSet is immutable");
+  }
+
+  // Iterates over the keys in slot order
+  @Override
+  public java.util.Iterator<String> iterator() {
+    return java.util.Arrays.asList(keys).iterator();
+  }
+
+  private boolean place(String[] distinct) {
+    int n = distinct.length;
+    long[] hashes = new long[n];
+    java.util.List<java.util.List<Integer>> buckets = new java.util.ArrayList<>();
+    for (int b = 0; b < displacements.length; b++)
+      buckets.add(new java.util.ArrayList<Integer>());
+
+    for (int i = 0; i < n; i++) {
+      hashes[i] = mix(hash(distinct[i]));
+      buckets.get(bucket(hashes[i])).add(i);
+    }
+
+    Integer[] order = new Integer[displacements.length];
+    for (int b = 0; b < order.length; b++)
+      order[b] = b;
+    java.util.Arrays.sort(order, (b1, b2) ->
+      buckets.get(b2).size() - buckets.get(b1).size());
+
+    java.util.Arrays.fill(keys, null);
+    java.util.Arrays.fill(displacements, 0);
+    int[] slots = new int[KEYS_PER_BUCKET * 8];
+    for (int b: order) {
+      java.util.List<Integer> bucket = buckets.get(b);
+      if (bucket.isEmpty())
+        break;
+      if (bucket.size() > slots.length)
+        return false;
+
+      int d = 0;
+      while (!fits(bucket, hashes, d, slots))
+        if (++d == MAXIMUM_DISPLACEMENT)
+          return false;
+
+      displacements[b] = d;
+      for (int k = 0; k < bucket.size(); k++)
+        keys[slots[k]] = distinct[bucket.get(k)];
+    }
+
+    return true;
+  }
+
+  // Whether displacement d sends the keys of a bucket to distinct free
+  // slots, which are left in slots
+  private boolean fits(java.util.List<Integer> bucket, long[] hashes, int d,
+      int[] slots) {
+    for (int k = 0; k < bucket.size(); k++) {
+      slots[k] = slot(hashes[bucket.get(k)], d);
+      if (keys[slots[k]] != null)
+        return false;
+      for (int j = 0; j < k; j++)
+        if (slots[j] == slots[k])
+          return false;
+    }
+
+    return true;
+  }
+
+  private long hash(String key) {
+    long h = seed;
+    for (int i = 0; i < key.length(); i++)
+      h = (h ^ key.charAt(i)) * 0x100000001b3L;
+    return h;
+  }
+
+  // The high 32 bits pick the bucket and, after displacement, the low 32
+  // bits pick the slot. A 32-bit value x is reduced to [0, n) as x * n >>>
+  // 32, which avoids a division
+  private int bucket(long h) {
+    return (int)(((h >>> 32) * displacements.length) >>> 32);
+  }
+
+  private int slot(long h) {
+    return slot(h, displacements[bucket(h)]);
+  }
+
+  private int slot(long h, int d) {
+    long x = ((h ^ d * 0x9E3779B97F4A7C15L) * 0xbf58476d1ce4e5b9L) >>> 32;
+    return (int)((x * keys.length) >>> 32);
+  }
+
+  // The 64-bit finalizer of MurmurHash3
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+
+  @Override
+  public String toString() {
+    return java.util.Arrays.toString(keys);
+  }
+}
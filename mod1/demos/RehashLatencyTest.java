@@ -0,0 +1,67 @@
+// Run with a large young generation so that collector pauses do not hide
+// the rehash pauses, e.g.
+// java -Xms3g -Xmx3g -Xmn2g -XX:+UseParallelGC RehashLatencyTest
+public class RehashLatencyTest {
+  public static void main(String[] args) {
+    final int TEST_SIZE = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+
+    for (int i = 0; i < 2; i++) {
+      getMapLatency(new MyHashMap<Integer, Integer>(4, 0.75f, false), TEST_SIZE);
+      getMapLatency(new MyHashMap<Integer, Integer>(4, 0.75f, true), TEST_SIZE);
+    }
+
+    System.out.println("MyHashMap, stop-the-world rehash: " +
+      getMapLatency(new MyHashMap<Integer, Integer>(4, 0.75f, false),
+        TEST_SIZE));
+    System.out.println("MyHashMap, incremental rehash:    " +
+      getMapLatency(new MyHashMap<Integer, Integer>(4, 0.75f, true),
+        TEST_SIZE));
+    System.out.println("MyHashSet, stop-the-world rehash: " +
+      getSetLatency(new MyHashSet<Integer>(4, 0.75f, false), TEST_SIZE));
+    System.out.println("MyHashSet, incremental rehash:    " +
+      getSetLatency(new MyHashSet<Integer>(4, 0.75f, true), TEST_SIZE));
+  }
+
+  public static String getMapLatency(MyMap<Integer, Integer> map,
+      int testSize) {
+    long maxNanos = 0;
+    long startTime = System.nanoTime();
+
+    for (int i = 0; i < testSize; i++) {
+      long before = System.nanoTime();
+      map.put(i, i);
+      maxNanos = Math.max(maxNanos, System.nanoTime() - before);
+    }
+
+    long totalNanos = System.nanoTime() - startTime;
+    for (int i = 0; i < testSize; i++)
+      if (map.get(i) != i)
+        throw new IllegalStateException("Lost key " + i);
+
+    return report(totalNanos, maxNanos);
+  }
+
+  public static String getSetLatency(java.util.Collection<Integer> set,
+      int testSize) {
+    long maxNanos = 0;
+    long startTime = System.nanoTime();
+
+    for (int i = 0; i < testSize; i++) {
+      long before = System.nanoTime();
+      set.add(i);
+      maxNanos = Math.max(maxNanos, System.nanoTime() - before);
+    }
+
+    long totalNanos = System.nanoTime() - startTime;
+    for (int i = 0; i < testSize; i++)
+      if (!set.contains(i))
+        throw new IllegalStateException("Lost element " + i);
+
+    return report(totalNanos, maxNanos);
+  }
+
+  private static String report(long totalNanos, long maxNanos) {
+    return "total " + totalNanos / 1000000 + " ms, worst put " +
+      maxNanos / 1000 + " microseconds";
+  }
+}
@@ -0,0 +1,113 @@
+public class TestCompiledExpression {
+  public static void main(String[] args) {
+    // The same results as EvaluateExpression
+    String[] expressions = {"(1 + 2) * 4 - 3", "7 / 2 - 10 / (2 + 3) * 4",
+      "(((1 + 2))) * (3 - 5) / 2"};
+    for (String expression: expressions)
+      System.out.println(expression + " = " +
+        CompiledExpression.compile(expression).evaluateInt() +
+        ", EvaluateExpression: " +
+        EvaluateExpression.evaluateExpression(expression));
+
+    // Constant subexpressions are folded
+    CompiledExpression profit = CompiledExpression.compile(
+      "(price - cost) * quantity * (100 - 2 * 5) / 100", "price", "cost",
+      "quantity");
+    System.out.println("Program: " + profit + " (" +
+      profit.getProgramLength() + " instructions)");
+    System.out.println("price 30, cost 20, quantity 7: int " +
+      profit.evaluateInt(30, 20, 7) + ", long " +
+      profit.evaluateLong(30, 20, 7) +
+      ", double " + profit.evaluateDouble(30, 20, 7));
+    System.out.println("1.5 * 2 = " +
+      CompiledExpression.compile("1.5 * 2").evaluateDouble());
+    System.out.println("-x * -(2 - 5) at x = 4: " +
+      CompiledExpression.compile("-x * -(2 - 5)").evaluateInt(4));
+    System.out.println("Int overflow like Java: " +
+      CompiledExpression.compile("x * x / 2").evaluateInt(100000) + " " +
+      (100000 * 100000 / 2));
+    CompiledExpression large = CompiledExpression.compile("3000000000 + x");
+    System.out.println("3000000000 + x at x = 1: long " +
+      large.evaluateLong(1));
+    try {
+      large.evaluateInt(1);
+      System.out.println("No error for int");
+    }
+    catch (UnsupportedOperationException ex) {
+      System.out.println(ex.getMessage());
+    }
+
+    String[] wrong = {"1 +", "(1 + 2", "1 + 2)", "2 * / 3", "1.2.3 + x",
+      "x % 2"};
+    for (String expression: wrong)
+      try {
+        CompiledExpression.compile(expression);
+        System.out.println("No error for " + expression);
+      }
+      catch (IllegalArgumentException ex) {
+        System.out.println(ex.getMessage());
+      }
+
+    // Evaluate a formula over millions of rows
+    int rows = 4_000_000;
+    java.util.Random random = new java.util.Random(1);
+    double[] price = new double[rows];
+    double[] cost = new double[rows];
+    double[] quantity = new double[rows];
+    for (int i = 0; i < rows; i++) {
+      price[i] = 10 + random.nextInt(90);
+      cost[i] = random.nextInt(10);
+      quantity[i] = 1 + random.nextInt(20);
+    }
+    double[][] columns = {price, cost, quantity};
+    double[] result = new double[rows];
+    double[] expected = new double[rows];
+
+    for (int round = 0; round < 5; round++) {
+      long startTime = System.nanoTime();
+      for (int i = 0; i < rows; i++)
+        expected[i] = (price[i] - cost[i]) * quantity[i] * 90 / 100;
+      long javaTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      profit.evaluate(columns, result);
+      long columnTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < rows; i++)
+        result[i] = profit.evaluateDouble(price[i], cost[i], quantity[i]);
+      long rowTime = System.nanoTime() - startTime;
+
+      // EvaluateExpression parses the text again for every row, so it
+      // gets a tenth of the rows
+      startTime = System.nanoTime();
+      for (int i = 0; i < rows / 10; i++)
+        EvaluateExpression.evaluateExpression("(" + (int)price[i] + " - " +
+          (int)cost[i] + ") * " + (int)quantity[i] + " * (100 - 2 * 5) / 100");
+      long parseTime = (System.nanoTime() - startTime) * 10;
+
+      if (round == 4)
+        System.out.println(rows + " rows: Java code " + javaTime / 1000000 +
+          " ms, columns " + columnTime / 1000000 + " ms, row by row " +
+          rowTime / 1000000 + " ms, EvaluateExpression about " +
+          parseTime / 1000000 + " ms");
+    }
+    profit.evaluate(columns, result);
+    System.out.println("Same results? " +
+      java.util.Arrays.equals(expected, result));
+
+    long[][] longColumns = new long[3][rows];
+    for (int i = 0; i < rows; i++) {
+      longColumns[0][i] = (long)price[i];
+      longColumns[1][i] = (long)cost[i];
+      longColumns[2][i] = (long)quantity[i];
+    }
+    long[] longResult = new long[rows];
+    profit.evaluate(longColumns, longResult);
+    boolean same = true;
+    for (int i = 0; i < rows; i++)
+      same &= longResult[i] == profit.evaluateLong(longColumns[0][i],
+        longColumns[1][i], longColumns[2][i]);
+    System.out.println("Long columns match row by row? " + same);
+  }
+}
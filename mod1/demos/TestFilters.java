@@ -0,0 +1,98 @@
+public class TestFilters {
+  public static void main(String[] args) throws Exception {
+    final int TEST_SIZE = 1000000;
+
+    BloomFilter<Integer> bloom = new BloomFilter<>(TEST_SIZE, 0.01);
+    CuckooFilter<Integer> cuckoo = new CuckooFilter<>(TEST_SIZE, 0.01);
+    for (int i = 0; i < TEST_SIZE; i++) {
+      bloom.add(i * 2);
+      cuckoo.add(i * 2);
+    }
+    System.out.println(bloom);
+    System.out.println(cuckoo);
+    System.out.printf("Measured false-positive rates: Bloom %.4f " +
+      "(estimated %.4f), cuckoo %.4f (estimated %.4f)%n",
+      falsePositiveRate(bloom, TEST_SIZE), bloom.getFalsePositiveRate(),
+      falsePositiveRate(cuckoo, TEST_SIZE), cuckoo.getFalsePositiveRate());
+
+    boolean noFalseNegatives = true;
+    for (int i = 0; i < TEST_SIZE; i++)
+      noFalseNegatives &= bloom.contains(i * 2) && cuckoo.contains(i * 2);
+    System.out.println("Every added element found? " + noFalseNegatives);
+
+    for (int i = 0; i < TEST_SIZE / 2; i++)
+      cuckoo.remove(i * 2);
+    System.out.println("After removing half, cuckoo filter has " +
+      cuckoo.size() + " elements, contains 2? " + cuckoo.contains(2) +
+      ", contains " + (TEST_SIZE + 2) + "? " + cuckoo.contains(TEST_SIZE + 2));
+
+    // Merge two filters and write the result out and back
+    BloomFilter<String> names1 = new BloomFilter<>(100, 0.01);
+    BloomFilter<String> names2 = new BloomFilter<>(100, 0.01);
+    names1.add("Smith");
+    names2.addAll(java.util.Arrays.asList("Anderson", "Lewis", "Cook"));
+    names1.merge(names2);
+    java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+    names1.writeTo(bytes);
+    BloomFilter<String> copy = BloomFilter.readFrom(
+      new java.io.ByteArrayInputStream(bytes.toByteArray()));
+    System.out.println("Merged and reloaded " + bytes.size() + " bytes: " +
+      "contains Smith? " + copy.contains("Smith") + ", Lewis? " +
+      copy.contains("Lewis") + ", Jones? " + copy.contains("Jones"));
+
+    CuckooFilter<String> cuckooNames = new CuckooFilter<>(100, 0.01);
+    cuckooNames.add("Smith");
+    CuckooFilter<String> cuckooNames2 = new CuckooFilter<>(100, 0.01);
+    cuckooNames2.add("Cook");
+    cuckooNames.merge(cuckooNames2);
+    bytes.reset();
+    cuckooNames.writeTo(bytes);
+    CuckooFilter<String> cuckooCopy = CuckooFilter.readFrom(
+      new java.io.ByteArrayInputStream(bytes.toByteArray()));
+    System.out.println("Merged and reloaded cuckoo filter: contains Cook? " +
+      cuckooCopy.contains("Cook") + ", size " + cuckooCopy.size());
+
+    // A filter in front of an exact map answers most misses on its own.
+    // It pays off when the exact lookup costs more than the filter, here
+    // encoding and hashing the key for an off-heap map
+    BloomFilter<Long> front = new BloomFilter<>(TEST_SIZE, 0.01);
+    Long[] lookups = new Long[TEST_SIZE];
+    try (OffHeapHashMap<Long, Long> map = new OffHeapHashMap<>(
+        FixedWidthCodec.LONG, FixedWidthCodec.LONG)) {
+      for (long i = 0; i < TEST_SIZE; i++) {
+        map.put(i * 7919, i);
+        front.add(i * 7919);
+        lookups[(int)i] = i % 10 == 0 ? i * 7919 : i * 7919 + 1;
+      }
+
+      for (int round = 0; round < 3; round++) {
+        long startTime = System.currentTimeMillis();
+        int hits1 = 0;
+        for (Long key: lookups)
+          if (map.get(key) != null)
+            hits1++;
+        long mapTime = System.currentTimeMillis() - startTime;
+
+        startTime = System.currentTimeMillis();
+        int hits2 = 0;
+        for (Long key: lookups)
+          if (front.contains(key) && map.get(key) != null)
+            hits2++;
+        long filteredTime = System.currentTimeMillis() - startTime;
+
+        if (round == 2)
+          System.out.println("90% misses: OffHeapHashMap " + mapTime +
+            " ms, Bloom filter then OffHeapHashMap " + filteredTime +
+            " ms, hits " + hits1 + " and " + hits2);
+      }
+    }
+  }
+
+  public static double falsePositiveRate(MySet<Integer> filter, int trials) {
+    int falsePositives = 0;
+    for (int i = 0; i < trials; i++)
+      if (filter.contains(i * 2 + 1))
+        falsePositives++;
+    return (double)falsePositives / trials;
+  }
+}
@@ -0,0 +1,58 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TestHashMapSnapshot {
+  public static void main(String[] args) throws Exception {
+    final int TEST_SIZE = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    Path file = Files.createTempFile("hashmap", ".snapshot");
+
+    try {
+      // Build the map the slow way and save it
+      long startTime = System.currentTimeMillis();
+      MyMap<Long, Long> map = new MyHashMap<>();
+      for (long i = 0; i < TEST_SIZE; i++)
+        map.put(i * 7919, i * i);
+      System.out.println("Built " + map.size() + " entries in " +
+        (System.currentTimeMillis() - startTime) + " milliseconds");
+
+      try (OffHeapHashMap<Long, Long> copy = OffHeapHashMap.copyOf(map,
+          FixedWidthCodec.LONG, FixedWidthCodec.LONG)) {
+        copy.save(file);
+      }
+      System.out.println("Snapshot is " + Files.size(file) / 1024 + " KB");
+
+      // A warm start maps the file and reads slots on demand
+      startTime = System.nanoTime();
+      try (OffHeapHashMap<Long, Long> loaded = OffHeapHashMap.load(file,
+          FixedWidthCodec.LONG, FixedWidthCodec.LONG)) {
+        System.out.println("Loaded " + loaded.size() + " entries in " +
+          (System.nanoTime() - startTime) / 1000 + " microseconds");
+        System.out.println("Value for 7919 * 12345 is " +
+          loaded.get(7919L * 12345) + ", contains 1? " +
+          loaded.containsKey(1L));
+
+        boolean same = true;
+        for (long i = 0; i < TEST_SIZE; i++)
+          same &= map.get(i * 7919).equals(loaded.get(i * 7919));
+        System.out.println("Snapshot agrees with the original map? " + same);
+
+        try {
+          loaded.put(1L, 1L);
+        }
+        catch (UnsupportedOperationException ex) {
+          System.out.println("put on a snapshot: " + ex.getMessage());
+        }
+      }
+
+      try {
+        OffHeapHashMap.load(file, FixedWidthCodec.INT, FixedWidthCodec.LONG);
+      }
+      catch (java.io.IOException ex) {
+        System.out.println(ex.getMessage().replace(file.toString(), "file"));
+      }
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+}
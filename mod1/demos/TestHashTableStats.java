@@ -0,0 +1,37 @@
+public class TestHashTableStats {
+  public static void main(String[] args) {
+    final int TEST_SIZE = 100000;
+
+    // Keys whose hash codes are all multiples of 1024; the set takes them
+    // as they are, so that they cluster in few buckets
+    MyHashMap<Integer, Integer> map = new MyHashMap<>();
+    MyHashSet<Integer> set = new MyHashSet<>(HashStrategy.IDENTITY);
+    System.out.println("Stats while disabled: " + map.getStats());
+
+    map.setStatsEnabled(true);
+    set.setStatsEnabled(true);
+    for (int i = 0; i < TEST_SIZE; i++) {
+      map.put(i * 1024, i);
+      set.add(i * 1024);
+    }
+
+    System.out.println("MyHashMap: " + map.getStats());
+    System.out.println("MyHashSet: " + set.getStats());
+
+    // An exporter would poll getStats periodically
+    HashTableStats.Snapshot snapshot = map.getStats();
+    float[] loadFactors = snapshot.getLoadFactorHistory();
+    long[] times = snapshot.getLoadFactorTimes();
+    System.out.print("Load factor over time:");
+    for (int i = 0; i < loadFactors.length; i++)
+      System.out.printf(" %.2f@%d", loadFactors[i], times[i] - times[0]);
+    System.out.println();
+
+    MyHashMap<Integer, Integer> incremental =
+      new MyHashMap<>(4, 0.75f, true);
+    incremental.setStatsEnabled(true);
+    for (int i = 0; i < TEST_SIZE; i++)
+      incremental.put(i, i);
+    System.out.println("Incremental MyHashMap: " + incremental.getStats());
+  }
+}
@@ -0,0 +1,67 @@
+public class TestHashViews {
+  public static void main(String[] args) {
+    MyMap<String, Integer> map = new MyHashMap<>();
+    map.put("Smith", 30);
+    map.put("Anderson", 31);
+    map.put("Lewis", 29);
+    map.put("Cook", 29);
+
+    java.util.Set<String> keys = map.keySet();
+    java.util.Collection<Integer> ages = map.values();
+    System.out.println("Keys: " + keys + ", ages: " + ages);
+
+    map.put("Jones", 40);
+    System.out.println("Views are live, keys now: " + keys);
+
+    ages.removeIf(age -> age == 29);
+    System.out.println("After removing age 29 through values(): " + map);
+
+    try {
+      for (String key: keys)
+        map.put(key + "2", 0);
+      System.out.println("Modification during iteration was not detected");
+    }
+    catch (java.util.ConcurrentModificationException ex) {
+      System.out.println("Modification during iteration detected");
+    }
+
+    final int TEST_SIZE = 1000000;
+    MyMap<Integer, Integer> numbers = new MyHashMap<>();
+    long expected = 0;
+    for (int i = 0; i < TEST_SIZE; i++) {
+      numbers.put(i, i);
+      expected += i;
+    }
+    long sum = numbers.keySet().stream().parallel()
+      .mapToLong(Integer::longValue).sum();
+    long count = numbers.entrySet().stream().parallel().count();
+    System.out.println("Parallel key sum " + sum + " (expected " + expected +
+      "), entry count " + count);
+
+    // Colliding keys exercise removal through tree buckets
+    MyMap<HashFloodingTest.CollidingKey, Integer> colliding = new MyHashMap<>();
+    for (int i = 0; i < 1000; i++)
+      colliding.put(new HashFloodingTest.CollidingKey(i), i);
+    java.util.Iterator<HashFloodingTest.CollidingKey> iterator =
+      colliding.keySet().iterator();
+    int visited = 0;
+    while (iterator.hasNext()) {
+      if (iterator.next().id % 2 == 0)
+        iterator.remove();
+      visited++;
+    }
+    boolean passed = visited == 1000 && colliding.size() == 500;
+    for (int i = 0; i < 1000; i++)
+      if (colliding.containsKey(new HashFloodingTest.CollidingKey(i))
+          != (i % 2 == 1))
+        passed = false;
+    System.out.println("Iterator removal from tree buckets correct? " + passed);
+
+    java.util.Collection<Integer> set = new MyHashSet<>();
+    for (int i = 0; i < TEST_SIZE; i++)
+      set.add(i);
+    set.removeIf(i -> i % 3 == 0);
+    System.out.println("Set size after removeIf: " + set.size() +
+      ", parallel sum: " + set.parallelStream().mapToLong(i -> i).sum());
+  }
+}
@@ -0,0 +1,86 @@
+public class TestInfixEvaluator {
+  public static void main(String[] args) {
+    // Random expressions give the same value as EvaluateExpression. Those
+    // that divide by zero are left out, as throwing would dominate the
+    // timing below
+    java.util.Random random = new java.util.Random(1);
+    java.util.List<String> expressions = new java.util.ArrayList<>();
+    int mismatches = 0;
+    while (expressions.size() < 10000) {
+      String expression = randomExpression(random, 4);
+      int expected;
+      try {
+        expected = EvaluateExpression.evaluateExpression(expression);
+      }
+      catch (ArithmeticException ex) {
+        continue;
+      }
+      expressions.add(expression);
+      if (InfixEvaluator.evaluateInt(expression) != expected)
+        mismatches++;
+    }
+    System.out.println("Mismatches with EvaluateExpression: " + mismatches);
+    System.out.println("-(2 + 3) * -4 = " +
+      InfixEvaluator.evaluateInt("-(2 + 3) * -4") + ", 3000000000 * 3 = " +
+      InfixEvaluator.evaluateLong("3000000000 * 3"));
+
+    String[] wrong = {"1 +", "(1 + 2", "1 + 2)", "2 * / 3", "12 x",
+      "99999999999 + 1", ""};
+    for (String expression: wrong)
+      try {
+        InfixEvaluator.evaluateInt(expression);
+        System.out.println("No error for " + expression);
+      }
+      catch (ExpressionSyntaxException ex) {
+        System.out.println(ex.getMessage());
+      }
+
+    // Allocation per expression, where the JVM can measure it
+    java.lang.management.ThreadMXBean bean =
+      java.lang.management.ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int round = 0; round < 5; round++) {
+      long startBytes = allocatedBytes(bean, threadId);
+      long startTime = System.nanoTime();
+      long sum = 0;
+      for (String expression: expressions)
+        sum += EvaluateExpression.evaluateExpression(expression);
+      long stackTime = System.nanoTime() - startTime;
+      long stackBytes = allocatedBytes(bean, threadId) - startBytes;
+
+      startBytes = allocatedBytes(bean, threadId);
+      startTime = System.nanoTime();
+      long sum2 = 0;
+      for (String expression: expressions)
+        sum2 += InfixEvaluator.evaluateInt(expression);
+      long infixTime = System.nanoTime() - startTime;
+      long infixBytes = allocatedBytes(bean, threadId) - startBytes;
+
+      if (round == 4)
+        System.out.println(expressions.size() + " expressions: " +
+          "EvaluateExpression " + stackTime / 1000 + " us, " +
+          stackBytes / expressions.size() + " bytes each; InfixEvaluator " +
+          infixTime / 1000 + " us, " + infixBytes / expressions.size() +
+          " bytes each; same sum? " + (sum == sum2));
+    }
+  }
+
+  private static long allocatedBytes(
+      java.lang.management.ThreadMXBean bean, long threadId) {
+    if (bean instanceof com.sun.management.ThreadMXBean)
+      return ((com.sun.management.ThreadMXBean)bean)
+        .getThreadAllocatedBytes(threadId);
+    return 0;
+  }
+
+  // EvaluateExpression has no unary minus, so none is generated
+  private static String randomExpression(java.util.Random random,
+      int depth) {
+    if (depth == 0 || random.nextInt(3) == 0)
+      return "" + random.nextInt(100);
+    String op = "" + "+-*/".charAt(random.nextInt(4));
+    String expression = randomExpression(random, depth - 1) + " " + op +
+      " " + randomExpression(random, depth - 1);
+    return random.nextBoolean() ? "(" + expression + ")" : expression;
+  }
+}
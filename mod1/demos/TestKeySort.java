@@ -0,0 +1,81 @@
+import java.util.Comparator;
+
+public class TestKeySort {
+  public static void main(String[] args) {
+    String[] cities = {"Atlanta", "Savannah", "New York", "Dallas",
+      "Boston", "Miami"};
+    KeySort.sortByInt(cities, String::length);
+    SortString.print(cities);
+
+    Double[] numbers = {3.5, -0.0, Double.NaN, -2.0, 0.0,
+      Double.NEGATIVE_INFINITY, 1e-300};
+    KeySort.sortByDouble(numbers, Double::doubleValue);
+    SortString.print(numbers);
+
+    // The same order as a stable sort with a comparator, sequential and
+    // parallel, including many equal keys
+    java.util.Random random = new java.util.Random(1);
+    int n = 2_000_000;
+    String[] words = new String[n];
+    for (int i = 0; i < n; i++)
+      words[i] = Integer.toString(random.nextInt(), 36 - random.nextInt(20));
+    String[] expected = words.clone();
+    java.util.Arrays.sort(expected, Comparator.comparingInt(String::length));
+    String[] sorted = words.clone();
+    KeySort.parallelSortByInt(sorted, String::length);
+    boolean same = java.util.Arrays.equals(expected, sorted);
+    sorted = words.clone();
+    KeySort.sortByLong(sorted, s -> (long)s.length() << 40);
+    same &= java.util.Arrays.equals(expected, sorted);
+    sorted = words.clone();
+    KeySort.parallelSortByDouble(sorted, s -> s.length() / 3.0);
+    same &= java.util.Arrays.equals(expected, sorted);
+    System.out.println("Same order as a stable comparator sort? " + same);
+
+    for (int round = 0; round < 5; round++) {
+      sorted = words.clone();
+      long startTime = System.nanoTime();
+      java.util.Arrays.sort(sorted, Comparator.comparing(s -> s.length()));
+      long comparingTime = System.nanoTime() - startTime;
+
+      sorted = words.clone();
+      startTime = System.nanoTime();
+      java.util.Arrays.sort(sorted, Comparator.comparingInt(String::length));
+      long comparingIntTime = System.nanoTime() - startTime;
+
+      sorted = words.clone();
+      startTime = System.nanoTime();
+      KeySort.sortByInt(sorted, String::length);
+      long intTime = System.nanoTime() - startTime;
+
+      sorted = words.clone();
+      startTime = System.nanoTime();
+      KeySort.parallelSortByInt(sorted, String::length);
+      long parallelIntTime = System.nanoTime() - startTime;
+
+      Double[] values = new Double[n];
+      for (int i = 0; i < n; i++)
+        values[i] = random.nextGaussian();
+      Double[] copy = values.clone();
+      startTime = System.nanoTime();
+      java.util.Arrays.sort(copy, Comparator.comparingDouble(d -> d));
+      long comparingDoubleTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      KeySort.sortByDouble(values, d -> d);
+      long doubleTime = System.nanoTime() - startTime;
+
+      if (round == 4) {
+        System.out.println(n + " strings by length: comparing " +
+          comparingTime / 1000000 + " ms, comparingInt " +
+          comparingIntTime / 1000000 + " ms, sortByInt " +
+          intTime / 1000000 + " ms, parallelSortByInt " +
+          parallelIntTime / 1000000 + " ms");
+        System.out.println(n + " Doubles: comparingDouble " +
+          comparingDoubleTime / 1000000 + " ms, sortByDouble " +
+          doubleTime / 1000000 + " ms, same order? " +
+          java.util.Arrays.equals(copy, values));
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+public class TestMyCache {
+  public static void main(String[] args) throws InterruptedException {
+    MyCache<String, Integer> cache = new MyCache<>(3);
+    cache.setEvictionListener((key, value, cause) ->
+      System.out.println("  evicted " + key + " (" + cause + ")"));
+    cache.put("Smith", 30);
+    cache.put("Anderson", 31);
+    cache.put("Lewis", 29);
+    cache.get("Smith");
+    System.out.println("Adding Cook to " + cache);
+    cache.put("Cook", 29);
+    System.out.println("Entries in cache: " + cache);
+    System.out.println("Anderson is " + cache.get("Anderson") + ", hits " +
+      cache.getHitCount() + ", misses " + cache.getMissCount());
+
+    // Weigh entries by the length of their value
+    MyCache<Integer, String> weighed = new MyCache<>(20);
+    weighed.setWeigher((key, value) -> value.length());
+    weighed.put(1, "Atlanta");
+    weighed.put(2, "Savannah");
+    weighed.put(3, "Augusta");
+    System.out.println("Weighed cache " + weighed + " has weight " +
+      weighed.getWeight());
+
+    MyCache<Integer, Integer> expiring = new MyCache<>(100);
+    expiring.setExpireAfterWrite(50, java.util.concurrent.TimeUnit.MILLISECONDS);
+    expiring.put(1, 1);
+    Thread.sleep(100);
+    expiring.put(2, 2);
+    System.out.println("After 100 ms, 1 is " + expiring.get(1) + " and 2 is " +
+      expiring.get(2));
+
+    // Hot keys interleaved with scans of keys that are never used again
+    System.out.printf("LRU hit rate: %.1f%%%n",
+      100 * getHitRate(new MyCache<Integer, Integer>(1000)));
+    MyCache<Integer, Integer> tinyLfu = new MyCache<>(1000);
+    tinyLfu.setFrequencyAdmission(true);
+    System.out.printf("TinyLFU admission hit rate: %.1f%%%n",
+      100 * getHitRate(tinyLfu));
+  }
+
+  public static double getHitRate(MyCache<Integer, Integer> cache) {
+    java.util.Random random = new java.util.Random(1);
+    int scanKey = 1000000;
+
+    for (int i = 0; i < 500000; i++) {
+      int key;
+      if (i % 1000 < 400)
+        key = scanKey++;
+      else
+        // Skewed towards small keys: key k is used about 1/(k+1) as often
+        key = (int)Math.exp(random.nextDouble() * Math.log(5000)) - 1;
+
+      if (cache.get(key) == null)
+        cache.put(key, key);
+    }
+
+    return cache.getHitRate();
+  }
+}
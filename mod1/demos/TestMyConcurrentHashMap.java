@@ -0,0 +1,80 @@
+public class TestMyConcurrentHashMap {
+  public static void main(String[] args) throws Exception {
+    MyMap<String, Integer> map = new MyConcurrentHashMap<>();
+    map.put("Smith", 30);
+    map.put("Anderson", 31);
+    map.put("Lewis", 29);
+    map.put("Cook", 29);
+    map.put("Smith", 65);
+
+    System.out.println("Entries in map: " + map);
+    System.out.println("The age for Lewis is " + map.get("Lewis"));
+    map.remove("Smith");
+    System.out.println("Entries in map: " + map);
+
+    final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    final int KEYS_PER_THREAD = 100000;
+    final int SHARED_KEYS = 1000;
+    final int INCREMENTS = 200000;
+
+    // Start small so that every thread keeps running into resizes
+    MyMap<Integer, Integer> counts = new MyConcurrentHashMap<>(2);
+    Thread[] threads = new Thread[THREADS];
+    for (int t = 0; t < THREADS; t++) {
+      final int id = t;
+      threads[t] = new Thread(() -> {
+        java.util.Random random = new java.util.Random(id);
+        for (int i = 0; i < KEYS_PER_THREAD; i++) {
+          int key = SHARED_KEYS + id * KEYS_PER_THREAD + i;
+          counts.put(key, key);
+          if (counts.get(key) != key)
+            throw new IllegalStateException("Lost own key " + key);
+        }
+        for (int i = 0; i < INCREMENTS; i++)
+          counts.merge(random.nextInt(SHARED_KEYS), 1, Integer::sum);
+        for (int i = 0; i < KEYS_PER_THREAD; i += 2)
+          counts.remove(SHARED_KEYS + id * KEYS_PER_THREAD + i);
+      });
+      threads[t].start();
+    }
+    for (Thread thread: threads)
+      thread.join();
+
+    long total = 0;
+    for (int key = 0; key < SHARED_KEYS; key++)
+      total += counts.getOrDefault(key, 0);
+    int expectedSize = SHARED_KEYS + THREADS * KEYS_PER_THREAD / 2;
+
+    System.out.println(THREADS + " threads, merged increments: " + total +
+      " (expected " + (long)THREADS * INCREMENTS + ")");
+    System.out.println("Size: " + counts.size() + " (expected " +
+      expectedSize + "), entries visited: " + counts.keySet().size());
+
+    boolean passed = total == (long)THREADS * INCREMENTS &&
+      counts.size() == expectedSize &&
+      counts.keySet().size() == expectedSize;
+    for (int t = 0; t < THREADS && passed; t++)
+      for (int i = 0; i < KEYS_PER_THREAD; i++) {
+        int key = SHARED_KEYS + t * KEYS_PER_THREAD + i;
+        if (counts.containsKey(key) != (i % 2 == 1)) {
+          passed = false;
+          break;
+        }
+      }
+    System.out.println("Stress test passed? " + passed);
+
+    // A mapping function that writes to its own bin is refused, instead of
+    // having its write overwritten when compute fills the bin
+    MyMap<String, Integer> recursive = new MyConcurrentHashMap<>();
+    try {
+      recursive.computeIfAbsent("Smith", k -> {
+        recursive.put("Smith", 1);
+        return 2;
+      });
+      System.out.println("No error, Smith is " + recursive.get("Smith"));
+    }
+    catch (IllegalStateException ex) {
+      System.out.println(ex.getMessage() + ", entries in map: " + recursive);
+    }
+  }
+}
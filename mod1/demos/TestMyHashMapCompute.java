@@ -0,0 +1,23 @@
+public class TestMyHashMapCompute {
+  public static void main(String[] args) {
+    String text = "Good morning. Have a good class. " +
+      "Have a good visit. Have fun!";
+    String[] words = text.toLowerCase().split("[\\s+\\p{P}]");
+
+    MyMap<String, Integer> map = new MyHashMap<>();
+    for (String word: words)
+      if (word.length() > 0)
+        map.merge(word, 1, Integer::sum);
+    System.out.println("Word counts: " + map);
+
+    System.out.println("Count for have: " + map.getOrDefault("have", 0));
+    System.out.println("Count for bad: " + map.getOrDefault("bad", 0));
+
+    map.computeIfPresent("fun", (word, count) -> null);
+    System.out.println("After removing fun: " + map);
+
+    map.computeIfAbsent("evening", word -> word.length());
+    map.compute("good", (word, count) -> count == null ? 1 : count * 10);
+    System.out.println("After compute: " + map);
+  }
+}
@@ -0,0 +1,53 @@
+public class TestMyRobinHoodHashMap {
+  public static void main(String[] args) {
+    MyMap<String, Integer> map = new MyRobinHoodHashMap<>();
+    map.put("Smith", 30);
+    map.put("Anderson", 31);
+    map.put("Lewis", 29);
+    map.put("Cook", 29);
+    map.put("Smith", 65);
+
+    System.out.println("Entries in map: " + map);
+
+    System.out.println("The age for " + "Lewis is " +
+      map.get("Lewis"));
+
+    System.out.println("Is Smith in the map? " + 
+      map.containsKey("Smith"));
+    System.out.println("Is age 33 in the map? " + 
+      map.containsValue(33));
+
+    map.remove("Smith");
+    System.out.println("Entries in map: " + map);
+
+    map.clear();
+    System.out.println("Entries in map: " + map);
+
+    System.out.println("Random operations agree with java.util.HashMap? "
+      + agreesWithHashMap(100000));
+  }
+
+  public static boolean agreesWithHashMap(int operations) {
+    MyMap<Integer, Integer> map = new MyRobinHoodHashMap<>();
+    java.util.Map<Integer, Integer> expected = new java.util.HashMap<>();
+    java.util.Random random = new java.util.Random(1);
+
+    for (int i = 0; i < operations; i++) {
+      Integer key = random.nextInt(operations / 10);
+      if (random.nextInt(3) == 0) {
+        map.remove(key);
+        expected.remove(key);
+      }
+      else {
+        map.put(key, i);
+        expected.put(key, i);
+      }
+
+      if (map.size() != expected.size() ||
+          !java.util.Objects.equals(map.get(key), expected.get(key)))
+        return false;
+    }
+
+    return map.keySet().equals(expected.keySet());
+  }
+}
@@ -0,0 +1,69 @@
+public class TestOffHeapHashMap {
+  public static void main(String[] args) {
+    try (OffHeapHashMap<Integer, Double> map = new OffHeapHashMap<>(
+        FixedWidthCodec.INT, FixedWidthCodec.DOUBLE)) {
+      map.put(1, 1.5);
+      map.put(2, 2.5);
+      map.put(3, 3.5);
+      map.put(2, 20.5);
+      System.out.println("Entries in map: " + map);
+      System.out.println("Value for 2 is " + map.get(2) +
+        ", contains value 3.5? " + map.containsValue(3.5));
+      map.remove(1);
+      System.out.println("Entries in map: " + map);
+    }
+
+    System.out.println("Random operations agree with java.util.HashMap? " +
+      agreesWithHashMap(200000));
+
+    final int TEST_SIZE = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+    long heapBefore = usedMemory();
+    try (OffHeapHashMap<Long, Long> map = new OffHeapHashMap<>(
+        FixedWidthCodec.LONG, FixedWidthCodec.LONG)) {
+      long startTime = System.currentTimeMillis();
+      for (long i = 0; i < TEST_SIZE; i++)
+        map.put(i * 7919, i);
+      for (long i = 0; i < TEST_SIZE; i++)
+        if (map.get(i * 7919) != i)
+          throw new IllegalStateException("Lost key " + i * 7919);
+      long time = System.currentTimeMillis() - startTime;
+
+      System.out.println(TEST_SIZE + " entries: " + time + " milliseconds, " +
+        map.getOffHeapBytes() / 1024 + " KB off heap, heap grew by " +
+        (usedMemory() - heapBefore) / 1024 + " KB");
+    }
+  }
+
+  public static boolean agreesWithHashMap(int operations) {
+    java.util.Map<Long, Integer> expected = new java.util.HashMap<>();
+    java.util.Random random = new java.util.Random(1);
+
+    try (OffHeapHashMap<Long, Integer> map = new OffHeapHashMap<>(
+        FixedWidthCodec.LONG, FixedWidthCodec.INT, 2)) {
+      for (int i = 0; i < operations; i++) {
+        Long key = (long)random.nextInt(operations / 10);
+        if (random.nextInt(3) == 0) {
+          map.remove(key);
+          expected.remove(key);
+        }
+        else {
+          map.put(key, i);
+          expected.put(key, i);
+        }
+
+        if (map.size() != expected.size() ||
+            !java.util.Objects.equals(map.get(key), expected.get(key)))
+          return false;
+      }
+
+      return map.keySet().equals(expected.keySet());
+    }
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++)
+      System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
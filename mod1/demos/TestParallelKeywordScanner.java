@@ -0,0 +1,68 @@
+public class TestParallelKeywordScanner {
+  public static void main(String[] args) throws Exception {
+    ParallelKeywordScanner scanner = new ParallelKeywordScanner();
+    PerfectHashSet keywords = scanner.getKeywords();
+
+    // Only the keywords outside comments and literals count: public, class,
+    // static, void, int, for, char, return and new
+    String source = "public class A { // if while\n" +
+      "  /* for do\n   */ static void f(int n) {\n" +
+      "    for (String s = \"try \\\" catch\"; n > 0x1f; n--) {}\n" +
+      "    char c = '\\''; String t = \"\"\"\n      else \"\" goto\n" +
+      "      \"\"\"; int forward = 1e10; return new int[0]; }\n}";
+    long[] counts = new long[keywords.size()];
+    scanner.scan(java.nio.ByteBuffer.wrap(source.getBytes(
+      java.nio.charset.StandardCharsets.UTF_8)), counts);
+    StringBuilder found = new StringBuilder();
+    for (int slot = 0; slot < counts.length; slot++)
+      if (counts[slot] > 0)
+        found.append(keywords.get(slot) + "=" + counts[slot] + " ");
+    System.out.println(found);
+
+    // A tree of generated files, some large enough to be memory-mapped
+    java.nio.file.Path root = java.nio.file.Files.createTempDirectory("scan");
+    java.util.Random random = new java.util.Random(1);
+    for (int i = 0; i < 2000; i++) {
+      java.nio.file.Path directory = root.resolve("p" + i % 20);
+      java.nio.file.Files.createDirectories(directory);
+      StringBuilder text = new StringBuilder();
+      int lines = i % 100 == 0 ? 20000 : 200;
+      for (int line = 0; line < lines; line++)
+        text.append(random.nextInt(4) == 0 ? "  // if the for loop ends\n" :
+          "  public static int f" + line + "(int n) { return n; }\n");
+      java.nio.file.Files.write(directory.resolve("C" + i + ".java"),
+        text.toString().getBytes());
+    }
+
+    ParallelKeywordScanner.Report report = null;
+    for (int round = 0; round < 3; round++) {
+      long startTime = System.nanoTime();
+      report = scanner.scan(root);
+      long scanTime = System.nanoTime() - startTime;
+
+      // CountKeywords scans one file at a time with the same tokenizer, so
+      // the counts agree
+      startTime = System.nanoTime();
+      long scannerCount = 0;
+      try (java.util.stream.Stream<java.nio.file.Path> paths =
+          java.nio.file.Files.walk(root)) {
+        for (java.nio.file.Path path: (Iterable<java.nio.file.Path>)
+            paths.filter(java.nio.file.Files::isRegularFile)::iterator)
+          scannerCount += CountKeywords.countKeywords(path.toFile());
+      }
+      long countKeywordsTime = System.nanoTime() - startTime;
+
+      if (round == 2)
+        System.out.println("ParallelKeywordScanner: " + scanTime / 1000000 +
+          " ms, " + report.getTotalCount() + " keywords; CountKeywords: " +
+          countKeywordsTime / 1000000 + " ms, " + scannerCount + " keywords");
+    }
+    System.out.print(report);
+
+    try (java.util.stream.Stream<java.nio.file.Path> paths =
+        java.nio.file.Files.walk(root)) {
+      paths.sorted(java.util.Comparator.reverseOrder())
+        .forEach(path -> path.toFile().delete());
+    }
+  }
+}
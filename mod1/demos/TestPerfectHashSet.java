@@ -0,0 +1,87 @@
+public class TestPerfectHashSet {
+  public static void main(String[] args) {
+    String[] keywords = {"abstract", "assert", "boolean",
+      "break", "byte", "case", "catch", "char", "class", "const",
+      "continue", "default", "do", "double", "else", "enum",
+      "extends", "for", "final", "finally", "float", "goto",
+      "if", "implements", "import", "instanceof", "int",
+      "interface", "long", "native", "new", "package", "private",
+      "protected", "public", "return", "short", "static",
+      "strictfp", "super", "switch", "synchronized", "this",
+      "throw", "throws", "transient", "try", "void", "volatile",
+      "while", "true", "false", "null"};
+    PerfectHashSet set = new PerfectHashSet(keywords);
+
+    boolean allFound = true;
+    java.util.Set<Integer> slots = new java.util.HashSet<>();
+    for (String keyword: keywords) {
+      allFound &= set.contains(keyword);
+      slots.add(set.indexOf(keyword));
+    }
+    System.out.println(set.size() + " keywords in " + slots.size() +
+      " distinct slots, all found? " + allFound);
+
+    StringBuilder word = new StringBuilder("whil");
+    System.out.println("Contains " + word + "? " + set.contains(word) +
+      ", " + word.append('e') + "? " + set.contains(word) +
+      ", Class? " + set.contains("Class") + ", Greek pi? " +
+      set.contains("\u03c0"));
+
+    byte[] line = "  for (int i = 0; i < n; i++)".getBytes(
+      java.nio.charset.StandardCharsets.ISO_8859_1);
+    System.out.println("Bytes 2..5 are " + set.get(set.indexOf(line, 2, 3)) +
+      ", bytes 7..10 are " + set.get(set.indexOf(line, 7, 3)) +
+      ", bytes 11..12 found? " + set.contains(line, 11, 1));
+
+    // Tokens of a scanned buffer: java.util.HashSet needs a String for
+    // each token, PerfectHashSet looks the bytes up where they are
+    java.util.Random random = new java.util.Random(1);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1 << 16; i++)
+      text.append(random.nextBoolean() ? keywords[random.nextInt(keywords.length)]
+        : "name" + random.nextInt(1000)).append(' ');
+    byte[] buffer = text.toString().getBytes(
+      java.nio.charset.StandardCharsets.ISO_8859_1);
+    java.util.Set<String> hashSet =
+      new java.util.HashSet<>(java.util.Arrays.asList(keywords));
+
+    for (int round = 0; round < 5; round++) {
+      long startTime = System.nanoTime();
+      int count1 = 0;
+      for (int repeat = 0; repeat < 20; repeat++)
+        for (int start = 0, end; start < buffer.length; start = end + 1) {
+          end = start;
+          while (buffer[end] != ' ')
+            end++;
+          if (hashSet.contains(new String(buffer, start, end - start,
+              java.nio.charset.StandardCharsets.ISO_8859_1)))
+            count1++;
+        }
+      long hashSetTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      int count2 = 0;
+      for (int repeat = 0; repeat < 20; repeat++)
+        for (int start = 0, end; start < buffer.length; start = end + 1) {
+          end = start;
+          while (buffer[end] != ' ')
+            end++;
+          if (set.contains(buffer, start, end - start))
+            count2++;
+        }
+      long perfectTime = System.nanoTime() - startTime;
+
+      if (round == 4)
+        System.out.println("java.util.HashSet: " + hashSetTime / 1000000 +
+          " ms, PerfectHashSet: " + perfectTime / 1000000 + " ms, counts " +
+          count1 + " and " + count2);
+    }
+
+    try {
+      set.add("var");
+    }
+    catch (UnsupportedOperationException ex) {
+      System.out.println(ex.getMessage());
+    }
+  }
+}
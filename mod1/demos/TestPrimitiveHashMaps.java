@@ -0,0 +1,73 @@
+public class TestPrimitiveHashMaps {
+  public static void main(String[] args) {
+    String text = "Welcome to Java. Data structures and algorithms";
+    IntIntMap letterCounts = new IntIntMap();
+    for (int i = 0; i < text.length(); i++)
+      if (Character.isLetter(text.charAt(i)))
+        letterCounts.addTo(Character.toLowerCase(text.charAt(i)), 1);
+    letterCounts.forEach((letter, count) ->
+      System.out.print((char)letter + "=" + count + " "));
+    System.out.println();
+
+    int[] numbers = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+    IntLongMap sumsByRemainder = new IntLongMap();
+    for (int number: numbers)
+      sumsByRemainder.addTo(number % 4, number);
+    System.out.println("Sums grouped by remainder of 4: " + sumsByRemainder);
+
+    LongObjectMap<String> names = new LongObjectMap<>();
+    names.put(0L, "zero");
+    names.put(10000000000L, "ten billion");
+    System.out.println("Names: " + names + ", size " + names.size());
+
+    IntHashSet set = new IntHashSet();
+    set.addAll(numbers);
+    set.add(0);
+    set.remove(2);
+    System.out.println("Set: " + set + ", contains 0? " + set.contains(0)
+      + ", contains 2? " + set.contains(2));
+
+    System.out.println("Random operations agree with java.util? " +
+      agreesWithJavaUtil(200000));
+  }
+
+  public static boolean agreesWithJavaUtil(int operations) {
+    IntIntMap intIntMap = new IntIntMap();
+    IntLongMap intLongMap = new IntLongMap();
+    LongObjectMap<Integer> longObjectMap = new LongObjectMap<>();
+    IntHashSet intHashSet = new IntHashSet();
+    java.util.Map<Integer, Integer> expected = new java.util.HashMap<>();
+    java.util.Random random = new java.util.Random(1);
+
+    for (int i = 0; i < operations; i++) {
+      int key = random.nextInt(operations / 10) - operations / 20;
+      if (random.nextInt(3) == 0) {
+        intIntMap.remove(key);
+        intLongMap.remove(key);
+        longObjectMap.remove((long)key);
+        intHashSet.remove(key);
+        expected.remove(key);
+      }
+      else {
+        intIntMap.put(key, i);
+        intLongMap.put(key, i);
+        longObjectMap.put((long)key, (Integer)i);
+        intHashSet.add(key);
+        expected.put(key, i);
+      }
+
+      Integer value = expected.get(key);
+      if (intIntMap.size() != expected.size() ||
+          intLongMap.size() != expected.size() ||
+          longObjectMap.size() != expected.size() ||
+          intHashSet.size() != expected.size() ||
+          intHashSet.contains(key) != (value != null) ||
+          !java.util.Objects.equals(intIntMap.get((Integer)key), value) ||
+          intLongMap.getOrDefault(key, -1) != (value == null ? -1 : value) ||
+          !java.util.Objects.equals(longObjectMap.get(key), value))
+        return false;
+    }
+
+    return intIntMap.keySet().equals(expected.keySet());
+  }
+}
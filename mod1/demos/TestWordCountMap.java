@@ -0,0 +1,58 @@
+public class TestWordCountMap {
+  public static void main(String[] args) {
+    String text = "Good morning. Have a good class. " +
+      "Have a good visit. Have fun!";
+
+    WordCountMap counts = new WordCountMap(true);
+    counts.addWords(text);
+    System.out.println("Word counts: " + counts);
+    System.out.println("Top 2: " + counts.topN(2));
+    System.out.println("Count of GOOD: " + counts.get("GOOD") +
+      ", of new StringBuilder(\"have\"): " + counts.get(new StringBuilder("have")));
+
+    byte[] utf8 = "Stra\u00dfe und stra\u00dfe, \u00e9t\u00e9 \u00c9t\u00e9".getBytes(
+      java.nio.charset.StandardCharsets.UTF_8);
+    WordCountMap utf8Counts = new WordCountMap(true);
+    utf8Counts.addWords(utf8, 0, utf8.length);
+    System.out.println("UTF-8 words: " + utf8Counts.size() +
+      ", count of Strasse with a sharp s: " +
+      utf8Counts.get("Stra\u00dfe"));
+
+    // A large text counted both ways
+    String[] vocabulary = new String[5000];
+    java.util.Random random = new java.util.Random(1);
+    for (int i = 0; i < vocabulary.length; i++)
+      vocabulary[i] = (i % 3 == 0 ? "Word" : "word") + Integer.toString(i, 36);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 2000000; i++)
+      builder.append(vocabulary[(int)Math.exp(random.nextDouble() *
+        Math.log(vocabulary.length)) - 1]).append(i % 12 == 0 ? ". " : " ");
+    String largeText = builder.toString();
+    byte[] largeBytes = largeText.getBytes(
+      java.nio.charset.StandardCharsets.UTF_8);
+
+    for (int round = 0; round < 3; round++) {
+      long startTime = System.currentTimeMillis();
+      java.util.Map<String, Long> expected = new java.util.HashMap<>();
+      for (String word: largeText.split("[\\s\\p{Punct}]+"))
+        if (word.length() > 0)
+          expected.merge(word.toLowerCase(), 1L, Long::sum);
+      long hashMapTime = System.currentTimeMillis() - startTime;
+
+      startTime = System.currentTimeMillis();
+      WordCountMap map = new WordCountMap(true);
+      map.addWords(largeBytes, 0, largeBytes.length);
+      java.util.List<MyMap.Entry<String, Long>> top = map.topN(3);
+      long wordCountTime = System.currentTimeMillis() - startTime;
+
+      boolean same = expected.size() == map.size();
+      for (java.util.Map.Entry<String, Long> entry: expected.entrySet())
+        same &= entry.getValue().equals(map.get(entry.getKey()));
+
+      if (round == 2)
+        System.out.println("split and java.util.HashMap: " + hashMapTime +
+          " ms, WordCountMap over bytes: " + wordCountTime + " ms, same counts? " +
+          same + ", top 3 " + top);
+    }
+  }
+}
@@ -0,0 +1,468 @@
+import java.nio.charset.StandardCharsets;
+
+// Counts words without creating a String per word. The UTF-8 bytes of
+// every key are appended to one growable byte array, the arena, and the
+// table keeps only the key's offset, length and hash next to a long
+// count. A CharSequence is encoded into a reused scratch buffer and a
+// byte slice is used in place, so looking up or counting a word allocates
+// nothing once the arena and the table are big enough. With ignoreCase,
+// ASCII letters are lowercased as they are encoded
+public class WordCountMap implements MyMap<String, Long> {
+  private final static int DEFAULT_INITIAL_CAPACITY = 16;
+  private final static int MAXIMUM_CAPACITY = 1 << 30;
+  private int capacity;
+  private final static float DEFAULT_MAX_LOAD_FACTOR = 0.75f;
+  private float loadFactorThreshold;
+  private final boolean ignoreCase;
+
+  // hashes[i] == 0 marks an empty slot; occupied slots keep the hash of
+  // the key bytes with the sign bit set
+  private int size = 0;
+  private int[] hashes;
+  private int[] offsets;
+  private int[] lengths;
+  private long[] counts;
+
+  private byte[] arena = new byte[256];
+  private int arenaLength = 0;
+  private byte[] scratch = new byte[64];
+
+  public WordCountMap() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR, false);
+  }
+
+  public WordCountMap(boolean ignoreCase) {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_LOAD_FACTOR, ignoreCase);
+  }
+
+  public WordCountMap(int initialCapacity, float loadFactorThreshold,
+      boolean ignoreCase) {
+    if (initialCapacity > MAXIMUM_CAPACITY)
+      this.capacity = MAXIMUM_CAPACITY;
+    else
+      this.capacity = trimToPowerOf2(initialCapacity);
+
+    this.loadFactorThreshold = loadFactorThreshold;
+    this.ignoreCase = ignoreCase;
+    hashes = new int[capacity];
+    offsets = new int[capacity];
+    lengths = new int[capacity];
+    counts = new long[capacity];
+  }
+
+  // Adds delta to the count of word and returns the new count
+  public long addTo(CharSequence word, long delta) {
+    int length = encode(word);
+    return addTo(scratch, 0, length, delta, false);
+  }
+
+  // The word is the UTF-8 text in bytes[offset, offset + length)
+  public long addTo(byte[] bytes, int offset, int length, long delta) {
+    return addTo(bytes, offset, length, delta, ignoreCase);
+  }
+
+  public long get(CharSequence word) {
+    int length = encode(word);
+    int slot = indexOf(scratch, 0, length, hash(scratch, 0, length, false),
+      false);
+    return slot < 0 ? 0 : counts[slot];
+  }
+
+  public long get(byte[] bytes, int offset, int length) {
+    int slot = indexOf(bytes, offset, length,
+      hash(bytes, offset, length, ignoreCase), ignoreCase);
+    return slot < 0 ? 0 : counts[slot];
+  }
+
+  // Counts every word of text. A word is a run of letters, digits and
+  // apostrophes; any other character separates words
+  public void addWords(CharSequence text) {
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+      if (wordChar && start < 0)
+        start = i;
+      else if (!wordChar && start >= 0) {
+        int length = encode(text, start, i);
+        addTo(scratch, 0, length, 1, false);
+        start = -1;
+      }
+    }
+  }
+
+  // Counts every word of the UTF-8 text in bytes[offset, offset + length).
+  // Bytes of multibyte characters count as letters
+  public void addWords(byte[] bytes, int offset, int length) {
+    int start = -1;
+    for (int i = offset; i <= offset + length; i++) {
+      boolean wordChar = i < offset + length && isWordByte(bytes[i]);
+      if (wordChar && start < 0)
+        start = i;
+      else if (!wordChar && start >= 0) {
+        addTo(bytes, start, i - start, 1, ignoreCase);
+        start = -1;
+      }
+    }
+  }
+
+  // The n words with the highest counts, highest first. Only those n words
+  // become Strings; the selection runs over slot indexes in a min-heap
+  public java.util.List<MyMap.Entry<String, Long>> topN(int n) {
+    n = Math.min(n, size);
+    int[] heap = new int[n];
+    int heapSize = 0;
+
+    for (int slot = 0; slot < capacity; slot++) {
+      if (hashes[slot] == 0)
+        continue;
+
+      if (heapSize < n) {
+        heap[heapSize] = slot;
+        siftUp(heap, heapSize++);
+      }
+      else if (n > 0 && counts[slot] > counts[heap[0]]) {
+        heap[0] = slot;
+        siftDown(heap, heapSize);
+      }
+    }
+
+    MyMap.Entry<String, Long>[] result = new MyMap.Entry[heapSize];
+    while (heapSize > 0) {
+      int slot = heap[0];
+      result[--heapSize] = new MyMap.Entry<>(key(slot), counts[slot]);
+      heap[0] = heap[heapSize];
+      siftDown(heap, heapSize);
+    }
+
+    return java.util.Arrays.asList(result);
+  }
+
+  public void forEach(java.util.function.ObjLongConsumer<String> action) {
+    for (int slot = 0; slot < capacity; slot++)
+      if (hashes[slot] != 0)
+        action.accept(key(slot), counts[slot]);
+  }
+
+  // The bytes of all keys, including those of removed keys
+  public int getArenaBytes() {
+    return arenaLength;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    arenaLength = 0;
+    java.util.Arrays.fill(hashes, 0);
+  }
+
+  @Override
+  public boolean containsKey(String key) {
+    int length = encode(key);
+    return indexOf(scratch, 0, length, hash(scratch, 0, length, false),
+      false) >= 0;
+  }
+
+  @Override
+  public boolean containsValue(Long value) {
+    for (int slot = 0; slot < capacity; slot++)
+      if (hashes[slot] != 0 && counts[slot] == value)
+        return true;
+
+    return false;
+  }
+
+  @Override
+  public java.util.Set<MyMap.Entry<String, Long>> entrySet() {
+    java.util.Set<MyMap.Entry<String, Long>> set = new java.util.HashSet<>();
+    forEach((key, count) -> set.add(new MyMap.Entry<>(key, count)));
+    return set;
+  }
+
+  @Override
+  public Long get(String key) {
+    int length = encode(key);
+    int slot = indexOf(scratch, 0, length, hash(scratch, 0, length, false),
+      false);
+    return slot < 0 ? null : counts[slot];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public java.util.Set<String> keySet() {
+    java.util.Set<String> set = new java.util.HashSet<>();
+    forEach((key, count) -> set.add(key));
+    return set;
+  }
+
+  @Override
+  public Long put(String key, Long value) {
+    int length = encode(key);
+    int hash = hash(scratch, 0, length, false);
+    int slot = indexOf(scratch, 0, length, hash, false);
+    if (slot >= 0) {
+      long oldValue = counts[slot];
+      counts[slot] = value;
+      return oldValue;
+    }
+
+    insert(scratch, 0, length, hash, false, value);
+    return value;
+  }
+
+  // The key bytes stay in the arena until clear
+  @Override
+  public void remove(String key) {
+    int length = encode(key);
+    int slot = indexOf(scratch, 0, length, hash(scratch, 0, length, false),
+      false);
+    if (slot >= 0) {
+      shiftSlots(slot);
+      size--;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public java.util.Collection<Long> values() {
+    java.util.List<Long> list = new java.util.ArrayList<>();
+    forEach((key, count) -> list.add(count));
+    return list;
+  }
+
+  private long addTo(byte[] bytes, int offset, int length, long delta,
+      boolean fold) {
+    int hash = hash(bytes, offset, length, fold);
+    int slot = indexOf(bytes, offset, length, hash, fold);
+    if (slot >= 0)
+      return counts[slot] += delta;
+
+    insert(bytes, offset, length, hash, fold, delta);
+    return delta;
+  }
+
+  private int indexOf(byte[] bytes, int offset, int length, int hash,
+      boolean fold) {
+    int mask = capacity - 1;
+    int slot = hash & mask;
+    while (hashes[slot] != 0) {
+      if (hashes[slot] == hash && lengths[slot] == length &&
+          equalBytes(offsets[slot], bytes, offset, length, fold))
+        return slot;
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  private void insert(byte[] bytes, int offset, int length, int hash,
+      boolean fold, long count) {
+    if (size >= capacity * loadFactorThreshold || size + 1 >= capacity) {
+      if (capacity == MAXIMUM_CAPACITY)
+        throw new RuntimeException("Exceeding maximum capacity");
+
+      rehash();
+    }
+
+    if (arenaLength + length > arena.length)
+      arena = java.util.Arrays.copyOf(arena,
+        Math.max(arena.length * 2, arenaLength + length));
+    for (int i = 0; i < length; i++)
+      arena[arenaLength + i] = fold ? toLower(bytes[offset + i])
+        : bytes[offset + i];
+
+    int mask = capacity - 1;
+    int slot = hash & mask;
+    while (hashes[slot] != 0)
+      slot = (slot + 1) & mask;
+
+    hashes[slot] = hash;
+    offsets[slot] = arenaLength;
+    lengths[slot] = length;
+    counts[slot] = count;
+    arenaLength += length;
+    size++;
+  }
+
+  // Linear-probing deletion: move later slots of the same cluster back
+  // into the hole unless that would place them before their home slot
+  private void shiftSlots(int slot) {
+    int mask = capacity - 1;
+    while (true) {
+      int last = slot;
+      slot = (slot + 1) & mask;
+      int hash;
+      while (true) {
+        if ((hash = hashes[slot]) == 0) {
+          hashes[last] = 0;
+          return;
+        }
+
+        int home = hash & mask;
+        if (last <= slot ? last >= home || home > slot
+            : last >= home && home > slot)
+          break;
+        slot = (slot + 1) & mask;
+      }
+
+      hashes[last] = hash;
+      offsets[last] = offsets[slot];
+      lengths[last] = lengths[slot];
+      counts[last] = counts[slot];
+    }
+  }
+
+  private void rehash() {
+    int[] oldHashes = hashes;
+    int[] oldOffsets = offsets;
+    int[] oldLengths = lengths;
+    long[] oldCounts = counts;
+    int oldCapacity = capacity;
+    capacity <<= 1;
+    hashes = new int[capacity];
+    offsets = new int[capacity];
+    lengths = new int[capacity];
+    counts = new long[capacity];
+
+    int mask = capacity - 1;
+    for (int i = 0; i < oldCapacity; i++) {
+      if (oldHashes[i] != 0) {
+        int slot = oldHashes[i] & mask;
+        while (hashes[slot] != 0)
+          slot = (slot + 1) & mask;
+        hashes[slot] = oldHashes[i];
+        offsets[slot] = oldOffsets[i];
+        lengths[slot] = oldLengths[i];
+        counts[slot] = oldCounts[i];
+      }
+    }
+  }
+
+  private boolean equalBytes(int arenaOffset, byte[] bytes, int offset,
+      int length, boolean fold) {
+    for (int i = 0; i < length; i++) {
+      byte b = fold ? toLower(bytes[offset + i]) : bytes[offset + i];
+      if (arena[arenaOffset + i] != b)
+        return false;
+    }
+
+    return true;
+  }
+
+  // FNV-1a over the (folded) bytes followed by the murmur3 finalizer
+  private static int hash(byte[] bytes, int offset, int length,
+      boolean fold) {
+    int h = 0x811c9dc5;
+    for (int i = offset; i < offset + length; i++) {
+      h ^= fold ? toLower(bytes[i]) : bytes[i];
+      h *= 0x01000193;
+    }
+
+    return HashStrategy.murmur(h) | 0x80000000;
+  }
+
+  private int encode(CharSequence word) {
+    return encode(word, 0, word.length());
+  }
+
+  // Writes the UTF-8 bytes of word[start, end) to scratch, lowercasing
+  // ASCII letters if ignoreCase, and returns their number
+  private int encode(CharSequence word, int start, int end) {
+    if (scratch.length < 3 * (end - start))
+      scratch = new byte[Math.max(2 * scratch.length, 3 * (end - start))];
+
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      char c = word.charAt(i);
+      if (c < 0x80)
+        scratch[length++] = ignoreCase ? toLower((byte)c) : (byte)c;
+      else if (c < 0x800) {
+        scratch[length++] = (byte)(0xC0 | c >> 6);
+        scratch[length++] = (byte)(0x80 | c & 0x3F);
+      }
+      else if (Character.isHighSurrogate(c) && i + 1 < end &&
+          Character.isLowSurrogate(word.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, word.charAt(++i));
+        scratch[length++] = (byte)(0xF0 | codePoint >> 18);
+        scratch[length++] = (byte)(0x80 | codePoint >> 12 & 0x3F);
+        scratch[length++] = (byte)(0x80 | codePoint >> 6 & 0x3F);
+        scratch[length++] = (byte)(0x80 | codePoint & 0x3F);
+      }
+      else {
+        scratch[length++] = (byte)(0xE0 | c >> 12);
+        scratch[length++] = (byte)(0x80 | c >> 6 & 0x3F);
+        scratch[length++] = (byte)(0x80 | c & 0x3F);
+      }
+    }
+
+    return length;
+  }
+
+  private static byte toLower(byte b) {
+    return b >= 'A' && b <= 'Z' ? (byte)(b + ('a' - 'A')) : b;
+  }
+
+  private static boolean isWordChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '\'';
+  }
+
+  private static boolean isWordByte(byte b) {
+    return b < 0 || b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' ||
+      b >= '0' && b <= '9' || b == '\'';
+  }
+
+  private String key(int slot) {
+    return new String(arena, offsets[slot], lengths[slot],
+      StandardCharsets.UTF_8);
+  }
+
+  private void siftUp(int[] heap, int i) {
+    while (i > 0 && counts[heap[i]] < counts[heap[(i - 1) / 2]]) {
+      swap(heap, i, (i - 1) / 2);
+      i = (i - 1) / 2;
+    }
+  }
+
+  private void siftDown(int[] heap, int heapSize) {
+    int i = 0;
+    while (2 * i + 1 < heapSize) {
+      int child = 2 * i + 1;
+      if (child + 1 < heapSize && counts[heap[child + 1]] < counts[heap[child]])
+        child++;
+      if (counts[heap[i]] <= counts[heap[child]])
+        return;
+      swap(heap, i, child);
+      i = child;
+    }
+  }
+
+  private static void swap(int[] heap, int i, int j) {
+    int temp = heap[i];
+    heap[i] = heap[j];
+    heap[j] = temp;
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    forEach((key, count) -> builder.append("[" + key + ", " + count + "]"));
+    builder.append("]");
+    return builder.toString();
+  }
+}
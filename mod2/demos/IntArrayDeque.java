@@ -0,0 +1,185 @@
+import java.util.NoSuchElementException;
+
+// MyArrayDeque for int values, kept in an int[] without boxing. An int
+// has no null to return for an empty deque, so pollFirst, pollLast,
+// peekFirst and peekLast throw a NoSuchElementException instead; check
+// isEmpty first
+public class IntArrayDeque {
+  public static final int INITIAL_CAPACITY = 16;
+  private int[] data;
+  private int head = 0;
+  private int size = 0;
+  private int modCount = 0;
+
+  public IntArrayDeque() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public IntArrayDeque(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity && capacity < 1 << 30)
+      capacity <<= 1;
+    data = new int[capacity];
+  }
+
+  public IntArrayDeque(int[] values) {
+    this(values.length);
+    System.arraycopy(values, 0, data, 0, values.length);
+    size = values.length;
+  }
+
+  public void addFirst(int e) {
+    if (size == data.length)
+      grow();
+
+    head = (head - 1) & (data.length - 1);
+    data[head] = e;
+    size++;
+    modCount++;
+  }
+
+  public void addLast(int e) {
+    if (size == data.length)
+      grow();
+
+    data[(head + size) & (data.length - 1)] = e;
+    size++;
+    modCount++;
+  }
+
+  public int pollFirst() {
+    checkNotEmpty();
+    int e = data[head];
+    head = (head + 1) & (data.length - 1);
+    size--;
+    modCount++;
+    return e;
+  }
+
+  public int pollLast() {
+    checkNotEmpty();
+    size--;
+    modCount++;
+    return data[(head + size) & (data.length - 1)];
+  }
+
+  public int peekFirst() {
+    checkNotEmpty();
+    return data[head];
+  }
+
+  public int peekLast() {
+    checkNotEmpty();
+    return data[(head + size - 1) & (data.length - 1)];
+  }
+
+  // Queue and stack methods
+
+  public void offer(int e) {
+    addLast(e);
+  }
+
+  public int poll() {
+    return pollFirst();
+  }
+
+  public void push(int e) {
+    addFirst(e);
+  }
+
+  public int pop() {
+    return pollFirst();
+  }
+
+  // The index-th value from the first
+  public int get(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+    return data[(head + index) & (data.length - 1)];
+  }
+
+  public boolean contains(int e) {
+    for (int i = 0; i < size; i++)
+      if (data[(head + i) & (data.length - 1)] == e)
+        return true;
+
+    return false;
+  }
+
+  public void clear() {
+    head = 0;
+    size = 0;
+    modCount++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  // From first to last
+  public int[] toArray() {
+    int[] result = new int[size];
+    int firstPart = Math.min(size, data.length - head);
+    System.arraycopy(data, head, result, 0, firstPart);
+    System.arraycopy(data, 0, result, firstPart, size - firstPart);
+    return result;
+  }
+
+  // Copies the values in order to an array twice as long, starting at 0
+  private void grow() {
+    if (data.length == 1 << 30)
+      throw new IllegalStateException("Deque too large");
+
+    int[] newData = new int[data.length * 2];
+    int firstPart = Math.min(size, data.length - head);
+    System.arraycopy(data, head, newData, 0, firstPart);
+    System.arraycopy(data, 0, newData, firstPart, size - firstPart);
+    data = newData;
+    head = 0;
+  }
+
+  private void checkNotEmpty() {
+    if (size == 0)
+      throw new NoSuchElementException("Deque is empty");
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("[");
+
+    for (int i = 0; i < size; i++) {
+      result.append(data[(head + i) & (data.length - 1)]);
+      if (i < size - 1) result.append(", ");
+    }
+
+    return result.toString() + "]";
+  }
+
+  // From first to last, without boxing if nextInt is used
+  public java.util.PrimitiveIterator.OfInt iterator() {
+    return new java.util.PrimitiveIterator.OfInt() {
+      private int current = 0;
+      private int expectedModCount = modCount;
+
+      @Override
+      public boolean hasNext() {
+        return current < size;
+      }
+
+      @Override
+      public int nextInt() {
+        if (modCount != expectedModCount)
+          throw new java.util.ConcurrentModificationException();
+        if (current >= size)
+          throw new NoSuchElementException();
+
+        return data[(head + current++) & (data.length - 1)];
+      }
+    };
+  }
+}
@@ -0,0 +1,185 @@
+import java.util.Arrays;
+
+// A list of long values kept in a long[], without boxing. The methods
+// follow MyList, except that remove(int) removes by index only and
+// removeValue removes a value
+public class LongArrayList {
+  public static final int INITIAL_CAPACITY = 16;
+  private long[] data;
+  private int size = 0;
+
+  public LongArrayList() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public LongArrayList(int initialCapacity) {
+    data = new long[initialCapacity];
+  }
+
+  public LongArrayList(long[] values) {
+    data = Arrays.copyOf(values, Math.max(values.length, INITIAL_CAPACITY));
+    size = values.length;
+  }
+
+  public void add(long e) {
+    ensureCapacity(size + 1);
+    data[size++] = e;
+  }
+
+  public void add(int index, long e) {
+    if (index < 0 || index > size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+
+    ensureCapacity(size + 1);
+    System.arraycopy(data, index, data, index + 1, size - index);
+    data[index] = e;
+    size++;
+  }
+
+  public void addAll(long[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  // Adds values[offset, offset + length)
+  public void addAll(long[] values, int offset, int length) {
+    ensureCapacity(size + length);
+    System.arraycopy(values, offset, data, size, length);
+    size += length;
+  }
+
+  public void addAll(LongArrayList list) {
+    addAll(list.data, 0, list.size);
+  }
+
+  // Grows the array at least to minCapacity, and at least twice as long,
+  // so that adding n values one by one copies O(n) values in total
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > data.length)
+      data = Arrays.copyOf(data, Math.max(minCapacity, data.length * 2 + 1));
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public boolean contains(long e) {
+    return indexOf(e) >= 0;
+  }
+
+  public long get(int index) {
+    checkIndex(index);
+    return data[index];
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+  }
+
+  public int indexOf(long e) {
+    for (int i = 0; i < size; i++)
+      if (data[i] == e) return i;
+
+    return -1;
+  }
+
+  public int lastIndexOf(long e) {
+    for (int i = size - 1; i >= 0; i--)
+      if (data[i] == e) return i;
+
+    return -1;
+  }
+
+  // Removes the value at index and returns it
+  public long remove(int index) {
+    checkIndex(index);
+
+    long e = data[index];
+    System.arraycopy(data, index + 1, data, index, size - index - 1);
+    size--;
+
+    return e;
+  }
+
+  // Removes the first occurrence of e
+  public boolean removeValue(long e) {
+    int index = indexOf(e);
+    if (index < 0)
+      return false;
+
+    remove(index);
+    return true;
+  }
+
+  public long set(int index, long e) {
+    checkIndex(index);
+    long old = data[index];
+    data[index] = e;
+    return old;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  // Sorts the values in increasing order
+  public void sort() {
+    Arrays.sort(data, 0, size);
+  }
+
+  // Returns the index of e in a sorted list, or -(insertion point) - 1 if
+  // e is not in it, as Arrays.binarySearch does
+  public int binarySearch(long e) {
+    return Arrays.binarySearch(data, 0, size, e);
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(data, size);
+  }
+
+  // A stream over the values, for sum, max and the like without boxing.
+  // The list must not change while the stream is used
+  public java.util.stream.LongStream stream() {
+    return Arrays.stream(data, 0, size);
+  }
+
+  public void trimToSize() {
+    if (size != data.length)
+      data = Arrays.copyOf(data, size);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof LongArrayList))
+      return false;
+
+    LongArrayList list = (LongArrayList)other;
+    return Arrays.equals(data, 0, size, list.data, 0, list.size);
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    for (int i = 0; i < size; i++)
+      hashCode = 31 * hashCode + Long.hashCode(data[i]);
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("[");
+
+    for (int i = 0; i < size; i++) {
+      result.append(data[i]);
+      if (i < size - 1) result.append(", ");
+    }
+
+    return result.toString() + "]";
+  }
+}
@@ -0,0 +1,307 @@
+// A double-ended queue in a circular array. The elements run from head
+// around the end of the array back to its start, and the array length is
+// a power of two, so an index wraps around with a mask instead of a
+// division. Adding or removing at either end moves no other element and,
+// until the array has to grow, allocates nothing. As a MyList it also
+// gives O(1) get and set; add and remove at an index shift the elements
+// on the shorter side. Null elements are not allowed, so that pollFirst
+// and pollLast can return null for an empty deque
+public class MyArrayDeque<E> implements MyList<E> {
+  public static final int INITIAL_CAPACITY = 16;
+  private E[] elements;
+  private int head = 0;
+  private int size = 0;
+  // Counts structural changes so that iterators can fail fast
+  private int modCount = 0;
+
+  public MyArrayDeque() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public MyArrayDeque(int initialCapacity) {
+    elements = (E[])new Object[trimToPowerOf2(initialCapacity)];
+  }
+
+  public MyArrayDeque(E[] objects) {
+    this(objects.length);
+    for (int i = 0; i < objects.length; i++)
+      addLast(objects[i]);
+  }
+
+  public void addFirst(E e) {
+    checkNotNull(e);
+    if (size == elements.length)
+      grow();
+
+    head = (head - 1) & (elements.length - 1);
+    elements[head] = e;
+    size++;
+    modCount++;
+  }
+
+  public void addLast(E e) {
+    checkNotNull(e);
+    if (size == elements.length)
+      grow();
+
+    elements[(head + size) & (elements.length - 1)] = e;
+    size++;
+    modCount++;
+  }
+
+  // Returns null if the deque is empty
+  public E pollFirst() {
+    if (size == 0)
+      return null;
+
+    E e = elements[head];
+    elements[head] = null;
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    modCount++;
+    return e;
+  }
+
+  public E pollLast() {
+    if (size == 0)
+      return null;
+
+    int last = (head + size - 1) & (elements.length - 1);
+    E e = elements[last];
+    elements[last] = null;
+    size--;
+    modCount++;
+    return e;
+  }
+
+  public E peekFirst() {
+    return elements[head];
+  }
+
+  public E peekLast() {
+    return elements[(head + size - 1) & (elements.length - 1)];
+  }
+
+  // Queue and stack methods
+
+  public boolean offer(E e) {
+    addLast(e);
+    return true;
+  }
+
+  public E poll() {
+    return pollFirst();
+  }
+
+  public E peek() {
+    return peekFirst();
+  }
+
+  public void push(E e) {
+    addFirst(e);
+  }
+
+  public E pop() {
+    if (size == 0)
+      throw new java.util.NoSuchElementException();
+    return pollFirst();
+  }
+
+  @Override
+  public boolean add(E e) {
+    addLast(e);
+    return true;
+  }
+
+  @Override
+  public void add(int index, E e) {
+    if (index < 0 || index > size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+
+    if (index == size) {
+      addLast(e);
+      return;
+    }
+    checkNotNull(e);
+    if (size == elements.length)
+      grow();
+
+    int mask = elements.length - 1;
+    if (index < size / 2) {
+      // Move the first index elements one place to the front
+      head = (head - 1) & mask;
+      for (int i = 0; i < index; i++)
+        elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+    }
+    else {
+      for (int i = size; i > index; i--)
+        elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+    }
+
+    elements[(head + index) & mask] = e;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public E remove(int index) {
+    checkIndex(index);
+
+    int mask = elements.length - 1;
+    E e = elements[(head + index) & mask];
+    if (index < size / 2) {
+      for (int i = index; i > 0; i--)
+        elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+      elements[head] = null;
+      head = (head + 1) & mask;
+    }
+    else {
+      for (int i = index; i < size - 1; i++)
+        elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+      elements[(head + size - 1) & mask] = null;
+    }
+
+    size--;
+    modCount++;
+    return e;
+  }
+
+  @Override
+  public E get(int index) {
+    checkIndex(index);
+    return elements[(head + index) & (elements.length - 1)];
+  }
+
+  @Override
+  public E set(int index, E e) {
+    checkIndex(index);
+    checkNotNull(e);
+    int i = (head + index) & (elements.length - 1);
+    E old = elements[i];
+    elements[i] = e;
+    return old;
+  }
+
+  @Override
+  public int indexOf(Object e) {
+    for (int i = 0; i < size; i++)
+      if (elements[(head + i) & (elements.length - 1)].equals(e))
+        return i;
+
+    return -1;
+  }
+
+  @Override
+  public int lastIndexOf(E e) {
+    for (int i = size - 1; i >= 0; i--)
+      if (elements[(head + i) & (elements.length - 1)].equals(e))
+        return i;
+
+    return -1;
+  }
+
+  @Override
+  public boolean contains(Object e) {
+    return indexOf(e) >= 0;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++)
+      elements[(head + i) & (elements.length - 1)] = null;
+    head = 0;
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  // Copies the elements in order to an array twice as long, starting at 0
+  private void grow() {
+    if (elements.length == 1 << 30)
+      throw new IllegalStateException("Deque too large");
+
+    E[] newElements = (E[])new Object[elements.length * 2];
+    int firstPart = Math.min(size, elements.length - head);
+    System.arraycopy(elements, head, newElements, 0, firstPart);
+    System.arraycopy(elements, 0, newElements, firstPart, size - firstPart);
+    elements = newElements;
+    head = 0;
+  }
+
+  private int trimToPowerOf2(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity && capacity < 1 << 30) {
+      capacity <<= 1;
+    }
+
+    return capacity;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+  }
+
+  private void checkNotNull(E e) {
+    if (e == null)
+      throw new NullPointerException("MyArrayDeque does not allow null");
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("[");
+
+    for (int i = 0; i < size; i++) {
+      result.append(elements[(head + i) & (elements.length - 1)]);
+      if (i < size - 1) result.append(", ");
+    }
+
+    return result.toString() + "]";
+  }
+
+  // From first to last
+  @Override
+  public java.util.Iterator<E> iterator() {
+    return new ArrayDequeIterator();
+  }
+
+  private class ArrayDequeIterator implements java.util.Iterator<E> {
+    private int current = 0;
+    private boolean canRemove = false;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return current < size;
+    }
+
+    @Override
+    public E next() {
+      if (modCount != expectedModCount)
+        throw new java.util.ConcurrentModificationException();
+      if (current >= size)
+        throw new java.util.NoSuchElementException();
+
+      canRemove = true;
+      return elements[(head + current++) & (elements.length - 1)];
+    }
+
+    @Override
+    public void remove() {
+      if (!canRemove)
+        throw new IllegalStateException();
+      if (modCount != expectedModCount)
+        throw new java.util.ConcurrentModificationException();
+
+      canRemove = false;
+      MyArrayDeque.this.remove(--current);
+      expectedModCount = modCount;
+    }
+  }
+}
@@ -1,3 +1,5 @@
+import java.util.Collection;
+
 public class MyArrayList<E> implements MyList<E> {
   public static final int INITIAL_CAPACITY = 16;
   private E[] data = (E[])new Object[INITIAL_CAPACITY];
@@ -6,9 +8,14 @@ public class MyArrayList<E> implements MyList<E> {
   public MyArrayList() {
   }
 
+  public MyArrayList(int initialCapacity) {
+    data = (E[])new Object[initialCapacity];
+  }
+
   public MyArrayList(E[] objects) {
-    for (int i = 0; i < objects.length; i++)
-      add(objects[i]);
+    data = (E[])java.util.Arrays.copyOf(objects,
+      Math.max(objects.length, INITIAL_CAPACITY), Object[].class);
+    size = objects.length;
   }
 
   @Override
@@ -17,27 +24,51 @@ public class MyArrayList<E> implements MyList<E> {
       throw new IndexOutOfBoundsException
         ("Index: " + index + ", Size: " + size);
     
-    ensureCapacity();
+    ensureCapacity(size + 1);
 
-    for (int i = size - 1; i >= index; i--)
-      data[i + 1] = data[i];
+    System.arraycopy(data, index, data, index + 1, size - index);
 
     data[index] = e;
 
     size++;
   }
 
-  private void ensureCapacity() {
-    if (size >= data.length) {
-      E[] newData = (E[])(new Object[size * 2 + 1]);
-      System.arraycopy(data, 0, newData, 0, size);
-      data = newData;
-    }
+  // Adds the elements of c in the order of its iterator
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    return addAll(size, c);
   }
 
+  // Inserts the elements of c at index, moving the elements after index
+  // only once
+  public boolean addAll(int index, Collection<? extends E> c) {
+    if (index < 0 || index > size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+
+    Object[] elements = c.toArray();
+    ensureCapacity(size + elements.length);
+    System.arraycopy(data, index, data, index + elements.length,
+      size - index);
+    System.arraycopy(elements, 0, data, index, elements.length);
+    size += elements.length;
+
+    return elements.length > 0;
+  }
+
+  // Grows the array at least to minCapacity, and at least twice as long,
+  // so that adding n elements one by one copies O(n) elements in total
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > data.length)
+      data = java.util.Arrays.copyOf(data,
+        Math.max(minCapacity, data.length * 2 + 1));
+  }
+
+  // Keeps the array for the elements to come, but drops the references so
+  // that the old elements can be garbage collected
   @Override
   public void clear() {
-    data = (E[])new Object[INITIAL_CAPACITY];
+    java.util.Arrays.fill(data, 0, size, null);
     size = 0;
   }
 
@@ -83,8 +114,7 @@ public class MyArrayList<E> implements MyList<E> {
     
     E e = data[index];
 
-    for (int j = index; j < size - 1; j++)
-      data[j] = data[j + 1];
+    System.arraycopy(data, index + 1, data, index, size - index - 1);
 
     data[size - 1] = null;
 
@@ -93,6 +123,77 @@ public class MyArrayList<E> implements MyList<E> {
     return e;
   }
 
+  // Removes the elements from fromIndex, inclusive, to toIndex, exclusive
+  public void removeRange(int fromIndex, int toIndex) {
+    if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+      throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " +
+        toIndex + ", Size: " + size);
+
+    System.arraycopy(data, toIndex, data, fromIndex, size - toIndex);
+    java.util.Arrays.fill(data, size - (toIndex - fromIndex), size, null);
+    size -= toIndex - fromIndex;
+  }
+
+  // Moves every element that is kept to its final place in one pass,
+  // instead of shifting the rest of the list once per removed element. If
+  // filter throws, the elements not yet tested are kept
+  @Override
+  public boolean removeIf(java.util.function.Predicate<? super E> filter) {
+    int kept = 0;
+    int i = 0;
+    try {
+      for (; i < size; i++)
+        if (!filter.test(data[i]))
+          data[kept++] = data[i];
+    }
+    finally {
+      System.arraycopy(data, i, data, kept, size - i);
+      kept += size - i;
+      java.util.Arrays.fill(data, kept, size, null);
+      size = kept;
+    }
+
+    return i != kept;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    return removeIf(c::contains);
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    return removeIf(e -> !c.contains(e));
+  }
+
+  public void replaceAll(java.util.function.UnaryOperator<E> operator) {
+    for (int i = 0; i < size; i++)
+      data[i] = operator.apply(data[i]);
+  }
+
+  // Sorts in place with Arrays.sort, which is stable; a null comparator
+  // sorts by natural order
+  public void sort(java.util.Comparator<? super E> c) {
+    java.util.Arrays.sort(data, 0, size, c);
+  }
+
+  @Override
+  public Object[] toArray() {
+    return java.util.Arrays.copyOf(data, size, Object[].class);
+  }
+
+  @Override
+  public <T> T[] toArray(T[] array) {
+    if (array.length < size)
+      return (T[])java.util.Arrays.copyOf(data, size, array.getClass());
+
+    System.arraycopy(data, 0, array, 0, size);
+    if (array.length > size)
+      array[size] = null;
+
+    return array;
+  }
+
   @Override
   public E set(int index, E e) {
     checkIndex(index);
@@ -115,9 +216,7 @@ public class MyArrayList<E> implements MyList<E> {
 
   public void trimToSize() {
     if (size != data.length) { 
-      E[] newData = (E[])(new Object[size]);
-      System.arraycopy(data, 0, newData, 0, size);
-      data = newData;
+      data = java.util.Arrays.copyOf(data, size);
     }
   }
 
@@ -0,0 +1,84 @@
+public class MyArrayListBenchmark {
+  private final static int SIZE = 100_000;
+
+  public static void main(String[] args) {
+    Integer[] values = new Integer[SIZE];
+    for (int i = 0; i < SIZE; i++)
+      values[i] = i;
+    java.util.List<Integer> more = java.util.Arrays.asList(values);
+
+    // The bulk operations give the same lists as the loops
+    MyArrayList<Integer> list1 = new MyArrayList<>(values);
+    MyArrayList<Integer> list2 = new MyArrayList<>(values);
+    list1.addAll(10, java.util.Arrays.asList(-1, -2, -3));
+    for (int i = 0; i < 3; i++)
+      list2.add(10 + i, -1 - i);
+    list1.removeIf(e -> e % 3 == 0);
+    for (int i = list2.size() - 1; i >= 0; i--)
+      if (list2.get(i) % 3 == 0)
+        list2.remove(i);
+    list1.removeRange(5, 500);
+    for (int i = 5; i < 500; i++)
+      list2.remove(5);
+    list1.replaceAll(e -> -e);
+    for (int i = 0; i < list2.size(); i++)
+      list2.set(i, -list2.get(i));
+    System.out.println("Same lists? " +
+      java.util.Arrays.equals(list1.toArray(), list2.toArray(new Integer[0])) +
+      ", size " + list1.size());
+    list1.sort(null);
+    boolean sorted = true;
+    for (int i = 1; i < list1.size(); i++)
+      sorted &= list1.get(i - 1) <= list1.get(i);
+    System.out.println("Sorted? " + sorted);
+
+    for (int round = 0; round < 5; round++) {
+      MyArrayList<Integer> list = new MyArrayList<>(values);
+      long startTime = System.nanoTime();
+      for (int i = 0; i < SIZE; i++)
+        list.add(SIZE / 2 + i, values[i]);
+      long insertLoop = System.nanoTime() - startTime;
+
+      list = new MyArrayList<>(values);
+      startTime = System.nanoTime();
+      list.addAll(SIZE / 2, more);
+      long insertBulk = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = list.size() - 1; i >= 0; i--)
+        if (list.get(i) % 2 == 0)
+          list.remove(i);
+      long removeLoop = System.nanoTime() - startTime;
+
+      list = new MyArrayList<>(values);
+      list.addAll(SIZE / 2, more);
+      startTime = System.nanoTime();
+      list.removeIf(e -> e % 2 == 0);
+      long removeBulk = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < SIZE / 2; i++)
+        list.remove(0);
+      long rangeLoop = System.nanoTime() - startTime;
+
+      list = new MyArrayList<>(values);
+      list.addAll(SIZE / 2, more);
+      list.removeIf(e -> e % 2 == 0);
+      startTime = System.nanoTime();
+      list.removeRange(0, SIZE / 2);
+      long rangeBulk = System.nanoTime() - startTime;
+
+      if (round == 4) {
+        System.out.printf("%-36s %10s %10s%n", "", "loop", "bulk");
+        print("insert " + SIZE + " in the middle", insertLoop, insertBulk);
+        print("remove every even value", removeLoop, removeBulk);
+        print("remove the first " + SIZE / 2, rangeLoop, rangeBulk);
+      }
+    }
+  }
+
+  private static void print(String operation, long loopTime, long bulkTime) {
+    System.out.printf("%-36s %7.1f ms %7.2f ms%n", operation, loopTime / 1e6,
+      bulkTime / 1e6);
+  }
+}
@@ -195,6 +195,10 @@ public class MyLinkedList<E> implements MyList<E> {
   private class LinkedListIterator 
       implements java.util.Iterator<E> {
     private Node<E> current = head;
+    // The node next returned last, and the node before it, so that
+    // remove can unlink it without going back to the head
+    private Node<E> lastReturned;
+    private Node<E> previous;
     
     @Override
     public boolean hasNext() {
@@ -203,13 +207,29 @@ public class MyLinkedList<E> implements MyList<E> {
 
     @Override
     public E next() {
-      E e = current.element;
+      if (current == null)
+        throw new java.util.NoSuchElementException();
+
+      if (lastReturned != null)
+        previous = lastReturned;
+      lastReturned = current;
       current = current.next;
-      return e;
+      return lastReturned.element;
     }
 
     @Override
     public void remove() {
+      if (lastReturned == null)
+        throw new IllegalStateException();
+
+      if (previous == null)
+        head = current;
+      else
+        previous.next = current;
+      if (lastReturned == tail)
+        tail = previous;
+      size--;
+      lastReturned = null;
     }
   }
   
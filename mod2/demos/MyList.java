@@ -31,31 +31,69 @@ public interface MyList<E> extends Collection<E> {
 
   @Override
   public default boolean containsAll(Collection<?> c) {
+    for (Object e: c)
+      if (!contains(e))
+        return false;
+
     return true;
   }
 
   @Override
   public default boolean addAll(Collection<? extends E> c) {
-    return true;
+    for (E e: c)
+      add(e);
+
+    return !c.isEmpty();
   }
 
+  // Removes through the iterator, so that a linked list is walked once
   @Override
   public default boolean removeAll(Collection<?> c) {
-    return true;
+    boolean changed = false;
+    java.util.Iterator<E> iterator = iterator();
+    while (iterator.hasNext())
+      if (c.contains(iterator.next())) {
+        iterator.remove();
+        changed = true;
+      }
+
+    return changed;
   }
 
   @Override
   public default boolean retainAll(Collection<?> c) {
-    return true;
+    boolean changed = false;
+    java.util.Iterator<E> iterator = iterator();
+    while (iterator.hasNext())
+      if (!c.contains(iterator.next())) {
+        iterator.remove();
+        changed = true;
+      }
+
+    return changed;
   }
 
   @Override
   public default Object[] toArray() {
-    return null;
+    Object[] array = new Object[size()];
+    int i = 0;
+    for (E e: this)
+      array[i++] = e;
+
+    return array;
   }
 
   @Override
   public default <T> T[] toArray(T[] array) {
-    return null;
+    if (array.length < size())
+      array = java.util.Arrays.copyOf(array, size());
+
+    int i = 0;
+    for (E e: this)
+      array[i++] = (T)e;
+    if (array.length > size())
+      array[size()] = null;
+
+    return array;
   }
 }
\ No newline at end of file
@@ -0,0 +1,350 @@
+// A linked list whose nodes each hold up to nodeCapacity elements in an
+// array. A walk to an index follows one link per node instead of one per
+// element, and inserting or removing in the middle only shifts the
+// elements of one node. Every node but the last is kept at least half
+// full, so a list of n elements has at most 2n / nodeCapacity + 1 nodes.
+// The list remembers the node of the last index it found, its finger, and
+// starts the next walk from the finger, the head or the tail, whichever is
+// nearest, so a loop over get(i) takes O(1) per step
+public class MyUnrolledLinkedList<E> implements MyList<E> {
+  public static final int DEFAULT_NODE_CAPACITY = 64;
+  private final int nodeCapacity;
+  private Node<E> head, tail;
+  private int size = 0;
+  // Counts structural changes so that iterators can fail fast
+  private int modCount = 0;
+  // The node found last and the index of its first element; finger is
+  // null when no node is cached
+  private Node<E> finger;
+  private int fingerStart;
+
+  public MyUnrolledLinkedList() {
+    this(DEFAULT_NODE_CAPACITY);
+  }
+
+  public MyUnrolledLinkedList(int nodeCapacity) {
+    if (nodeCapacity < 2)
+      throw new IllegalArgumentException("nodeCapacity must be at least 2");
+    this.nodeCapacity = nodeCapacity;
+  }
+
+  public MyUnrolledLinkedList(E[] objects) {
+    this();
+    for (int i = 0; i < objects.length; i++)
+      add(objects[i]);
+  }
+
+  @Override
+  public void add(int index, E e) {
+    if (index < 0 || index > size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+
+    if (index == size) {
+      // Appending fills the last node before starting another
+      if (tail == null || tail.count == nodeCapacity)
+        linkAfter(tail, new Node<E>(nodeCapacity));
+      tail.elements[tail.count++] = e;
+      finger = tail;
+      fingerStart = size - tail.count + 1;
+    }
+    else {
+      Node<E> node = nodeOf(index);
+      int offset = index - fingerStart;
+      if (node.count == nodeCapacity) {
+        split(node);
+        if (offset > node.count) {
+          offset -= node.count;
+          fingerStart += node.count;
+          node = node.next;
+          finger = node;
+        }
+      }
+      System.arraycopy(node.elements, offset, node.elements, offset + 1,
+        node.count - offset);
+      node.elements[offset] = e;
+      node.count++;
+    }
+
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public E remove(int index) {
+    checkIndex(index);
+    Node<E> node = nodeOf(index);
+    return removeAt(node, index - fingerStart);
+  }
+
+  // Removes the element at offset of node, whose first element is at
+  // fingerStart, and keeps the node at least half full by taking from or
+  // merging with the next node
+  private E removeAt(Node<E> node, int offset) {
+    E e = (E)node.elements[offset];
+    System.arraycopy(node.elements, offset + 1, node.elements, offset,
+      node.count - offset - 1);
+    node.elements[--node.count] = null;
+    size--;
+    modCount++;
+
+    Node<E> next = node.next;
+    if (node.count == 0) {
+      unlink(node);
+      finger = next;
+    }
+    else if (node.count < nodeCapacity / 2 && next != null) {
+      if (next.count > nodeCapacity / 2) {
+        node.elements[node.count++] = next.elements[0];
+        System.arraycopy(next.elements, 1, next.elements, 0, next.count - 1);
+        next.elements[--next.count] = null;
+      }
+      else {
+        System.arraycopy(next.elements, 0, node.elements, node.count,
+          next.count);
+        node.count += next.count;
+        unlink(next);
+      }
+    }
+
+    if (finger == null)
+      fingerStart = 0;
+    return e;
+  }
+
+  @Override
+  public E get(int index) {
+    checkIndex(index);
+    Node<E> node = nodeOf(index);
+    return (E)node.elements[index - fingerStart];
+  }
+
+  @Override
+  public E set(int index, E e) {
+    checkIndex(index);
+    Node<E> node = nodeOf(index);
+    E old = (E)node.elements[index - fingerStart];
+    node.elements[index - fingerStart] = e;
+    return old;
+  }
+
+  @Override
+  public int indexOf(Object e) {
+    int start = 0;
+    for (Node<E> node = head; node != null; node = node.next) {
+      for (int i = 0; i < node.count; i++)
+        if (java.util.Objects.equals(e, node.elements[i]))
+          return start + i;
+      start += node.count;
+    }
+
+    return -1;
+  }
+
+  @Override
+  public int lastIndexOf(E e) {
+    int start = size;
+    for (Node<E> node = tail; node != null; node = node.previous) {
+      start -= node.count;
+      for (int i = node.count - 1; i >= 0; i--)
+        if (java.util.Objects.equals(e, node.elements[i]))
+          return start + i;
+    }
+
+    return -1;
+  }
+
+  @Override
+  public boolean contains(Object e) {
+    return indexOf(e) >= 0;
+  }
+
+  @Override
+  public void clear() {
+    head = tail = finger = null;
+    fingerStart = 0;
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  // The number of nodes, for seeing how full they are
+  public int getNodeCount() {
+    int count = 0;
+    for (Node<E> node = head; node != null; node = node.next)
+      count++;
+    return count;
+  }
+
+  // Returns the node that holds index and leaves it in finger, with the
+  // index of its first element in fingerStart. The walk starts from the
+  // head, the tail or the finger, whichever is closest to index
+  private Node<E> nodeOf(int index) {
+    Node<E> node;
+    int start;
+    if (finger != null &&
+        Math.abs(index - fingerStart) < Math.min(index, size - index)) {
+      node = finger;
+      start = fingerStart;
+    }
+    else if (index < size - index) {
+      node = head;
+      start = 0;
+    }
+    else {
+      node = tail;
+      start = size - tail.count;
+    }
+
+    while (index < start) {
+      node = node.previous;
+      start -= node.count;
+    }
+    while (index >= start + node.count) {
+      start += node.count;
+      node = node.next;
+    }
+
+    finger = node;
+    fingerStart = start;
+    return node;
+  }
+
+  // Moves the second half of a full node into a new node after it
+  private void split(Node<E> node) {
+    Node<E> newNode = new Node<>(nodeCapacity);
+    int half = node.count / 2;
+    System.arraycopy(node.elements, half, newNode.elements, 0,
+      node.count - half);
+    java.util.Arrays.fill(node.elements, half, node.count, null);
+    newNode.count = node.count - half;
+    node.count = half;
+    linkAfter(node, newNode);
+  }
+
+  // Links newNode after node, or as the only node if node is null
+  private void linkAfter(Node<E> node, Node<E> newNode) {
+    newNode.previous = node;
+    if (node == null) {
+      head = tail = newNode;
+      return;
+    }
+
+    newNode.next = node.next;
+    if (node.next != null)
+      node.next.previous = newNode;
+    else
+      tail = newNode;
+    node.next = newNode;
+  }
+
+  private void unlink(Node<E> node) {
+    if (node.previous != null)
+      node.previous.next = node.next;
+    else
+      head = node.next;
+    if (node.next != null)
+      node.next.previous = node.previous;
+    else
+      tail = node.previous;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException
+        ("Index: " + index + ", Size: " + size);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("[");
+
+    for (Node<E> node = head; node != null; node = node.next)
+      for (int i = 0; i < node.count; i++) {
+        result.append(node.elements[i]);
+        if (node.next != null || i < node.count - 1)
+          result.append(", ");
+      }
+
+    return result.toString() + "]";
+  }
+
+  @Override
+  public java.util.Iterator<E> iterator() {
+    return new UnrolledListIterator();
+  }
+
+  private class UnrolledListIterator implements java.util.Iterator<E> {
+    private Node<E> node = head;
+    // The offset in node of the next element
+    private int offset = 0;
+    // The index of the next element
+    private int index = 0;
+    private boolean canRemove = false;
+    private int expectedModCount = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public E next() {
+      checkForComodification();
+      if (index >= size)
+        throw new java.util.NoSuchElementException();
+
+      if (offset == node.count) {
+        node = node.next;
+        offset = 0;
+      }
+      canRemove = true;
+      index++;
+      return (E)node.elements[offset++];
+    }
+
+    // Removes the element returned by the last call to next
+    @Override
+    public void remove() {
+      if (!canRemove)
+        throw new IllegalStateException();
+      checkForComodification();
+
+      canRemove = false;
+      index--;
+      offset--;
+      finger = node;
+      fingerStart = index - offset;
+      Node<E> next = node.next;
+      removeAt(node, offset);
+      expectedModCount = modCount;
+
+      // The node may have been unlinked, if it became empty, or have taken
+      // elements from the next node, which the offset still points at
+      if (node.count == 0) {
+        node = next;
+        offset = 0;
+      }
+    }
+
+    private void checkForComodification() {
+      if (modCount != expectedModCount)
+        throw new java.util.ConcurrentModificationException();
+    }
+  }
+
+  private static class Node<E> {
+    Object[] elements;
+    int count;
+    Node<E> previous;
+    Node<E> next;
+
+    Node(int capacity) {
+      elements = new Object[capacity];
+    }
+  }
+}
@@ -0,0 +1,97 @@
+import java.lang.management.ManagementFactory;
+
+// Offers and polls values through a queue that holds about QUEUE_SIZE of
+// them, as a breadth-first search does, and reports the time and the bytes
+// allocated per operation for java.util.LinkedList, java.util.ArrayDeque,
+// MyArrayDeque and IntArrayDeque
+public class QueueThroughputBenchmark {
+  private final static int QUEUE_SIZE = 1000;
+  private final static int OPERATIONS = 10_000_000;
+
+  public static void main(String[] args) {
+    // Boxed once here, so that the generic queues are only charged for
+    // their own allocation; a search over more than 128 vertices would
+    // also box each value it offers
+    Integer[] values = new Integer[QUEUE_SIZE * 2];
+    for (int i = 0; i < values.length; i++)
+      values[i] = i;
+
+    System.out.printf("%-22s %10s %12s %10s%n", "", "time", "ops/s",
+      "bytes/op");
+    for (int round = 0; round < 5; round++) {
+      boolean print = round == 4;
+      long check1 = run("java.util.LinkedList", new java.util.LinkedList<>(),
+        values, print);
+      long check2 = run("java.util.ArrayDeque", new java.util.ArrayDeque<>(),
+        values, print);
+      long check3 = run("MyArrayDeque", values, print);
+      long check4 = run("IntArrayDeque", print);
+      if (check1 != check2 || check1 != check3 || check1 != check4)
+        System.out.println("Different results!");
+    }
+  }
+
+  private static long run(String name, java.util.Queue<Integer> queue,
+      Integer[] values, boolean print) {
+    long bytes = allocatedBytes();
+    long startTime = System.nanoTime();
+    long sum = 0;
+    for (int i = 0; i < QUEUE_SIZE; i++)
+      queue.offer(values[i]);
+    for (int i = 0; i < OPERATIONS; i++) {
+      int e = queue.poll();
+      sum += e;
+      queue.offer(values[(e + QUEUE_SIZE) % values.length]);
+    }
+    report(name, startTime, bytes, print);
+    return sum;
+  }
+
+  private static long run(String name, Integer[] values, boolean print) {
+    MyArrayDeque<Integer> queue = new MyArrayDeque<>();
+    long bytes = allocatedBytes();
+    long startTime = System.nanoTime();
+    long sum = 0;
+    for (int i = 0; i < QUEUE_SIZE; i++)
+      queue.offer(values[i]);
+    for (int i = 0; i < OPERATIONS; i++) {
+      int e = queue.poll();
+      sum += e;
+      queue.offer(values[(e + QUEUE_SIZE) % values.length]);
+    }
+    report(name, startTime, bytes, print);
+    return sum;
+  }
+
+  private static long run(String name, boolean print) {
+    IntArrayDeque queue = new IntArrayDeque();
+    long bytes = allocatedBytes();
+    long startTime = System.nanoTime();
+    long sum = 0;
+    for (int i = 0; i < QUEUE_SIZE; i++)
+      queue.offer(i);
+    for (int i = 0; i < OPERATIONS; i++) {
+      int e = queue.poll();
+      sum += e;
+      queue.offer((e + QUEUE_SIZE) % (QUEUE_SIZE * 2));
+    }
+    report(name, startTime, bytes, print);
+    return sum;
+  }
+
+  private static void report(String name, long startTime, long bytes,
+      boolean print) {
+    long time = System.nanoTime() - startTime;
+    bytes = allocatedBytes() - bytes;
+    if (print)
+      System.out.printf("%-22s %7.1f ms %12.3g %10.2f%n", name, time / 1e6,
+        OPERATIONS * 2 / (time / 1e9), (double)bytes / OPERATIONS / 2);
+  }
+
+  // Bytes allocated so far by this thread
+  private static long allocatedBytes() {
+    return ((com.sun.management.ThreadMXBean)ManagementFactory
+      .getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread()
+      .getId());
+  }
+}
@@ -0,0 +1,97 @@
+public class TestMyArrayDeque {
+  public static void main(String[] args) {
+    MyArrayDeque<String> deque = new MyArrayDeque<>(4);
+    deque.addLast("America");
+    deque.addFirst("Canada");
+    deque.addLast("Russia");
+    deque.addFirst("France");
+    deque.add(2, "Germany");
+    deque.addLast("Norway");
+    System.out.println(deque);
+    System.out.println("pollFirst " + deque.pollFirst() + ", pollLast " +
+      deque.pollLast() + ", get(1) " + deque.get(1));
+    System.out.println(deque);
+
+    java.util.Iterator<String> iterator = deque.iterator();
+    while (iterator.hasNext())
+      if (iterator.next().contains("r"))
+        iterator.remove();
+    System.out.println("Without r: " + deque);
+
+    IntArrayDeque intDeque = new IntArrayDeque(4);
+    for (int i = 1; i <= 5; i++) {
+      intDeque.addLast(i);
+      intDeque.addFirst(-i);
+    }
+    System.out.println(intDeque);
+    System.out.println("pollFirst " + intDeque.pollFirst() + ", pollLast " +
+      intDeque.pollLast() + ", peekFirst " + intDeque.peekFirst());
+
+    // The same results as java.util.ArrayDeque on random operations, with
+    // a small array so that the elements wrap around and grow often
+    java.util.Random random = new java.util.Random(1);
+    java.util.ArrayDeque<Integer> expected = new java.util.ArrayDeque<>();
+    MyArrayDeque<Integer> actual = new MyArrayDeque<>(2);
+    IntArrayDeque actualInts = new IntArrayDeque(2);
+    boolean same = true;
+    for (int i = 0; i < 200000; i++) {
+      int value = random.nextInt(1000);
+      int operation = random.nextInt(5);
+      if (operation == 0) {
+        expected.addFirst(value);
+        actual.addFirst(value);
+        actualInts.addFirst(value);
+      }
+      else if (operation == 1) {
+        expected.addLast(value);
+        actual.addLast(value);
+        actualInts.addLast(value);
+      }
+      else if (expected.isEmpty())
+        same &= actual.pollFirst() == null && actual.pollLast() == null &&
+          actualInts.isEmpty();
+      else if (operation == 2) {
+        int e = expected.pollFirst();
+        same &= actual.pollFirst() == e && actualInts.pollFirst() == e;
+      }
+      else if (operation == 3) {
+        int e = expected.pollLast();
+        same &= actual.pollLast() == e && actualInts.pollLast() == e;
+      }
+      else {
+        int index = random.nextInt(expected.size());
+        int e = actual.get(index);
+        same &= actualInts.get(index) == e;
+        // Remove and insert in the middle, which java.util.ArrayDeque
+        // cannot, through a list
+        if (random.nextInt(10) == 0) {
+          java.util.List<Integer> list = new java.util.ArrayList<>(expected);
+          list.remove(index);
+          list.add(list.size() / 3, value);
+          expected = new java.util.ArrayDeque<>(list);
+          actual.remove(index);
+          actual.add(actual.size() / 3, value);
+          actualInts = new IntArrayDeque(toIntArray(actual));
+        }
+      }
+
+      same &= expected.size() == actual.size() &&
+        expected.size() == actualInts.size();
+    }
+
+    Object[] elements = expected.toArray();
+    int k = 0;
+    for (Integer e: actual)
+      same &= e.equals(elements[k++]);
+    same &= java.util.Arrays.equals(toIntArray(actual), actualInts.toArray());
+    System.out.println("Same as java.util.ArrayDeque? " + same + ", size " +
+      actual.size());
+  }
+
+  private static int[] toIntArray(MyArrayDeque<Integer> deque) {
+    int[] result = new int[deque.size()];
+    for (int i = 0; i < result.length; i++)
+      result[i] = deque.get(i);
+    return result;
+  }
+}
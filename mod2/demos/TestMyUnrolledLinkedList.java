@@ -0,0 +1,117 @@
+public class TestMyUnrolledLinkedList {
+  public static void main(String[] args) {
+    MyUnrolledLinkedList<String> list = new MyUnrolledLinkedList<>(4);
+    list.add("America");
+    list.add(0, "Canada");
+    list.add("Russia");
+    list.add("France");
+    list.add(2, "Germany");
+    list.add(5, "Norway");
+    System.out.println(list + " in " + list.getNodeCount() + " nodes");
+    System.out.println("get(2) " + list.get(2) + ", indexOf(France) " +
+      list.indexOf("France") + ", contains(Spain) " + list.contains("Spain"));
+    list.remove(0);
+    list.remove("Norway");
+    list.set(0, "Mexico");
+    System.out.println(list);
+
+    java.util.Iterator<String> iterator = list.iterator();
+    while (iterator.hasNext())
+      if (iterator.next().startsWith("R"))
+        iterator.remove();
+    System.out.println("Without R: " + list);
+
+    // The same results as java.util.ArrayList on random operations, with
+    // small nodes so that they split and merge often
+    java.util.Random random = new java.util.Random(1);
+    java.util.List<Integer> expected = new java.util.ArrayList<>();
+    MyUnrolledLinkedList<Integer> actual = new MyUnrolledLinkedList<>(8);
+    boolean same = true;
+    for (int i = 0; i < 200000; i++) {
+      int value = random.nextInt(1000);
+      int operation = random.nextInt(6);
+      if (operation <= 1 || expected.isEmpty()) {
+        int index = random.nextInt(expected.size() + 1);
+        expected.add(index, value);
+        actual.add(index, value);
+      }
+      else if (operation == 2) {
+        int index = random.nextInt(expected.size());
+        same &= expected.remove(index).equals(actual.remove(index));
+      }
+      else if (operation == 3) {
+        int index = random.nextInt(expected.size());
+        same &= expected.set(index, value).equals(actual.set(index, value));
+      }
+      else if (operation == 4) {
+        int index = random.nextInt(expected.size());
+        same &= expected.get(index).equals(actual.get(index));
+      }
+      else {
+        same &= expected.indexOf(value) == actual.indexOf(value) &&
+          expected.lastIndexOf(value) == actual.lastIndexOf(value);
+        // Remove the multiples of value with both iterators
+        if (random.nextInt(100) == 0) {
+          final int divisor = value + 2;
+          expected.removeIf(e -> e % divisor == 0);
+          java.util.Iterator<Integer> it = actual.iterator();
+          while (it.hasNext())
+            if (it.next() % divisor == 0)
+              it.remove();
+        }
+      }
+    }
+    same &= expected.size() == actual.size() &&
+      expected.toString().equals(actual.toString());
+    System.out.println("Same as java.util.ArrayList? " + same + ", " +
+      actual.size() + " elements in " + actual.getNodeCount() + " nodes");
+
+    int n = 200_000;
+    for (int round = 0; round < 5; round++) {
+      MyArrayList<Integer> arrayList = new MyArrayList<>();
+      java.util.LinkedList<Integer> linkedList = new java.util.LinkedList<>();
+      MyUnrolledLinkedList<Integer> unrolledList =
+        new MyUnrolledLinkedList<>();
+      for (int i = 0; i < n; i++) {
+        arrayList.add(i);
+        linkedList.add(i);
+        unrolledList.add(i);
+      }
+
+      // Insert in the middle, then read every element by index
+      long startTime = System.nanoTime();
+      for (int i = 0; i < 20000; i++)
+        arrayList.add(arrayList.size() / 2, i);
+      long sum1 = 0;
+      for (int i = 0; i < arrayList.size(); i++)
+        sum1 += arrayList.get(i);
+      long arrayTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      java.util.ListIterator<Integer> middle =
+        linkedList.listIterator(linkedList.size() / 2);
+      for (int i = 0; i < 20000; i++)
+        middle.add(i);
+      long sum2 = 0;
+      for (int e: linkedList)
+        sum2 += e;
+      long linkedTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < 20000; i++)
+        unrolledList.add(unrolledList.size() / 2, i);
+      long sum3 = 0;
+      for (int i = 0; i < unrolledList.size(); i++)
+        sum3 += unrolledList.get(i);
+      long unrolledTime = System.nanoTime() - startTime;
+
+      if (round == 4)
+        System.out.println("20000 middle inserts into " + n +
+          " elements, then a sum: MyArrayList " + arrayTime / 1000000 +
+          " ms, java.util.LinkedList with a ListIterator " +
+          linkedTime / 1000000 + " ms, MyUnrolledLinkedList " +
+          unrolledTime / 1000000 + " ms, same sums? " +
+          (sum1 == sum2 && sum2 == sum3));
+    }
+  }
+}
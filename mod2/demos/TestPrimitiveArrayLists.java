@@ -0,0 +1,79 @@
+public class TestPrimitiveArrayLists {
+  public static void main(String[] args) {
+    IntArrayList list = new IntArrayList();
+    list.add(5);
+    list.add(0, 9);
+    list.addAll(new int[] {3, 7, 3});
+    list.set(1, 4);
+    System.out.println(list + ", indexOf(3) " + list.indexOf(3) +
+      ", lastIndexOf(3) " + list.lastIndexOf(3));
+    System.out.println("remove(0) " + list.remove(0) + ", removeValue(7) " +
+      list.removeValue(7) + ": " + list);
+    list.sort();
+    System.out.println("Sorted " + list + ", binarySearch(4) " +
+      list.binarySearch(4) + ", binarySearch(5) " + list.binarySearch(5) +
+      ", sum " + list.stream().sum());
+
+    LongArrayList longs = new LongArrayList(new long[] {1L << 40, -1, 7});
+    longs.sort();
+    System.out.println(longs + ", max " + longs.stream().max().getAsLong());
+
+    DoubleArrayList doubles = new DoubleArrayList();
+    doubles.addAll(new double[] {2.5, Double.NaN, -0.0, 0.0});
+    System.out.println(doubles + ", indexOf(NaN) " +
+      doubles.indexOf(Double.NaN) + ", indexOf(0.0) " + doubles.indexOf(0.0));
+
+    // The same results as MyArrayList<Integer> on random operations
+    java.util.Random random = new java.util.Random(1);
+    MyArrayList<Integer> expected = new MyArrayList<>();
+    IntArrayList actual = new IntArrayList();
+    boolean same = true;
+    for (int i = 0; i < 100000; i++) {
+      int value = random.nextInt(100);
+      int operation = random.nextInt(4);
+      if (operation == 0 || expected.size() == 0) {
+        int index = random.nextInt(expected.size() + 1);
+        expected.add(index, value);
+        actual.add(index, value);
+      }
+      else if (operation == 1) {
+        int index = random.nextInt(expected.size());
+        same &= expected.remove(index) == actual.remove(index);
+      }
+      else if (operation == 2)
+        same &= expected.remove((Integer)value) == actual.removeValue(value);
+      else
+        same &= expected.indexOf(value) == actual.indexOf(value);
+    }
+    same &= expected.toString().equals(actual.toString());
+    System.out.println("Same as MyArrayList? " + same);
+
+    // Summing 10 million values
+    int n = 10_000_000;
+    for (int round = 0; round < 5; round++) {
+      long startTime = System.nanoTime();
+      MyArrayList<Integer> boxed = new MyArrayList<>();
+      for (int i = 0; i < n; i++)
+        boxed.add(i);
+      long boxedSum = 0;
+      for (int i = 0; i < n; i++)
+        boxedSum += boxed.get(i);
+      long boxedTime = System.nanoTime() - startTime;
+      boxed = null;
+
+      startTime = System.nanoTime();
+      IntArrayList ints = new IntArrayList();
+      for (int i = 0; i < n; i++)
+        ints.add(i);
+      long sum = 0;
+      for (int i = 0; i < n; i++)
+        sum += ints.get(i);
+      long intTime = System.nanoTime() - startTime;
+
+      if (round == 4)
+        System.out.println("Add and sum " + n + " values: MyArrayList " +
+          boxedTime / 1000000 + " ms, IntArrayList " + intTime / 1000000 +
+          " ms, same sum? " + (sum == boxedSum));
+    }
+  }
+}
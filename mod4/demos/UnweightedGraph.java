@@ -170,19 +170,22 @@ public class UnweightedGraph<V> implements Graph<V> {
     for (int i = 0; i < parent.length; i++)
       parent[i] = -1;
 
-    java.util.LinkedList<Integer> queue =
-      new java.util.LinkedList<>();
+    // Each vertex is added to the queue at most once, so an int array of
+    // one slot per vertex holds the queue without boxing or nodes
+    int[] queue = new int[vertices.size()];
+    int head = 0;
+    int tail = 0;
     boolean[] isVisited = new boolean[vertices.size()];
-    queue.offer(v);
+    queue[tail++] = v;
     isVisited[v] = true;
 
-    while (!queue.isEmpty()) {
-      int u = queue.poll();
+    while (head < tail) {
+      int u = queue[head++];
       searchOrder.add(u);
       for (Edge e: neighbors.get(u)) {
         int w = e.v;
         if (!isVisited[w]) { 
-          queue.offer(w);
+          queue[tail++] = w;
           parent[w] = u;
           isVisited[w] = true;
         }
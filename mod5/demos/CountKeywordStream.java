@@ -18,21 +18,20 @@ public class CountKeywordStream {
     }
   }
 
-  public static long countKeywords(File file) throws Exception {
-    String[] keywordString = { "abstract", "assert", "boolean",
-        "break", "byte", "case", "catch", "char", "class", "const",
-        "continue", "default", "do", "double", "else", "enum",
-        "extends", "for", "final", "finally", "float", "goto",
-        "if", "implements", "import", "instanceof", "int",
-        "interface", "long", "native", "new", "package", "private",
-        "protected", "public", "return", "short", "static",
-        "strictfp", "super", "switch", "synchronized", "this",
-        "throw", "throws", "transient", "try", "void", "volatile",
-        "while", "true", "false", "null" };
-
-    Set<String> keywordSet = new HashSet<>(Arrays.asList(keywordString));
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+      "abstract", "assert", "boolean",
+      "break", "byte", "case", "catch", "char", "class", "const",
+      "continue", "default", "do", "double", "else", "enum",
+      "extends", "for", "final", "finally", "float", "goto",
+      "if", "implements", "import", "instanceof", "int",
+      "interface", "long", "native", "new", "package", "private",
+      "protected", "public", "return", "short", "static",
+      "strictfp", "super", "switch", "synchronized", "this",
+      "throw", "throws", "transient", "try", "void", "volatile",
+      "while", "true", "false", "null"));
 
+  public static long countKeywords(File file) throws Exception {
     return Files.lines(file.toPath()).parallel()
-        .mapToLong(line -> Stream.of(line.split("[\\s++]")).filter(word -> keywordSet.contains(word)).count()).sum();
+        .mapToLong(line -> Stream.of(line.split("[\\s++]")).filter(word -> KEYWORDS.contains(word)).count()).sum();
   }
 }